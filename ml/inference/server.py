@@ -74,6 +74,18 @@ class ModelStore:
 
 model_store = ModelStore()
 
+# Model input order, matching the training pipeline's feature columns
+FEATURE_ORDER = [
+    "transaction_count_30d",
+    "avg_amount_30d",
+    "max_amount_30d",
+    "unique_counterparties",
+    "account_age_days",
+    "country_risk_score",
+]
+
+MAX_BATCH_SIZE = 1000
+
 
 class PredictionRequest(BaseModel):
     """Request schema for prediction."""
@@ -90,6 +102,27 @@ class PredictionResponse(BaseModel):
     inference_time_ms: float
 
 
+class BatchPredictionRequest(BaseModel):
+    """Request schema for batch prediction."""
+    requests: list[PredictionRequest] = Field(..., max_length=MAX_BATCH_SIZE)
+
+
+class BatchPredictionResponse(BaseModel):
+    """Response schema for batch prediction, in request order."""
+    predictions: list[PredictionResponse]
+
+
+def risk_level(risk_score: float) -> str:
+    """Map a risk score to its level."""
+    if risk_score >= 0.75:
+        return "critical"
+    elif risk_score >= 0.5:
+        return "high"
+    elif risk_score >= 0.25:
+        return "medium"
+    return "low"
+
+
 @app.on_event("startup")
 async def startup():
     """Load model on startup."""
@@ -128,30 +161,12 @@ async def predict(request: PredictionRequest):
     start_time = time.perf_counter()
     
     try:
-        feature_order = [
-            "transaction_count_30d",
-            "avg_amount_30d",
-            "max_amount_30d",
-            "unique_counterparties",
-            "account_age_days",
-            "country_risk_score",
-        ]
-        
-        X = np.array([[request.features.get(f, 0.0) for f in feature_order]])
+        X = np.array([[request.features.get(f, 0.0) for f in FEATURE_ORDER]])
         X_scaled = model_store.scaler.transform(X)
         
         proba = model_store.model.predict_proba(X_scaled)[0, 1]
         risk_score = float(proba)
         
-        if risk_score >= 0.75:
-            risk_level = "critical"
-        elif risk_score >= 0.5:
-            risk_level = "high"
-        elif risk_score >= 0.25:
-            risk_level = "medium"
-        else:
-            risk_level = "low"
-        
         inference_time = (time.perf_counter() - start_time) * 1000
         
         INFERENCE_REQUESTS.labels(status="success").inc()
@@ -160,7 +175,7 @@ async def predict(request: PredictionRequest):
         return PredictionResponse(
             entity_id=request.entity_id,
             risk_score=risk_score,
-            risk_level=risk_level,
+            risk_level=risk_level(risk_score),
             model_id=model_store.model_id or "unknown",
             inference_time_ms=inference_time,
         )
@@ -171,6 +186,48 @@ async def predict(request: PredictionRequest):
         raise HTTPException(status_code=500, detail=str(e))
 
 
+@app.post("/predict/batch", response_model=BatchPredictionResponse)
+async def predict_batch(batch: BatchPredictionRequest):
+    """Make risk predictions for a batch of entities in one model call."""
+    if model_store.model is None:
+        INFERENCE_REQUESTS.labels(status="error").inc()
+        raise HTTPException(status_code=503, detail="Model not loaded")
+    if not batch.requests:
+        return BatchPredictionResponse(predictions=[])
+    
+    start_time = time.perf_counter()
+    
+    try:
+        X = np.array([
+            [request.features.get(f, 0.0) for f in FEATURE_ORDER]
+            for request in batch.requests
+        ])
+        X_scaled = model_store.scaler.transform(X)
+        
+        proba = model_store.model.predict_proba(X_scaled)[:, 1]
+        
+        inference_time = (time.perf_counter() - start_time) * 1000
+        
+        INFERENCE_REQUESTS.labels(status="success").inc(len(batch.requests))
+        INFERENCE_LATENCY.observe(inference_time / 1000)
+        
+        return BatchPredictionResponse(predictions=[
+            PredictionResponse(
+                entity_id=request.entity_id,
+                risk_score=float(score),
+                risk_level=risk_level(float(score)),
+                model_id=model_store.model_id or "unknown",
+                inference_time_ms=inference_time,
+            )
+            for request, score in zip(batch.requests, proba)
+        ])
+        
+    except Exception as e:
+        INFERENCE_REQUESTS.labels(status="error").inc()
+        logger.error(f"Batch inference error: {e}")
+        raise HTTPException(status_code=500, detail=str(e))
+
+
 def main():
     import uvicorn
     uvicorn.run(app, host="0.0.0.0", port=8000)
@@ -0,0 +1,134 @@
+"""
+Hafnium ML Model Export
+
+This module exports trained risk models to a compact JSON format that the
+stream processor evaluates in-process, without the inference service.
+"""
+
+import argparse
+import json
+import logging
+import pickle
+from pathlib import Path
+from typing import Any
+
+import numpy as np
+from sklearn.ensemble import GradientBoostingClassifier
+from sklearn.linear_model import LogisticRegression
+from sklearn.preprocessing import StandardScaler
+
+logging.basicConfig(level=logging.INFO, format="%(asctime)s - %(name)s - %(levelname)s - %(message)s")
+logger = logging.getLogger(__name__)
+
+FORMAT = "hafnium-model/v1"
+
+
+def export_model(
+    model: Any,
+    scaler: StandardScaler | None,
+    feature_names: list[str],
+    model_id: str,
+) -> dict[str, Any]:
+    """
+    Export a model as a tree ensemble or linear model on raw features.
+
+    The scaler is folded into split thresholds and coefficients, so the
+    exported model takes the same unscaled features as the pipeline input.
+    """
+    n_features = len(feature_names)
+    if scaler is not None:
+        mean = np.asarray(scaler.mean_, dtype=float)
+        scale = np.asarray(scaler.scale_, dtype=float)
+    else:
+        mean = np.zeros(n_features)
+        scale = np.ones(n_features)
+
+    exported: dict[str, Any] = {
+        "format": FORMAT,
+        "model_id": model_id,
+        "features": list(feature_names),
+        "link": "logistic",
+    }
+
+    if isinstance(model, GradientBoostingClassifier):
+        if model.n_classes_ != 2:
+            raise ValueError("Only binary gradient boosting models can be exported")
+        exported["type"] = "tree_ensemble"
+        exported["base_score"] = _initial_log_odds(model)
+        exported["trees"] = [
+            _export_tree(estimator.tree_, model.learning_rate, mean, scale)
+            for estimator in model.estimators_[:, 0]
+        ]
+    elif isinstance(model, LogisticRegression):
+        if model.coef_.shape[0] != 1:
+            raise ValueError("Only binary logistic regression models can be exported")
+        coef = model.coef_[0] / scale
+        exported["type"] = "linear"
+        exported["coefficients"] = coef.tolist()
+        exported["intercept"] = float(model.intercept_[0] - np.dot(coef, mean))
+    else:
+        raise ValueError(f"Unsupported model type: {type(model).__name__}")
+
+    return exported
+
+
+def _initial_log_odds(model: GradientBoostingClassifier) -> float:
+    """Raw prediction of the initial estimator, before the first tree."""
+    if model.init_ == "zero":
+        return 0.0
+    prior = float(np.clip(model.init_.class_prior_[1], 1e-15, 1 - 1e-15))
+    return float(np.log(prior / (1 - prior)))
+
+
+def _export_tree(tree: Any, learning_rate: float, mean: np.ndarray, scale: np.ndarray) -> dict[str, list]:
+    """Export one regression tree as parallel node arrays; leaves have feature -1."""
+    is_leaf = tree.children_left == -1
+    feature = np.where(is_leaf, -1, tree.feature)
+    safe_feature = np.where(is_leaf, 0, tree.feature)
+    threshold = np.where(is_leaf, 0.0, tree.threshold * scale[safe_feature] + mean[safe_feature])
+    return {
+        "feature": feature.astype(int).tolist(),
+        "threshold": threshold.tolist(),
+        "left": tree.children_left.astype(int).tolist(),
+        "right": tree.children_right.astype(int).tolist(),
+        "value": (tree.value[:, 0, 0] * learning_rate).tolist(),
+    }
+
+
+def write_model(exported: dict[str, Any], output_path: Path) -> Path:
+    """Write an exported model next to its pickle and point latest.model.json at it."""
+    model_file = output_path / f"{exported['model_id']}.model.json"
+    with open(model_file, "w") as f:
+        json.dump(exported, f)
+
+    latest_link = output_path / "latest.model.json"
+    if latest_link.is_symlink() or latest_link.exists():
+        latest_link.unlink()
+    latest_link.symlink_to(model_file.name)
+
+    logger.info(f"Model exported: {model_file}")
+    return model_file
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Hafnium ML Model Export")
+    parser.add_argument("--model", type=Path, default=Path("models/latest"))
+    parser.add_argument("--features", type=str, required=True, help="Comma-separated feature names")
+    parser.add_argument("--output", type=Path, default=Path("models/"))
+    args = parser.parse_args()
+
+    with open(args.model, "rb") as f:
+        artifact = pickle.load(f)
+
+    model_id = args.model.resolve().stem
+    exported = export_model(
+        artifact["model"],
+        artifact.get("scaler"),
+        args.features.split(","),
+        model_id,
+    )
+    write_model(exported, args.output)
+
+
+if __name__ == "__main__":
+    main()
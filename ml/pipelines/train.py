@@ -19,9 +19,20 @@ from sklearn.ensemble import GradientBoostingClassifier
 from sklearn.model_selection import train_test_split
 from sklearn.preprocessing import StandardScaler
 
+from pipelines.export import export_model, write_model
+
 logging.basicConfig(level=logging.INFO, format="%(asctime)s - %(name)s - %(levelname)s - %(message)s")
 logger = logging.getLogger(__name__)
 
+DEFAULT_FEATURES = [
+    "transaction_count_30d",
+    "avg_amount_30d",
+    "max_amount_30d",
+    "unique_counterparties",
+    "account_age_days",
+    "country_risk_score",
+]
+
 
 @dataclass
 class ModelMetadata:
@@ -55,6 +66,7 @@ class TrainingPipeline:
         self.config = config
         self.model = None
         self.scaler = StandardScaler()
+        self.feature_cols = config.get("features", DEFAULT_FEATURES)
         
     def load_data(self, data_path: Path) -> pd.DataFrame:
         """Load training data."""
@@ -71,15 +83,7 @@ class TrainingPipeline:
         """Preprocess data for training."""
         logger.info("Preprocessing data")
         
-        feature_cols = self.config.get("features", [
-            "transaction_count_30d",
-            "avg_amount_30d",
-            "max_amount_30d",
-            "unique_counterparties",
-            "account_age_days",
-            "country_risk_score",
-        ])
-        
+        feature_cols = self.feature_cols
         target_col = self.config.get("target", "is_suspicious")
         
         X = df[feature_cols].fillna(0).values
@@ -154,6 +158,13 @@ class TrainingPipeline:
             latest_link.unlink()
         latest_link.symlink_to(model_file.name)
         
+        # Compact copy for in-process scoring in the stream processor
+        fitted_scaler = self.scaler if hasattr(self.scaler, "mean_") else None
+        write_model(
+            export_model(self.model, fitted_scaler, self.feature_cols, model_id),
+            output_path,
+        )
+        
         logger.info(f"Model saved: {model_file}")
         return metadata
     
@@ -56,6 +56,42 @@ class TestTrainingPipeline:
         assert metrics["train_accuracy"] > 0.5
 
 
+class TestModelExport:
+    """Tests for model export."""
+    
+    @staticmethod
+    def _evaluate(exported, x):
+        """Evaluate an exported tree ensemble the way the stream processor does."""
+        raw = exported["base_score"]
+        for tree in exported["trees"]:
+            node = 0
+            while tree["feature"][node] != -1:
+                f = tree["feature"][node]
+                node = tree["left"][node] if x[f] <= tree["threshold"][node] else tree["right"][node]
+            raw += tree["value"][node]
+        return 1 / (1 + np.exp(-raw))
+    
+    def test_exported_ensemble_matches_scaled_model(self):
+        """Test that the exported model scores raw features like the pipeline."""
+        from pipelines.export import export_model
+        from pipelines.train import DEFAULT_FEATURES, TrainingPipeline
+        
+        np.random.seed(42)
+        pipeline = TrainingPipeline({"model_params": {"n_estimators": 10, "max_depth": 3}})
+        raw = np.random.rand(200, 6) * 100
+        X = pipeline.scaler.fit_transform(raw)
+        y = (X[:, 0] + X[:, 1] > 0).astype(int)
+        pipeline.train(X, y)
+        
+        exported = export_model(pipeline.model, pipeline.scaler, DEFAULT_FEATURES, "test-model")
+        expected = pipeline.model.predict_proba(X[:20])[:, 1]
+        
+        assert exported["type"] == "tree_ensemble"
+        assert len(exported["trees"]) == 10
+        for row, probability in zip(raw[:20], expected):
+            assert self._evaluate(exported, row) == pytest.approx(probability, abs=1e-3)
+
+
 class TestEvaluationPipeline:
     """Tests for evaluation pipeline."""
     
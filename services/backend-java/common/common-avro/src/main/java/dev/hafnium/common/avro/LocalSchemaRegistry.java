@@ -0,0 +1,149 @@
+package dev.hafnium.common.avro;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File-based stand-in for a schema registry.
+ *
+ * <p>
+ * Schemas are read from a {@code registry.json} index that assigns each
+ * subject version a fixed numeric id, as a schema registry would. Subjects
+ * follow the topic naming strategy ({@code <topic>-value}), so the ids can be
+ * registered unchanged in a real registry later. Every version of a subject
+ * must be able to read data written with the previous version; the registry
+ * refuses to load otherwise.
+ */
+public final class LocalSchemaRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalSchemaRegistry.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String INDEX_FILE = "registry.json";
+
+    private final Map<Integer, RegisteredSchema> byId;
+    private final Map<String, RegisteredSchema> latestBySubject;
+
+    private LocalSchemaRegistry(Map<Integer, RegisteredSchema> byId, Map<String, RegisteredSchema> latestBySubject) {
+        this.byId = Map.copyOf(byId);
+        this.latestBySubject = Map.copyOf(latestBySubject);
+    }
+
+    /**
+     * Loads the registry from a directory.
+     *
+     * @param location Directory holding {@code registry.json}, either a file
+     *                 system path or a {@code classpath:} location
+     * @return The registry
+     */
+    public static LocalSchemaRegistry load(String location) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<Integer, RegisteredSchema> byId = new HashMap<>();
+        Map<String, RegisteredSchema> latestBySubject = new HashMap<>();
+
+        JsonNode index = readTree(objectMapper, location, INDEX_FILE);
+        for (JsonNode entry : index.path("schemas")) {
+            int id = entry.path("id").asInt();
+            String subject = entry.path("subject").asText();
+            int version = entry.path("version").asInt();
+            Schema schema = new Schema.Parser().parse(readTree(objectMapper, location, entry.path("file").asText())
+                    .toString());
+
+            RegisteredSchema registered = new RegisteredSchema(id, subject, version, schema);
+            if (byId.putIfAbsent(id, registered) != null) {
+                throw new IllegalStateException("Duplicate schema id " + id + " in " + location);
+            }
+
+            RegisteredSchema previous = latestBySubject.get(subject);
+            if (previous != null) {
+                if (previous.version() >= version) {
+                    throw new IllegalStateException(
+                            "Versions of subject " + subject + " must be listed in ascending order");
+                }
+                SchemaCompatibility.SchemaCompatibilityType compatibility = SchemaCompatibility
+                        .checkReaderWriterCompatibility(schema, previous.schema())
+                        .getType();
+                if (compatibility != SchemaCompatibility.SchemaCompatibilityType.COMPATIBLE) {
+                    throw new IllegalStateException("Version " + version + " of subject " + subject
+                            + " cannot read data written with version " + previous.version());
+                }
+            }
+            latestBySubject.put(subject, registered);
+        }
+
+        LOG.info("Loaded {} Avro schemas for {} subjects from {}", byId.size(), latestBySubject.size(), location);
+        return new LocalSchemaRegistry(byId, latestBySubject);
+    }
+
+    /**
+     * Returns the subject of a topic's record values.
+     *
+     * @param topic The topic name
+     * @return The subject name
+     */
+    public static String valueSubject(String topic) {
+        return topic + "-value";
+    }
+
+    /**
+     * Looks up a schema by id.
+     *
+     * @param id The schema id
+     * @return The schema, or null if the id is unknown
+     */
+    public RegisteredSchema byId(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Looks up the latest version of a subject.
+     *
+     * @param subject The subject name
+     * @return The schema, or null if the subject is unknown
+     */
+    public RegisteredSchema latest(String subject) {
+        return latestBySubject.get(subject);
+    }
+
+    private static JsonNode readTree(ObjectMapper objectMapper, String location, String file) {
+        try (InputStream in = open(location, file)) {
+            return objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file + " from schema registry " + location, e);
+        }
+    }
+
+    private static InputStream open(String location, String file) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length()).replaceAll("^/+|/+$", "") + "/" + file;
+            InputStream in = LocalSchemaRegistry.class.getClassLoader().getResourceAsStream(resource);
+            if (in == null) {
+                throw new IOException("Classpath resource " + resource + " not found");
+            }
+            return in;
+        }
+        return Files.newInputStream(Path.of(location, file));
+    }
+
+    /**
+     * A schema registered under a subject.
+     *
+     * @param id      Registry-wide schema id
+     * @param subject Subject name
+     * @param version Version within the subject
+     * @param schema  The parsed schema
+     */
+    public record RegisteredSchema(int id, String subject, int version, Schema schema) {
+    }
+}
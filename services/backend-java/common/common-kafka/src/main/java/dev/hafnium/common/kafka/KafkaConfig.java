@@ -1,10 +1,13 @@
 package dev.hafnium.common.kafka;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.avro.LocalSchemaRegistry;
+import dev.hafnium.common.kafka.avro.AvroEnvelopeEncoder;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,6 +44,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
     private String autoOffsetReset;
 
+    @Value("${hafnium.kafka.avro.registry-location:classpath:avro}")
+    private String schemaRegistryLocation;
+
     /**
      * Creates the Kafka producer factory.
      *
@@ -48,21 +54,17 @@ public class KafkaConfig {
      */
     @Bean
     public ProducerFactory<String, String> producerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-
-        // Enable idempotent producer for exactly-once semantics
-        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        config.put(ProducerConfig.ACKS_CONFIG, "all");
-        config.put(ProducerConfig.RETRIES_CONFIG, 3);
-
-        // Batching for performance
-        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
-        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(producerConfig(StringSerializer.class));
+    }
 
-        return new DefaultKafkaProducerFactory<>(config);
+    /**
+     * Creates the producer factory for encoded event envelopes.
+     *
+     * @return The producer factory
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> eventProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfig(ByteArraySerializer.class));
     }
 
     /**
@@ -77,6 +79,18 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Creates the Kafka template for encoded event envelopes.
+     *
+     * @param eventProducerFactory The producer factory
+     * @return The Kafka template
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> eventKafkaTemplate(
+            ProducerFactory<String, byte[]> eventProducerFactory) {
+        return new KafkaTemplate<>(eventProducerFactory);
+    }
+
     /**
      * Creates the Kafka consumer factory.
      *
@@ -137,4 +151,32 @@ public class KafkaConfig {
         mapper.findAndRegisterModules(); // Register JSR-310 for Instant
         return mapper;
     }
+
+    /**
+     * Creates the Avro encoder for event envelopes.
+     *
+     * @param kafkaObjectMapper The ObjectMapper for JSON serialization
+     * @return The encoder, backed by the local schema registry
+     */
+    @Bean
+    public AvroEnvelopeEncoder avroEnvelopeEncoder(ObjectMapper kafkaObjectMapper) {
+        return new AvroEnvelopeEncoder(LocalSchemaRegistry.load(schemaRegistryLocation), kafkaObjectMapper);
+    }
+
+    private Map<String, Object> producerConfig(Class<?> valueSerializer) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+
+        // Enable idempotent producer for exactly-once semantics
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.RETRIES_CONFIG, 3);
+
+        // Batching for performance
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return config;
+    }
 }
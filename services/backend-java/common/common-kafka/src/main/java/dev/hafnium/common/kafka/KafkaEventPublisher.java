@@ -2,14 +2,20 @@ package dev.hafnium.common.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.kafka.avro.AvroEnvelopeEncoder;
+import dev.hafnium.common.kafka.avro.EventEncoding;
 import dev.hafnium.common.model.event.EventEnvelope;
 import dev.hafnium.common.model.event.EventType;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
@@ -23,6 +29,12 @@ import org.springframework.stereotype.Component;
  * appropriate Kafka topic based on the event type. It automatically adds
  * headers for routing and
  * tracing.
+ *
+ * <p>
+ * Envelopes are written as JSON or, for topics with a registered schema, as
+ * Avro according to {@code hafnium.kafka.event-encoding}. The {@code dual}
+ * encoding keeps JSON on the topic and writes an Avro copy to its shadow topic
+ * while consumers migrate.
  */
 @Component
 public class KafkaEventPublisher {
@@ -33,13 +45,23 @@ public class KafkaEventPublisher {
     private static final String HEADER_TENANT_ID = "tenant_id";
     private static final String HEADER_TRACE_ID = "trace_id";
     private static final String HEADER_SCHEMA_VERSION = "schema_version";
+    private static final String HEADER_CONTENT_TYPE = "content_type";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     private final ObjectMapper objectMapper;
-
-    public KafkaEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+    private final AvroEnvelopeEncoder avroEncoder;
+    private final EventEncoding encoding;
+
+    public KafkaEventPublisher(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            ObjectMapper objectMapper,
+            AvroEnvelopeEncoder avroEncoder,
+            @Value("${hafnium.kafka.event-encoding:json}") String encoding) {
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.avroEncoder = avroEncoder;
+        this.encoding = EventEncoding.valueOf(encoding.trim().toUpperCase(Locale.ROOT));
+        LOG.info("Publishing events with {} encoding", this.encoding);
     }
 
     /**
@@ -53,7 +75,7 @@ public class KafkaEventPublisher {
      * @param <T>       The payload type
      * @return CompletableFuture with the send result
      */
-    public <T> CompletableFuture<SendResult<String, String>> publish(
+    public <T> CompletableFuture<SendResult<String, byte[]>> publish(
             EventType eventType, UUID tenantId, String actorId, UUID traceId, T payload) {
 
         EventEnvelope<T> envelope = EventEnvelope.create(eventType.getEventType(), traceId, tenantId, actorId, payload);
@@ -73,7 +95,7 @@ public class KafkaEventPublisher {
      * @param <T>         The payload type
      * @return CompletableFuture with the send result
      */
-    public <T> CompletableFuture<SendResult<String, String>> publishWithCausation(
+    public <T> CompletableFuture<SendResult<String, byte[]>> publishWithCausation(
             EventType eventType,
             UUID tenantId,
             String actorId,
@@ -95,23 +117,20 @@ public class KafkaEventPublisher {
      * @param <T>      The payload type
      * @return CompletableFuture with the send result
      */
-    public <T> CompletableFuture<SendResult<String, String>> publishEnvelope(
+    public <T> CompletableFuture<SendResult<String, byte[]>> publishEnvelope(
             String topic, EventEnvelope<T> envelope) {
 
+        boolean avroTopic = encoding != EventEncoding.JSON && avroEncoder.supports(topic);
         try {
-            String json = objectMapper.writeValueAsString(envelope);
-
-            ProducerRecord<String, String> record = new ProducerRecord<>(topic, envelope.tenantId().toString(), json);
-
-            // Add headers for routing and observability
-            record.headers().add(new RecordHeader(HEADER_EVENT_TYPE,
-                    envelope.eventType().getBytes()));
-            record.headers().add(new RecordHeader(HEADER_TENANT_ID,
-                    envelope.tenantId().toString().getBytes()));
-            record.headers().add(new RecordHeader(HEADER_TRACE_ID,
-                    envelope.traceId().toString().getBytes()));
-            record.headers().add(new RecordHeader(HEADER_SCHEMA_VERSION,
-                    envelope.schemaVersion().getBytes()));
+            byte[] value;
+            String contentType;
+            if (avroTopic && encoding == EventEncoding.AVRO) {
+                value = avroEncoder.encode(topic, envelope);
+                contentType = EventEncoding.CONTENT_TYPE_AVRO;
+            } else {
+                value = objectMapper.writeValueAsBytes(envelope);
+                contentType = EventEncoding.CONTENT_TYPE_JSON;
+            }
 
             LOG.debug(
                     "Publishing event {} to topic {} for tenant {}",
@@ -119,9 +138,15 @@ public class KafkaEventPublisher {
                     topic,
                     envelope.tenantId());
 
-            return kafkaTemplate.send(record);
+            CompletableFuture<SendResult<String, byte[]>> result = kafkaTemplate.send(
+                    record(topic, envelope, value, contentType));
+
+            if (avroTopic && encoding == EventEncoding.DUAL) {
+                publishShadowCopy(topic, envelope);
+            }
+            return result;
 
-        } catch (JsonProcessingException e) {
+        } catch (JsonProcessingException | SerializationException e) {
             LOG.error("Failed to serialize event envelope", e);
             return CompletableFuture.failedFuture(e);
         }
@@ -139,7 +164,7 @@ public class KafkaEventPublisher {
      * @param traceId       The trace ID
      * @return CompletableFuture with the send result
      */
-    public CompletableFuture<SendResult<String, String>> publishToDeadLetter(
+    public CompletableFuture<SendResult<String, byte[]>> publishToDeadLetter(
             String originalTopic,
             Object originalEvent,
             String errorMessage,
@@ -162,4 +187,41 @@ public class KafkaEventPublisher {
             String errorType,
             int retryCount) {
     }
+
+    private <T> void publishShadowCopy(String topic, EventEnvelope<T> envelope) {
+        String shadowTopic = EventEncoding.shadowTopic(topic);
+        try {
+            byte[] value = avroEncoder.encode(topic, envelope);
+            kafkaTemplate.send(record(shadowTopic, envelope, value, EventEncoding.CONTENT_TYPE_AVRO))
+                    .whenComplete((sent, failure) -> {
+                        if (failure != null) {
+                            LOG.warn("Failed to publish Avro copy of event {} to {}: {}",
+                                    envelope.eventId(), shadowTopic, failure.getMessage());
+                        }
+                    });
+        } catch (SerializationException e) {
+            // The JSON record is authoritative while dual writing
+            LOG.warn("Failed to encode Avro copy of event {} for {}: {}",
+                    envelope.eventId(), shadowTopic, e.getMessage());
+        }
+    }
+
+    private static <T> ProducerRecord<String, byte[]> record(
+            String topic, EventEnvelope<T> envelope, byte[] value, String contentType) {
+
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, envelope.tenantId().toString(), value);
+
+        // Add headers for routing and observability
+        record.headers().add(new RecordHeader(HEADER_EVENT_TYPE,
+                envelope.eventType().getBytes()));
+        record.headers().add(new RecordHeader(HEADER_TENANT_ID,
+                envelope.tenantId().toString().getBytes()));
+        record.headers().add(new RecordHeader(HEADER_TRACE_ID,
+                envelope.traceId().toString().getBytes()));
+        record.headers().add(new RecordHeader(HEADER_SCHEMA_VERSION,
+                envelope.schemaVersion().getBytes()));
+        record.headers().add(new RecordHeader(HEADER_CONTENT_TYPE,
+                contentType.getBytes(StandardCharsets.UTF_8)));
+        return record;
+    }
 }
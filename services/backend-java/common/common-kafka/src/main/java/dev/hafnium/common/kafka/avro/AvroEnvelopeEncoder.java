@@ -0,0 +1,285 @@
+package dev.hafnium.common.kafka.avro;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.avro.LocalSchemaRegistry;
+import dev.hafnium.common.model.event.EventEnvelope;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Encodes event envelopes as Avro binary in the schema registry wire format.
+ *
+ * <p>
+ * Each value is a zero magic byte, the big-endian schema id and the Avro
+ * binary body, so consumers written against a schema registry can read the
+ * records as is. The envelope is written against the latest schema of the
+ * topic's value subject by walking the schema and matching fields by name,
+ * without building intermediate trees or generic records. A field missing
+ * from the schema fails the encoding rather than being dropped, so payloads
+ * cannot silently outgrow their schema.
+ */
+public final class AvroEnvelopeEncoder {
+
+    /** First byte of every Avro encoded value. */
+    public static final byte MAGIC_BYTE = 0x0;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /** Buffered encoders are reset onto each output stream, so one per thread is reused. */
+    private static final ThreadLocal<BinaryEncoder> REUSABLE_ENCODER = new ThreadLocal<>();
+
+    private static final ThreadLocal<byte[]> UUID_TEXT = ThreadLocal.withInitial(() -> new byte[36]);
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final LocalSchemaRegistry registry;
+    private final ObjectMapper objectMapper;
+
+    public AvroEnvelopeEncoder(LocalSchemaRegistry registry, ObjectMapper objectMapper) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Checks whether a topic has a registered value schema.
+     *
+     * @param topic The topic name
+     * @return true if envelopes for the topic can be encoded
+     */
+    public boolean supports(String topic) {
+        return registry.latest(LocalSchemaRegistry.valueSubject(topic)) != null;
+    }
+
+    /**
+     * Encodes an envelope with the latest value schema of a topic.
+     *
+     * @param topic    The topic name
+     * @param envelope The event envelope
+     * @return The encoded value
+     * @throws SerializationException if the topic has no schema or the envelope
+     *                                does not fit it
+     */
+    public byte[] encode(String topic, EventEnvelope<?> envelope) {
+        String subject = LocalSchemaRegistry.valueSubject(topic);
+        LocalSchemaRegistry.RegisteredSchema registered = registry.latest(subject);
+        if (registered == null) {
+            throw new SerializationException("No Avro schema registered for subject " + subject);
+        }
+
+        Map<String, Object> fields = new HashMap<>(16);
+        fields.put("event_id", envelope.eventId());
+        fields.put("event_type", envelope.eventType());
+        fields.put("trace_id", envelope.traceId());
+        fields.put("tenant_id", envelope.tenantId());
+        fields.put("actor_id", envelope.actorId());
+        fields.put("occurred_at", envelope.occurredAt());
+        fields.put("schema_version", envelope.schemaVersion());
+        fields.put("causation_id", envelope.causationId());
+        fields.put("payload", envelope.payload() instanceof Map<?, ?> map
+                ? map
+                : objectMapper.convertValue(envelope.payload(), MAP_TYPE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MAGIC_BYTE);
+        out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(registered.id()).array());
+        try {
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, REUSABLE_ENCODER.get());
+            REUSABLE_ENCODER.set(encoder);
+            write(fields, registered.schema(), encoder, "", "");
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to encode event " + envelope.eventId() + " for " + subject, e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(Object value, Schema schema, BinaryEncoder out, String parent, String name)
+            throws IOException {
+        if (schema.getType() == Schema.Type.UNION) {
+            writeUnion(value, schema, out, parent, name);
+            return;
+        }
+        if (value == null) {
+            throw new SerializationException("Field " + qualify(parent, name) + " is required by the schema");
+        }
+
+        // Field paths are only built for error messages and nested values
+        LogicalType logicalType = schema.getLogicalType();
+        switch (schema.getType()) {
+            case RECORD -> writeRecord(value, schema, out, qualify(parent, name));
+            case MAP -> {
+                String path = qualify(parent, name);
+                Map<?, ?> map = asMap(value, path);
+                out.writeMapStart();
+                out.setItemCount(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.startItem();
+                    String key = String.valueOf(entry.getKey());
+                    out.writeString(key);
+                    write(entry.getValue(), schema.getValueType(), out, path, key);
+                }
+                out.writeMapEnd();
+            }
+            case STRING -> {
+                if (value instanceof UUID uuid) {
+                    writeUuid(uuid, out);
+                    return;
+                }
+                if (value instanceof Map<?, ?> || value instanceof List<?>) {
+                    throw new SerializationException("Field " + qualify(parent, name) + " must be a scalar");
+                }
+                out.writeString(value.toString());
+            }
+            case BOOLEAN -> out.writeBoolean(value instanceof Boolean bool
+                    ? bool
+                    : Boolean.parseBoolean(value.toString()));
+            case INT -> out.writeInt(asNumber(value, parent, name).intValue());
+            case LONG -> out.writeLong(logicalType instanceof LogicalTypes.TimestampMicros
+                    ? toEpochMicros(value, parent, name)
+                    : asNumber(value, parent, name).longValue());
+            case DOUBLE -> out.writeDouble(asNumber(value, parent, name).doubleValue());
+            case BYTES -> {
+                if (!(logicalType instanceof LogicalTypes.Decimal decimal)) {
+                    throw new SerializationException("Field " + qualify(parent, name) + " must be a decimal");
+                }
+                out.writeBytes(toUnscaledBytes(value, decimal, parent, name));
+            }
+            default -> throw new SerializationException(
+                    "Unsupported Avro type " + schema.getType() + " for field " + qualify(parent, name));
+        }
+    }
+
+    private static void writeUnion(Object value, Schema union, BinaryEncoder out, String parent, String name)
+            throws IOException {
+        List<Schema> branches = union.getTypes();
+        for (int i = 0; i < branches.size(); i++) {
+            boolean nullBranch = branches.get(i).getType() == Schema.Type.NULL;
+            if (nullBranch == (value == null)) {
+                out.writeIndex(i);
+                if (!nullBranch) {
+                    write(value, branches.get(i), out, parent, name);
+                }
+                return;
+            }
+        }
+        throw new SerializationException("Field " + qualify(parent, name) + " is required by the schema");
+    }
+
+    private static void writeRecord(Object value, Schema schema, BinaryEncoder out, String path) throws IOException {
+        Map<?, ?> fields = asMap(value, path);
+        int written = 0;
+        for (Schema.Field field : schema.getFields()) {
+            Object fieldValue = fields.get(field.name());
+            write(fieldValue, field.schema(), out, path, field.name());
+            if (fieldValue != null) {
+                written++;
+            }
+        }
+        if (written == fields.size()) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : fields.entrySet()) {
+            if (entry.getValue() != null && schema.getField(String.valueOf(entry.getKey())) == null) {
+                throw new SerializationException("Field " + qualify(path, String.valueOf(entry.getKey()))
+                        + " is not in schema " + schema.getFullName());
+            }
+        }
+    }
+
+    private static void writeUuid(UUID uuid, BinaryEncoder out) throws IOException {
+        // Avro strings are length-prefixed UTF-8, the same encoding as bytes
+        byte[] text = UUID_TEXT.get();
+        formatHex(uuid.getMostSignificantBits() >>> 32, 8, text, 0);
+        text[8] = '-';
+        formatHex(uuid.getMostSignificantBits() >>> 16, 4, text, 9);
+        text[13] = '-';
+        formatHex(uuid.getMostSignificantBits(), 4, text, 14);
+        text[18] = '-';
+        formatHex(uuid.getLeastSignificantBits() >>> 48, 4, text, 19);
+        text[23] = '-';
+        formatHex(uuid.getLeastSignificantBits(), 12, text, 24);
+        out.writeBytes(text, 0, text.length);
+    }
+
+    private static void formatHex(long bits, int digits, byte[] text, int offset) {
+        for (int i = digits - 1; i >= 0; i--) {
+            text[offset + i] = HEX_DIGITS[(int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+    }
+
+    private static Map<?, ?> asMap(Object value, String path) {
+        if (value instanceof Map<?, ?> map) {
+            return map;
+        }
+        throw new SerializationException("Field " + (path.isEmpty() ? "<root>" : path) + " must be an object");
+    }
+
+    private static Number asNumber(Object value, String parent, String name) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new SerializationException("Field " + qualify(parent, name) + " must be a number", e);
+        }
+    }
+
+    private static long toEpochMicros(Object value, String parent, String name) {
+        try {
+            if (value instanceof Number number) {
+                // Epoch seconds with a fraction, as written by the JSR-310 module
+                return new BigDecimal(number.toString()).movePointRight(6)
+                        .setScale(0, RoundingMode.FLOOR)
+                        .longValueExact();
+            }
+            Instant instant = value instanceof Instant i ? i : Instant.parse(value.toString());
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+        } catch (ArithmeticException | DateTimeParseException e) {
+            throw new SerializationException("Field " + qualify(parent, name) + " is not a valid timestamp", e);
+        }
+    }
+
+    private static byte[] toUnscaledBytes(Object value, LogicalTypes.Decimal decimal, String parent, String name) {
+        try {
+            BigDecimal amount = value instanceof BigDecimal bigDecimal
+                    ? bigDecimal
+                    : new BigDecimal(value.toString());
+            amount = amount.setScale(decimal.getScale(), RoundingMode.UNNECESSARY);
+            if (amount.precision() > decimal.getPrecision()) {
+                throw new SerializationException(
+                        "Field " + qualify(parent, name) + " exceeds precision " + decimal.getPrecision());
+            }
+            // Avro decimals are the big-endian two's complement unscaled value
+            return amount.unscaledValue().toByteArray();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new SerializationException(
+                    "Field " + qualify(parent, name) + " does not fit decimal(" + decimal.getPrecision() + ","
+                            + decimal.getScale() + ")",
+                    e);
+        }
+    }
+
+    private static String qualify(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+}
@@ -0,0 +1,38 @@
+package dev.hafnium.common.kafka.avro;
+
+/**
+ * Wire encoding of published event envelopes.
+ *
+ * <p>
+ * Topics without a registered Avro schema are always written as JSON.
+ */
+public enum EventEncoding {
+
+    /** JSON on the topic. */
+    JSON,
+
+    /**
+     * JSON on the topic and an Avro copy on its shadow topic, so Avro consumers
+     * can be verified before the topic switches encoding.
+     */
+    DUAL,
+
+    /** Avro on the topic. */
+    AVRO;
+
+    /** Content type header value of JSON encoded values. */
+    public static final String CONTENT_TYPE_JSON = "application/json";
+
+    /** Content type header value of Avro encoded values. */
+    public static final String CONTENT_TYPE_AVRO = "avro/binary";
+
+    /**
+     * Returns the shadow topic that receives Avro copies in {@link #DUAL} mode.
+     *
+     * @param topic The topic name
+     * @return The shadow topic name
+     */
+    public static String shadowTopic(String topic) {
+        return topic + ".avro";
+    }
+}
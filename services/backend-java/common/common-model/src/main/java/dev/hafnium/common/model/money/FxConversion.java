@@ -0,0 +1,71 @@
+package dev.hafnium.common.model.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversion of minor-unit amounts by fixed-point FX rates.
+ *
+ * <p>
+ * Rates are longs at {@link #RATE_EXPONENT} decimal places, so converting an
+ * amount is a long multiplication with half-even rounding; only products
+ * that overflow a long fall back to {@link BigDecimal}. Both the monitoring
+ * service and the stream processor convert through this class, so their base
+ * currency amounts agree to the minor unit.
+ */
+public final class FxConversion {
+
+    /** Decimal places of a fixed-point rate. */
+    public static final int RATE_EXPONENT = 8;
+
+    /** Fixed-point value of a rate of one. */
+    public static final long RATE_SCALE = 100_000_000L;
+
+    private FxConversion() {
+    }
+
+    /**
+     * Converts a decimal rate to fixed point.
+     *
+     * @param currency ISO 4217 code of the rate's currency, for messages
+     * @param rate     Value of one unit of the currency in the base currency
+     * @return The rate at {@link #RATE_EXPONENT} decimal places
+     * @throws ArithmeticException      if the rate has more than
+     *                                  {@link #RATE_EXPONENT} decimal places
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public static long toFixedPoint(String currency, BigDecimal rate) {
+        if (rate.signum() <= 0) {
+            throw new IllegalArgumentException("FX rate for " + currency + " must be positive: " + rate);
+        }
+        return rate.setScale(RATE_EXPONENT, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts an amount in minor units by a fixed-point rate, rounding half
+     * even. The result is at the amount's exponent.
+     *
+     * @param units The amount in minor units
+     * @param rate  The rate at {@link #RATE_EXPONENT} decimal places
+     * @return The converted amount in minor units
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long convert(long units, long rate) {
+        long product;
+        try {
+            product = Math.multiplyExact(units, rate);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(units)
+                    .multiply(BigDecimal.valueOf(rate, RATE_EXPONENT))
+                    .setScale(0, RoundingMode.HALF_EVEN)
+                    .longValueExact();
+        }
+
+        long quotient = product / RATE_SCALE;
+        long twiceRemainder = Math.abs(product % RATE_SCALE) * 2;
+        if (twiceRemainder > RATE_SCALE || (twiceRemainder == RATE_SCALE && (quotient & 1) != 0)) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,238 @@
+package dev.hafnium.common.model.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point monetary amount held as a count of minor units.
+ *
+ * <p>
+ * The value is {@code units * 10^-exponent}, e.g. 1234.50 at exponent 2 is
+ * {@code 123450}. Comparisons and arithmetic between amounts of the same
+ * exponent are plain {@code long} operations, so hot paths such as rule
+ * evaluation never allocate or parse decimals. Conversion from and to
+ * {@link BigDecimal} happens only at API and persistence boundaries and is
+ * exact: values that would lose digits or overflow are rejected with an
+ * {@link ArithmeticException}.
+ */
+public final class MinorUnits implements Comparable<MinorUnits> {
+
+    /** Largest supported exponent; 10^18 is the largest power of ten in a long. */
+    public static final int MAX_EXPONENT = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_EXPONENT + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_EXPONENT; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private final long units;
+    private final int exponent;
+
+    private MinorUnits(long units, int exponent) {
+        this.units = units;
+        this.exponent = exponent;
+    }
+
+    /**
+     * Creates an amount from a count of minor units.
+     *
+     * @param units    The amount in minor units
+     * @param exponent Number of decimal places of one minor unit
+     * @return The amount
+     */
+    public static MinorUnits ofMinor(long units, int exponent) {
+        checkExponent(exponent);
+        return new MinorUnits(units, exponent);
+    }
+
+    /**
+     * Converts a decimal amount exactly.
+     *
+     * @param amount   The decimal amount
+     * @param exponent Number of decimal places of one minor unit
+     * @return The amount
+     * @throws ArithmeticException if the amount has more decimal places than
+     *                             the exponent or does not fit in a long
+     */
+    public static MinorUnits of(BigDecimal amount, int exponent) {
+        checkExponent(exponent);
+        long units = amount.setScale(exponent, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        return new MinorUnits(units, exponent);
+    }
+
+    /**
+     * Returns the amount in minor units.
+     *
+     * @return The minor units
+     */
+    public long units() {
+        return units;
+    }
+
+    /**
+     * Returns the number of decimal places of one minor unit.
+     *
+     * @return The exponent
+     */
+    public int exponent() {
+        return exponent;
+    }
+
+    /**
+     * Converts the amount to a decimal with a scale equal to the exponent.
+     *
+     * @return The decimal amount
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, exponent);
+    }
+
+    /**
+     * Converts the amount to a double, e.g. for scoring features.
+     *
+     * @return The nearest double value
+     */
+    public double toDouble() {
+        return (double) units / POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Returns this amount at a different exponent.
+     *
+     * @param targetExponent The new exponent
+     * @return The rescaled amount
+     * @throws ArithmeticException if digits would be lost or the result
+     *                             overflows
+     */
+    public MinorUnits withExponent(int targetExponent) {
+        checkExponent(targetExponent);
+        if (targetExponent == exponent) {
+            return this;
+        }
+        if (targetExponent > exponent) {
+            return new MinorUnits(
+                    Math.multiplyExact(units, POWERS_OF_TEN[targetExponent - exponent]), targetExponent);
+        }
+        long divisor = POWERS_OF_TEN[exponent - targetExponent];
+        if (units % divisor != 0) {
+            throw new ArithmeticException("Rescaling " + this + " to exponent " + targetExponent + " loses digits");
+        }
+        return new MinorUnits(units / divisor, targetExponent);
+    }
+
+    /**
+     * Adds another amount of the same exponent.
+     *
+     * @param other The amount to add
+     * @return The sum
+     * @throws ArithmeticException if the sum overflows
+     */
+    public MinorUnits plus(MinorUnits other) {
+        requireSameExponent(other);
+        return new MinorUnits(Math.addExact(units, other.units), exponent);
+    }
+
+    /**
+     * Subtracts another amount of the same exponent.
+     *
+     * @param other The amount to subtract
+     * @return The difference
+     * @throws ArithmeticException if the difference overflows
+     */
+    public MinorUnits minus(MinorUnits other) {
+        requireSameExponent(other);
+        return new MinorUnits(Math.subtractExact(units, other.units), exponent);
+    }
+
+    public boolean isGreaterThan(MinorUnits other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(MinorUnits other) {
+        return compareTo(other) < 0;
+    }
+
+    /**
+     * Compares amounts numerically.
+     *
+     * <p>
+     * Amounts of the same exponent compare as longs; otherwise the smaller
+     * exponent is scaled up, falling back to {@link BigDecimal} on overflow.
+     */
+    @Override
+    public int compareTo(MinorUnits other) {
+        if (exponent == other.exponent) {
+            return Long.compare(units, other.units);
+        }
+        try {
+            if (exponent < other.exponent) {
+                return Long.compare(
+                        Math.multiplyExact(units, POWERS_OF_TEN[other.exponent - exponent]), other.units);
+            }
+            return Long.compare(
+                    units, Math.multiplyExact(other.units, POWERS_OF_TEN[exponent - other.exponent]));
+        } catch (ArithmeticException e) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    /**
+     * Two amounts are equal if they have the same units and exponent, as with
+     * {@link BigDecimal#equals(Object)}; use {@link #compareTo} for numeric
+     * equality across exponents.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof MinorUnits other && units == other.units && exponent == other.exponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units) * 31 + exponent;
+    }
+
+    /** Returns the plain decimal representation, e.g. {@code 1234.50}. */
+    @Override
+    public String toString() {
+        if (exponent == 0) {
+            return Long.toString(units);
+        }
+        String digits = Long.toString(Math.abs(units));
+        if (units == Long.MIN_VALUE) {
+            digits = digits.substring(1);
+        }
+        StringBuilder text = new StringBuilder(digits.length() + exponent + 3);
+        if (units < 0) {
+            text.append('-');
+        }
+        int integerDigits = digits.length() - exponent;
+        if (integerDigits <= 0) {
+            text.append("0.");
+            text.append("0".repeat(-integerDigits));
+            text.append(digits);
+        } else {
+            text.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        }
+        return text.toString();
+    }
+
+    private void requireSameExponent(MinorUnits other) {
+        if (exponent != other.exponent) {
+            throw new IllegalArgumentException(
+                    "Exponent mismatch: " + exponent + " and " + other.exponent);
+        }
+    }
+
+    private static void checkExponent(int exponent) {
+        if (exponent < 0 || exponent > MAX_EXPONENT) {
+            throw new IllegalArgumentException("Exponent must be between 0 and " + MAX_EXPONENT + ": " + exponent);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package dev.hafnium.monitoring.engine;
+
+import dev.hafnium.common.model.money.MinorUnits;
+import dev.hafnium.monitoring.domain.Transaction;
+import dev.hafnium.monitoring.domain.Transaction.TransactionType;
+import dev.hafnium.monitoring.engine.RuleEngine.RuleThresholds;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks amount handling in {@link RuleEngine#evaluate(Transaction)}.
+ *
+ * <p>
+ * {@code decimalAmountRules} replays the amount checks of RULE-001 and
+ * RULE-005 as they were written against {@link BigDecimal} amounts;
+ * {@code minorUnitAmountRules} runs the same checks the way the rules now do,
+ * on {@link MinorUnits} with thresholds converted up front.
+ * {@code evaluate} measures the full default rule set. Run with
+ * {@code ./gradlew :monitoring-service:jmh} and compare {@code gc.alloc.rate.norm}
+ * for allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+    private static final int TRANSACTIONS = 1024;
+
+    private final RuleEngine engine = new RuleEngine(RuleThresholds.DEFAULTS);
+
+    private Transaction[] transactions;
+    private BigDecimal[] decimalAmounts;
+    private MinorUnits highValueThreshold;
+    private MinorUnits reportingThreshold;
+    private long structuringFloor;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        UUID tenantId = UUID.randomUUID();
+        transactions = new Transaction[TRANSACTIONS];
+        decimalAmounts = new BigDecimal[TRANSACTIONS];
+
+        // Thresholds converted once, as RuleEngine does at construction
+        RuleThresholds thresholds = RuleThresholds.DEFAULTS;
+        highValueThreshold = MinorUnits.of(thresholds.highValueThreshold(), Transaction.AMOUNT_EXPONENT);
+        reportingThreshold = MinorUnits.of(thresholds.reportingThreshold(), Transaction.AMOUNT_EXPONENT);
+        structuringFloor = reportingThreshold
+                .minus(MinorUnits.of(thresholds.structuringRange(), Transaction.AMOUNT_EXPONENT))
+                .units();
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            // Mostly everyday amounts, a few near or above the thresholds
+            long units = random.nextInt(20) == 0
+                    ? 9_000_0000L + random.nextInt(2_000_0000)
+                    : random.nextInt(5_000_0000);
+            MinorUnits amount = MinorUnits.ofMinor(units, Transaction.AMOUNT_EXPONENT);
+
+            Transaction transaction = new Transaction();
+            transaction.setTenantId(tenantId);
+            transaction.setCustomerId(UUID.randomUUID());
+            transaction.setAmount(amount);
+            transaction.setCurrency("EUR");
+            transaction.setTxnType(TransactionType.TRANSFER);
+            transaction.setTxnTimestamp(Instant.now());
+            transactions[i] = transaction;
+            decimalAmounts[i] = amount.toBigDecimal();
+        }
+    }
+
+    @Benchmark
+    public List<?> evaluate() {
+        return engine.evaluate(transactions[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean decimalAmountRules() {
+        BigDecimal amount = decimalAmounts[nextIndex()];
+        RuleThresholds thresholds = RuleThresholds.DEFAULTS;
+        BigDecimal reporting = thresholds.reportingThreshold();
+        boolean highValue = amount.compareTo(thresholds.highValueThreshold()) > 0;
+        boolean structured = amount.compareTo(reporting.subtract(thresholds.structuringRange())) >= 0
+                && amount.compareTo(reporting) < 0;
+        return highValue | structured;
+    }
+
+    @Benchmark
+    public boolean minorUnitAmountRules() {
+        MinorUnits amount = transactions[nextIndex()].getAmount();
+        boolean highValue = amount.isGreaterThan(highValueThreshold);
+        boolean structured = amount.units() >= structuringFloor && amount.units() < reportingThreshold.units();
+        return highValue | structured;
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (TRANSACTIONS - 1);
+        return index;
+    }
+}
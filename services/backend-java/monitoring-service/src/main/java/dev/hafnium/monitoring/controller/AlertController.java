@@ -7,7 +7,9 @@ import dev.hafnium.monitoring.domain.Alert;
 import dev.hafnium.monitoring.domain.Alert.AlertStatus;
 import dev.hafnium.monitoring.domain.Alert.Severity;
 import dev.hafnium.monitoring.dto.AlertResponse;
+import dev.hafnium.monitoring.dto.AlertStatsResponse;
 import dev.hafnium.monitoring.repository.AlertRepository;
+import dev.hafnium.monitoring.service.AlertStatsService;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -28,9 +30,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AlertController {
 
     private final AlertRepository alertRepository;
+    private final AlertStatsService alertStatsService;
 
-    public AlertController(AlertRepository alertRepository) {
+    public AlertController(AlertRepository alertRepository, AlertStatsService alertStatsService) {
         this.alertRepository = alertRepository;
+        this.alertStatsService = alertStatsService;
     }
 
     /**
@@ -72,6 +76,29 @@ public class AlertController {
         return ResponseEntity.ok(PagedResponse.of(responses, nextCursor, page.hasNext()));
     }
 
+    /**
+     * Gets pre-aggregated alert statistics for dashboards.
+     *
+     * <p>
+     * Served from incrementally maintained counters, never from the alerts
+     * table. While the counters cannot be read, the last counts read are
+     * served, or empty counts without {@code generated_at}.
+     *
+     * @param days Number of most recent days in the daily series (default 30,
+     *             max 366)
+     * @return Alert counts by status, severity, rule and day
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('ANALYST', 'ADMIN')")
+    public ResponseEntity<AlertStatsResponse> getAlertStats(
+            @RequestParam(defaultValue = "30") int days) {
+
+        UUID tenantId = TenantContext.requireTenantId();
+        days = Math.min(Math.max(days, 1), 366);
+
+        return ResponseEntity.ok(alertStatsService.getStats(tenantId, days));
+    }
+
     /**
      * Gets an alert by ID.
      *
@@ -103,6 +130,8 @@ public class AlertController {
                 alert.getExplanation(),
                 alert.getTriggeredConditions(),
                 alert.getCaseId(),
+                alert.getOccurrenceCount(),
+                alert.getLastSeenAt(),
                 alert.getCreatedAt());
     }
 }
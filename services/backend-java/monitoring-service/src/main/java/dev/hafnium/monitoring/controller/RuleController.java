@@ -0,0 +1,129 @@
+package dev.hafnium.monitoring.controller;
+
+import dev.hafnium.common.security.TenantContext;
+import dev.hafnium.common.web.ResourceNotFoundException;
+import dev.hafnium.monitoring.dto.RuleBacktestRequest;
+import dev.hafnium.monitoring.dto.RuleBacktestResponse;
+import dev.hafnium.monitoring.dto.ShadowRuleSetRequest;
+import dev.hafnium.monitoring.dto.ShadowRuleSetResponse;
+import dev.hafnium.monitoring.engine.RuleEngine.RuleThresholds;
+import dev.hafnium.monitoring.engine.ShadowEvaluationLane;
+import dev.hafnium.monitoring.engine.ShadowEvaluationLane.ShadowSnapshot;
+import dev.hafnium.monitoring.service.RuleBacktestService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for monitoring rule operations.
+ */
+@RestController
+@RequestMapping("/api/v1/rules")
+@Validated
+public class RuleController {
+
+    private final RuleBacktestService ruleBacktestService;
+    private final ShadowEvaluationLane shadowEvaluationLane;
+
+    public RuleController(RuleBacktestService ruleBacktestService, ShadowEvaluationLane shadowEvaluationLane) {
+        this.ruleBacktestService = ruleBacktestService;
+        this.shadowEvaluationLane = shadowEvaluationLane;
+    }
+
+    /**
+     * Backtests candidate rule thresholds against historical transactions.
+     *
+     * @param request The time range and candidate thresholds
+     * @return Alert counts and deltas against the production rules
+     */
+    @PostMapping("/backtest")
+    @PreAuthorize("hasAnyRole('ANALYST', 'ADMIN')")
+    public ResponseEntity<RuleBacktestResponse> backtest(@Valid @RequestBody RuleBacktestRequest request) {
+        UUID tenantId = TenantContext.requireTenantId();
+        return ResponseEntity.ok(ruleBacktestService.backtest(tenantId, request));
+    }
+
+    /**
+     * Registers or replaces a shadow rule set evaluated on live traffic.
+     *
+     * <p>
+     * Shadow rule sets never raise alerts; their firings are only recorded as
+     * metrics and as a diff against production.
+     *
+     * @param name    The shadow rule set name
+     * @param request The candidate thresholds
+     * @return The registered shadow rule set
+     */
+    @PutMapping("/shadow/{name}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShadowRuleSetResponse> registerShadowRuleSet(
+            @PathVariable @Pattern(regexp = "^[A-Za-z0-9_-]{1,64}$") String name,
+            @Valid @RequestBody ShadowRuleSetRequest request) {
+        UUID tenantId = TenantContext.requireTenantId();
+
+        RuleThresholds thresholds = RuleThresholds.DEFAULTS.withOverrides(
+                request.highValueThreshold(),
+                request.reportingThreshold(),
+                request.structuringRange(),
+                request.highRiskCountries());
+
+        return ResponseEntity.ok(toResponse(shadowEvaluationLane.register(tenantId, name, thresholds)));
+    }
+
+    /**
+     * Lists shadow rule sets with their diff against production.
+     *
+     * @return The tenant's shadow rule sets
+     */
+    @GetMapping("/shadow")
+    @PreAuthorize("hasAnyRole('ANALYST', 'ADMIN')")
+    public ResponseEntity<List<ShadowRuleSetResponse>> listShadowRuleSets() {
+        UUID tenantId = TenantContext.requireTenantId();
+        return ResponseEntity.ok(shadowEvaluationLane.snapshots(tenantId).stream().map(this::toResponse).toList());
+    }
+
+    /**
+     * Removes a shadow rule set.
+     *
+     * @param name The shadow rule set name
+     * @return Empty response
+     */
+    @DeleteMapping("/shadow/{name}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> removeShadowRuleSet(
+            @PathVariable @Pattern(regexp = "^[A-Za-z0-9_-]{1,64}$") String name) {
+        UUID tenantId = TenantContext.requireTenantId();
+        if (!shadowEvaluationLane.remove(tenantId, name)) {
+            throw new ResourceNotFoundException("ShadowRuleSet", name);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ShadowRuleSetResponse toResponse(ShadowSnapshot snapshot) {
+        return new ShadowRuleSetResponse(
+                snapshot.name(),
+                snapshot.thresholds().highValueThreshold(),
+                snapshot.thresholds().reportingThreshold(),
+                snapshot.thresholds().structuringRange(),
+                snapshot.thresholds().highRiskCountries(),
+                snapshot.evaluated(),
+                snapshot.productionFirings(),
+                snapshot.shadowFirings(),
+                snapshot.recentDiffs().stream()
+                        .map(diff -> new ShadowRuleSetResponse.Diff(
+                                diff.txnId(), diff.shadowOnly(), diff.productionOnly(), diff.evaluatedAt()))
+                        .toList());
+    }
+}
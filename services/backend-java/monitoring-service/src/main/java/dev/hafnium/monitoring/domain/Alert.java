@@ -8,7 +8,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
@@ -68,6 +70,12 @@ public class Alert {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Column(name = "occurrence_count", nullable = false)
+    private int occurrenceCount = 1;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private Instant lastSeenAt;
+
     @Column(name = "acknowledged_at")
     private Instant acknowledgedAt;
 
@@ -77,6 +85,7 @@ public class Alert {
     public Alert() {
         this.alertId = UUID.randomUUID();
         this.createdAt = Instant.now();
+        this.lastSeenAt = this.createdAt;
     }
 
     // Getters and setters
@@ -185,6 +194,22 @@ public class Alert {
         this.createdAt = createdAt;
     }
 
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(int occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Instant getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(Instant lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+
     public Instant getAcknowledgedAt() {
         return acknowledgedAt;
     }
@@ -216,6 +241,9 @@ public class Alert {
         INVESTIGATING,
         ESCALATED,
         CLOSED_TRUE_POSITIVE,
-        CLOSED_FALSE_POSITIVE
+        CLOSED_FALSE_POSITIVE;
+
+        /** Statuses in which repeated firings are still merged into the alert. */
+        public static final Set<AlertStatus> OPEN = EnumSet.of(NEW, ACKNOWLEDGED, INVESTIGATING, ESCALATED);
     }
 }
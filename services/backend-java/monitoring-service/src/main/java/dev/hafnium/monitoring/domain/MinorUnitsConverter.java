@@ -0,0 +1,28 @@
+package dev.hafnium.monitoring.domain;
+
+import dev.hafnium.common.model.money.MinorUnits;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Converts transaction amounts between {@link MinorUnits} and the
+ * {@code NUMERIC(20,4)} amount column.
+ *
+ * <p>
+ * Amounts are held at {@link Transaction#AMOUNT_EXPONENT}, the column scale,
+ * so every stored value converts exactly.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<MinorUnits, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(MinorUnits attribute) {
+        return attribute != null ? attribute.toBigDecimal() : null;
+    }
+
+    @Override
+    public MinorUnits convertToEntityAttribute(BigDecimal dbData) {
+        return dbData != null ? MinorUnits.of(dbData, Transaction.AMOUNT_EXPONENT) : null;
+    }
+}
@@ -1,13 +1,18 @@
 package dev.hafnium.monitoring.domain;
 
+import dev.hafnium.common.model.money.MinorUnits;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -24,6 +29,9 @@ import org.hibernate.type.SqlTypes;
 @Table(name = "transactions")
 public class Transaction {
 
+    /** Decimal places of the amount column; amounts are held in these minor units. */
+    public static final int AMOUNT_EXPONENT = 4;
+
     @Id
     @Column(name = "txn_id")
     private UUID txnId;
@@ -37,12 +45,17 @@ public class Transaction {
     @Column(name = "external_txn_id")
     private String externalTxnId;
 
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "amount", nullable = false, precision = 20, scale = 4)
-    private BigDecimal amount;
+    private MinorUnits amount;
 
     @Column(name = "currency", nullable = false, length = 3)
     private String currency;
 
+    /** Amount in the monitoring base currency, set by FX normalization. */
+    @Transient
+    private MinorUnits baseAmount;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "txn_type", nullable = false)
     private TransactionType txnType;
@@ -117,12 +130,33 @@ public class Transaction {
         this.externalTxnId = externalTxnId;
     }
 
-    public BigDecimal getAmount() {
+    public MinorUnits getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+    /**
+     * Sets the amount, rescaled to {@link #AMOUNT_EXPONENT}.
+     *
+     * @param amount The amount
+     * @throws ArithmeticException if the amount has more decimal places than
+     *                             the amount column
+     */
+    public void setAmount(MinorUnits amount) {
+        this.amount = amount != null ? amount.withExponent(AMOUNT_EXPONENT) : null;
+    }
+
+    /**
+     * Returns the amount in the monitoring base currency.
+     *
+     * @return The normalized amount, or the transaction amount if the
+     *         transaction has not been normalized
+     */
+    public MinorUnits getBaseAmount() {
+        return baseAmount != null ? baseAmount : amount;
+    }
+
+    public void setBaseAmount(MinorUnits baseAmount) {
+        this.baseAmount = baseAmount;
     }
 
     public String getCurrency() {
@@ -213,6 +247,34 @@ public class Transaction {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Returns a detached copy of the fields read by the monitoring rules, for
+     * evaluation on another thread.
+     *
+     * <p>
+     * The copy is not managed by any persistence context and its geo data is
+     * an unmodifiable copy, so later changes to this entity do not reach it.
+     * It is never persisted and must not be modified.
+     *
+     * @return The copy
+     */
+    public Transaction ruleSnapshot() {
+        Transaction copy = new Transaction();
+        copy.txnId = txnId;
+        copy.tenantId = tenantId;
+        copy.customerId = customerId;
+        copy.amount = amount;
+        copy.currency = currency;
+        copy.baseAmount = baseAmount;
+        copy.txnType = txnType;
+        copy.txnTimestamp = txnTimestamp;
+        copy.counterpartyId = counterpartyId;
+        copy.channel = channel;
+        copy.geoData = geoData != null ? Collections.unmodifiableMap(new HashMap<>(geoData)) : null;
+        copy.createdAt = createdAt;
+        return copy;
+    }
+
     /** Transaction types. */
     public enum TransactionType {
         CREDIT,
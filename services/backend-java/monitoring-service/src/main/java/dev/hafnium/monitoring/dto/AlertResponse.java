@@ -21,5 +21,7 @@ public record AlertResponse(
         @JsonProperty("explanation") String explanation,
         @JsonProperty("triggered_conditions") Map<String, Object> triggeredConditions,
         @JsonProperty("case_id") UUID caseId,
+        @JsonProperty("occurrence_count") int occurrenceCount,
+        @JsonProperty("last_seen_at") Instant lastSeenAt,
         @JsonProperty("created_at") Instant createdAt) {
 }
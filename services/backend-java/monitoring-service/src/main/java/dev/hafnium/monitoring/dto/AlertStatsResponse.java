@@ -0,0 +1,17 @@
+package dev.hafnium.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Response DTO for pre-aggregated alert statistics.
+ */
+public record AlertStatsResponse(
+        @JsonProperty("total") long total,
+        @JsonProperty("by_status") Map<String, Long> byStatus,
+        @JsonProperty("by_severity") Map<String, Long> bySeverity,
+        @JsonProperty("by_rule") Map<String, Long> byRule,
+        @JsonProperty("by_day") Map<String, Long> byDay,
+        @JsonProperty("generated_at") Instant generatedAt) {
+}
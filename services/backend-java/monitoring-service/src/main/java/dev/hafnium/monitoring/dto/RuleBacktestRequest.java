@@ -0,0 +1,36 @@
+package dev.hafnium.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request DTO for backtesting a candidate rule set against historical
+ * transactions.
+ *
+ * <p>
+ * Threshold fields are optional; omitted values fall back to the production
+ * rule thresholds.
+ */
+public record RuleBacktestRequest(
+        @JsonProperty("from") @NotNull Instant from,
+        @JsonProperty("to") @NotNull Instant to,
+        @JsonProperty("high_value_threshold") @Digits(integer = 16, fraction = 4) BigDecimal highValueThreshold,
+        @JsonProperty("reporting_threshold") @Digits(integer = 16, fraction = 4) BigDecimal reportingThreshold,
+        @JsonProperty("structuring_range") @Digits(integer = 16, fraction = 4) BigDecimal structuringRange,
+        @JsonProperty("high_risk_countries") List<String> highRiskCountries,
+        @JsonProperty("partitions") @Min(1) @Max(32) Integer partitions) {
+
+    @JsonIgnore
+    @AssertTrue(message = "from must be before to")
+    public boolean isValidRange() {
+        return from == null || to == null || from.isBefore(to);
+    }
+}
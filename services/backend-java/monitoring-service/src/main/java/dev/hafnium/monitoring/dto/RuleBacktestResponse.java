@@ -0,0 +1,35 @@
+package dev.hafnium.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Response DTO for a rule backtest, comparing candidate rules against
+ * production rules over the same transactions.
+ */
+public record RuleBacktestResponse(
+        @JsonProperty("transactions_scanned") long transactionsScanned,
+        @JsonProperty("production_alerts") long productionAlerts,
+        @JsonProperty("candidate_alerts") long candidateAlerts,
+        @JsonProperty("alert_delta") long alertDelta,
+        @JsonProperty("flagged_by_production_only") long flaggedByProductionOnly,
+        @JsonProperty("flagged_by_candidate_only") long flaggedByCandidateOnly,
+        @JsonProperty("rules") List<RuleDelta> rules,
+        @JsonProperty("partitions") int partitions,
+        @JsonProperty("duration_ms") long durationMs) {
+
+    /**
+     * Per-rule alert counts.
+     *
+     * @param ruleId           The rule identifier
+     * @param productionAlerts Alerts raised by the production rule
+     * @param candidateAlerts  Alerts raised by the candidate rule
+     * @param delta            Candidate minus production alerts
+     */
+    public record RuleDelta(
+            @JsonProperty("rule_id") String ruleId,
+            @JsonProperty("production_alerts") long productionAlerts,
+            @JsonProperty("candidate_alerts") long candidateAlerts,
+            @JsonProperty("delta") long delta) {
+    }
+}
@@ -0,0 +1,20 @@
+package dev.hafnium.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Digits;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Request DTO for registering a shadow rule set.
+ *
+ * <p>
+ * Threshold fields are optional; omitted values fall back to the production
+ * rule thresholds.
+ */
+public record ShadowRuleSetRequest(
+        @JsonProperty("high_value_threshold") @Digits(integer = 16, fraction = 4) BigDecimal highValueThreshold,
+        @JsonProperty("reporting_threshold") @Digits(integer = 16, fraction = 4) BigDecimal reportingThreshold,
+        @JsonProperty("structuring_range") @Digits(integer = 16, fraction = 4) BigDecimal structuringRange,
+        @JsonProperty("high_risk_countries") List<String> highRiskCountries) {
+}
@@ -0,0 +1,39 @@
+package dev.hafnium.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Response DTO for a shadow rule set and its diff against production rules.
+ */
+public record ShadowRuleSetResponse(
+        @JsonProperty("name") String name,
+        @JsonProperty("high_value_threshold") BigDecimal highValueThreshold,
+        @JsonProperty("reporting_threshold") BigDecimal reportingThreshold,
+        @JsonProperty("structuring_range") BigDecimal structuringRange,
+        @JsonProperty("high_risk_countries") List<String> highRiskCountries,
+        @JsonProperty("evaluated") long evaluated,
+        @JsonProperty("production_firings") Map<String, Long> productionFirings,
+        @JsonProperty("shadow_firings") Map<String, Long> shadowFirings,
+        @JsonProperty("recent_diffs") List<Diff> recentDiffs) {
+
+    /**
+     * A transaction whose shadow firings differed from production.
+     *
+     * @param txnId          The transaction identifier
+     * @param shadowOnly     Rules that fired only in the shadow rule set
+     * @param productionOnly Rules that fired only in production
+     * @param evaluatedAt    When the shadow evaluation ran
+     */
+    public record Diff(
+            @JsonProperty("txn_id") UUID txnId,
+            @JsonProperty("shadow_only") Set<String> shadowOnly,
+            @JsonProperty("production_only") Set<String> productionOnly,
+            @JsonProperty("evaluated_at") Instant evaluatedAt) {
+    }
+}
@@ -3,6 +3,7 @@ package dev.hafnium.monitoring.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.hafnium.monitoring.domain.Transaction.Channel;
 import dev.hafnium.monitoring.domain.Transaction.TransactionType;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public record TransactionRequest(
                 @JsonProperty("customer_id") UUID customerId,
                 @JsonProperty("external_txn_id") String externalTxnId,
-                @JsonProperty("amount") @NotNull BigDecimal amount,
+                @JsonProperty("amount") @NotNull @Digits(integer = 16, fraction = 4) BigDecimal amount,
                 @JsonProperty("currency") @NotBlank @Pattern(regexp = "^[A-Z]{3}$") String currency,
                 @JsonProperty("txn_type") @NotNull TransactionType txnType,
                 @JsonProperty("txn_timestamp") @NotNull Instant txnTimestamp,
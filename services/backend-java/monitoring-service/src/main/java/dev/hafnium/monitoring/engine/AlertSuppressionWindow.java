@@ -0,0 +1,145 @@
+package dev.hafnium.monitoring.engine;
+
+import dev.hafnium.monitoring.domain.Alert;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Suppression window for repeated rule firings.
+ *
+ * <p>
+ * Tracks the open alert for each (tenant, customer, rule) key. Within the
+ * window, repeated firings are merged into that alert instead of creating new
+ * alerts, events and analyst work. Claims live in Redis so all instances share
+ * the same window; a local TTL map answers repeated firings without a Redis
+ * round trip.
+ */
+@Component
+public class AlertSuppressionWindow {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AlertSuppressionWindow.class);
+
+    private static final String KEY_PREFIX = "hafnium:monitoring:alert-window:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, WindowEntry> localEntries = new ConcurrentHashMap<>();
+
+    @Value("${hafnium.monitoring.suppression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hafnium.monitoring.suppression.window-minutes:1440}")
+    private long windowMinutes;
+
+    @Value("${hafnium.monitoring.suppression.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${hafnium.monitoring.suppression.max-local-entries:100000}")
+    private int maxLocalEntries;
+
+    public AlertSuppressionWindow(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Claims the suppression window for a newly generated alert.
+     *
+     * <p>
+     * If no alert is open for the alert's (tenant, customer, rule) key, the
+     * window is claimed for this alert and an empty result is returned. Otherwise
+     * the identifier of the open alert is returned so the firing can be merged
+     * into it.
+     *
+     * @param alert The newly generated, not yet persisted alert
+     * @return The open alert to merge into, if any
+     */
+    public Optional<UUID> claim(Alert alert) {
+        if (!enabled || alert.getCustomerId() == null) {
+            return Optional.empty();
+        }
+
+        String key = keyFor(alert);
+        Instant now = Instant.now();
+
+        WindowEntry local = localEntries.get(key);
+        if (local != null && local.expiresAt().isAfter(now)) {
+            return Optional.of(local.alertId());
+        }
+
+        Duration window = Duration.ofMinutes(windowMinutes);
+        UUID openAlertId = alert.getAlertId();
+
+        if (redisEnabled) {
+            try {
+                Boolean claimed = redisTemplate.opsForValue()
+                        .setIfAbsent(KEY_PREFIX + key, openAlertId.toString(), window);
+                if (!Boolean.TRUE.equals(claimed)) {
+                    String existing = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+                    if (existing != null) {
+                        openAlertId = UUID.fromString(existing);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to claim alert window in Redis, using local window: {}", e.getMessage());
+            }
+        }
+
+        remember(key, openAlertId, now.plus(window));
+        return openAlertId.equals(alert.getAlertId()) ? Optional.empty() : Optional.of(openAlertId);
+    }
+
+    /**
+     * Replaces a stale claim after the open alert could not be merged into.
+     *
+     * <p>
+     * Called when the claimed alert was closed or never committed; the new
+     * alert takes over the window.
+     *
+     * @param alert The alert that now owns the window
+     */
+    public void reclaim(Alert alert) {
+        if (!enabled || alert.getCustomerId() == null) {
+            return;
+        }
+
+        String key = keyFor(alert);
+        Duration window = Duration.ofMinutes(windowMinutes);
+
+        if (redisEnabled) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + key, alert.getAlertId().toString(), window);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to reclaim alert window in Redis: {}", e.getMessage());
+            }
+        }
+
+        remember(key, alert.getAlertId(), Instant.now().plus(window));
+    }
+
+    private void remember(String key, UUID alertId, Instant expiresAt) {
+        if (localEntries.size() >= maxLocalEntries) {
+            Instant now = Instant.now();
+            localEntries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+            if (localEntries.size() >= maxLocalEntries) {
+                // Still full of live entries; Redis remains authoritative
+                return;
+            }
+        }
+        localEntries.put(key, new WindowEntry(alertId, expiresAt));
+    }
+
+    private static String keyFor(Alert alert) {
+        return alert.getTenantId() + ":" + alert.getCustomerId() + ":" + alert.getRuleId();
+    }
+
+    private record WindowEntry(UUID alertId, Instant expiresAt) {
+    }
+}
@@ -1,12 +1,17 @@
 package dev.hafnium.monitoring.engine;
 
+import dev.hafnium.common.model.money.MinorUnits;
 import dev.hafnium.monitoring.domain.Alert;
 import dev.hafnium.monitoring.domain.Alert.Severity;
 import dev.hafnium.monitoring.domain.Transaction;
+import dev.hafnium.monitoring.domain.Transaction.TransactionType;
+import dev.hafnium.monitoring.graph.CounterpartyGraph.PathResult;
+import dev.hafnium.monitoring.graph.CounterpartyGraphIndex;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -22,8 +27,42 @@ public class RuleEngine {
 
     private final List<Rule> rules = new ArrayList<>();
 
-    public RuleEngine() {
-        initializeDefaultRules();
+    @Autowired
+    public RuleEngine(CounterpartyGraphIndex graphIndex) {
+        this(RuleThresholds.DEFAULTS, graphIndex);
+    }
+
+    /**
+     * Creates a rule engine with custom thresholds and no network rules, e.g.
+     * for backtesting a candidate rule set against history.
+     *
+     * @param thresholds The rule thresholds
+     */
+    public RuleEngine(RuleThresholds thresholds) {
+        this(thresholds, null);
+    }
+
+    /**
+     * Creates a rule engine with custom thresholds.
+     *
+     * @param thresholds The rule thresholds
+     * @param graphIndex The counterparty graph for network rules, or null to
+     *                   skip them
+     */
+    public RuleEngine(RuleThresholds thresholds, CounterpartyGraphIndex graphIndex) {
+        initializeDefaultRules(thresholds);
+        if (graphIndex != null) {
+            initializeNetworkRules(thresholds, graphIndex);
+        }
+    }
+
+    /**
+     * Returns the rules evaluated by this engine.
+     *
+     * @return Unmodifiable list of rules
+     */
+    public List<Rule> getRules() {
+        return List.copyOf(rules);
     }
 
     /**
@@ -60,8 +99,24 @@ public class RuleEngine {
         return alert;
     }
 
-    /** Initializes default monitoring rules. */
-    private void initializeDefaultRules() {
+    /**
+     * Initializes default monitoring rules.
+     *
+     * <p>
+     * Amount thresholds are in the monitoring base currency and are compared
+     * with the FX-normalized transaction amount. They are converted once to
+     * minor units at the transaction amount exponent, so evaluation compares
+     * longs and allocates nothing for transactions that do not trigger.
+     */
+    private void initializeDefaultRules(RuleThresholds thresholds) {
+        MinorUnits highValue = MinorUnits.of(thresholds.highValueThreshold(), Transaction.AMOUNT_EXPONENT);
+        MinorUnits reporting = MinorUnits.of(thresholds.reportingThreshold(), Transaction.AMOUNT_EXPONENT);
+        long structuringFloor = reporting
+                .minus(MinorUnits.of(thresholds.structuringRange(), Transaction.AMOUNT_EXPONENT))
+                .units();
+        String highValueText = thresholds.highValueThreshold().toPlainString();
+        String reportingText = thresholds.reportingThreshold().toPlainString();
+
         // High-value transaction rule
         rules.add(
                 new Rule(
@@ -70,16 +125,15 @@ public class RuleEngine {
                         "Transactions exceeding threshold amount",
                         Severity.MEDIUM,
                         txn -> {
-                            BigDecimal threshold = new BigDecimal("10000");
-                            if (txn.getAmount().compareTo(threshold) > 0) {
+                            if (txn.getBaseAmount().isGreaterThan(highValue)) {
                                 return new RuleResult(
                                         true,
                                         0.7,
                                         "Transaction amount exceeds threshold",
                                         Map.of(
-                                                "condition", "amount > 10000",
-                                                "actual_value", txn.getAmount().toString(),
-                                                "threshold", threshold.toString()));
+                                                "condition", "amount > " + highValueText,
+                                                "actual_value", txn.getBaseAmount().toString(),
+                                                "threshold", highValueText));
                             }
                             return RuleResult.NOT_TRIGGERED;
                         }));
@@ -106,8 +160,7 @@ public class RuleEngine {
                         txn -> {
                             if (txn.getGeoData() != null) {
                                 String country = (String) txn.getGeoData().get("country");
-                                // Sample high-risk countries for demonstration
-                                List<String> highRiskCountries = List.of("XX", "YY", "ZZ");
+                                List<String> highRiskCountries = thresholds.highRiskCountries();
                                 if (country != null && highRiskCountries.contains(country.toUpperCase())) {
                                     return new RuleResult(
                                             true,
@@ -142,26 +195,131 @@ public class RuleEngine {
                         "Transaction appears structured to avoid reporting",
                         Severity.HIGH,
                         txn -> {
-                            BigDecimal amount = txn.getAmount();
-                            BigDecimal reportingThreshold = new BigDecimal("10000");
-                            BigDecimal structuringRange = new BigDecimal("500");
+                            long amount = txn.getBaseAmount().units();
 
                             // Check if amount is just below reporting threshold
-                            if (amount.compareTo(reportingThreshold.subtract(structuringRange)) >= 0
-                                    && amount.compareTo(reportingThreshold) < 0) {
+                            if (amount >= structuringFloor && amount < reporting.units()) {
                                 return new RuleResult(
                                         true,
                                         0.75,
                                         "Transaction amount appears structured below reporting threshold",
                                         Map.of(
                                                 "condition", "amount in structuring_range",
-                                                "actual_value", amount.toString(),
-                                                "threshold", reportingThreshold.toString()));
+                                                "actual_value", txn.getBaseAmount().toString(),
+                                                "threshold", reportingText));
                             }
                             return RuleResult.NOT_TRIGGERED;
                         }));
     }
 
+    /** Initializes rules that query the counterparty graph. */
+    private void initializeNetworkRules(RuleThresholds thresholds, CounterpartyGraphIndex graphIndex) {
+        // Counterparty receiving funds from many distinct customers (mule account)
+        rules.add(
+                new Rule(
+                        "RULE-006",
+                        "Shared Counterparty",
+                        "Counterparty receives funds from many distinct customers",
+                        Severity.HIGH,
+                        txn -> {
+                            if (txn.getCounterpartyId() == null || txn.getTxnType() == TransactionType.CREDIT) {
+                                return RuleResult.NOT_TRIGGERED;
+                            }
+                            int fanIn = graphIndex.payeeFanIn(txn);
+                            if (fanIn >= thresholds.sharedCounterpartyFanIn()) {
+                                return new RuleResult(
+                                        true,
+                                        0.75,
+                                        "Counterparty is shared by many customers",
+                                        Map.of(
+                                                "condition", "counterparty_fan_in >= "
+                                                        + thresholds.sharedCounterpartyFanIn(),
+                                                "actual_value", fanIn,
+                                                "threshold", thresholds.sharedCounterpartyFanIn()));
+                            }
+                            return RuleResult.NOT_TRIGGERED;
+                        }));
+
+        // Funds flowing back to the customer through a short chain (ring)
+        rules.add(
+                new Rule(
+                        "RULE-007",
+                        "Circular Flow",
+                        "Funds return to the customer through a chain of counterparties",
+                        Severity.HIGH,
+                        txn -> {
+                            if (txn.getCustomerId() == null || txn.getCounterpartyId() == null) {
+                                return RuleResult.NOT_TRIGGERED;
+                            }
+                            PathResult ring = graphIndex.findRing(txn);
+                            if (ring.found()) {
+                                return new RuleResult(
+                                        true,
+                                        0.8,
+                                        "Customer is part of a circular flow of funds",
+                                        Map.of(
+                                                "condition", "ring_through_customer",
+                                                "actual_value", ring.hops(),
+                                                "threshold", "max_hops"));
+                            }
+                            return RuleResult.NOT_TRIGGERED;
+                        }));
+    }
+
+    /**
+     * Tunable thresholds for the default rule set.
+     *
+     * <p>
+     * Amount thresholds are in the monitoring base currency.
+     *
+     * @param highValueThreshold      Amount above which RULE-001 triggers
+     * @param reportingThreshold      Reporting threshold used by RULE-005
+     * @param structuringRange        Range below the reporting threshold flagged
+     *                                by RULE-005
+     * @param highRiskCountries       Country codes flagged by RULE-003
+     * @param sharedCounterpartyFanIn Distinct payers of a counterparty at which
+     *                                RULE-006 triggers
+     */
+    public record RuleThresholds(
+            BigDecimal highValueThreshold,
+            BigDecimal reportingThreshold,
+            BigDecimal structuringRange,
+            List<String> highRiskCountries,
+            int sharedCounterpartyFanIn) {
+
+        /** Production thresholds (sample high-risk countries for demonstration). */
+        public static final RuleThresholds DEFAULTS = new RuleThresholds(
+                new BigDecimal("10000"),
+                new BigDecimal("10000"),
+                new BigDecimal("500"),
+                List.of("XX", "YY", "ZZ"),
+                5);
+
+        /**
+         * Returns these thresholds with any non-null overrides applied.
+         *
+         * @param highValueThreshold Optional RULE-001 threshold override
+         * @param reportingThreshold Optional RULE-005 threshold override
+         * @param structuringRange   Optional RULE-005 range override
+         * @param highRiskCountries  Optional RULE-003 country list override
+         * @return The merged thresholds
+         */
+        public RuleThresholds withOverrides(
+                BigDecimal highValueThreshold,
+                BigDecimal reportingThreshold,
+                BigDecimal structuringRange,
+                List<String> highRiskCountries) {
+            return new RuleThresholds(
+                    highValueThreshold != null ? highValueThreshold : this.highValueThreshold,
+                    reportingThreshold != null ? reportingThreshold : this.reportingThreshold,
+                    structuringRange != null ? structuringRange : this.structuringRange,
+                    highRiskCountries != null
+                            ? highRiskCountries.stream().map(String::toUpperCase).toList()
+                            : this.highRiskCountries,
+                    sharedCounterpartyFanIn);
+        }
+    }
+
     /**
      * Represents a monitoring rule.
      *
@@ -0,0 +1,284 @@
+package dev.hafnium.monitoring.engine;
+
+import dev.hafnium.monitoring.domain.Alert;
+import dev.hafnium.monitoring.domain.Transaction;
+import dev.hafnium.monitoring.engine.RuleEngine.Rule;
+import dev.hafnium.monitoring.engine.RuleEngine.RuleThresholds;
+import dev.hafnium.monitoring.graph.CounterpartyGraphIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shadow evaluation lane for candidate rule sets.
+ *
+ * <p>
+ * Transactions seen by the production rule engine are handed to a bounded,
+ * lossy queue and evaluated asynchronously against the registered shadow rule
+ * sets. Shadow firings never create alerts; they are recorded as metrics and
+ * as a diff against the production firings. When the queue is full the copy
+ * is dropped, so the ingestion path never blocks on shadow work.
+ */
+@Component
+public class ShadowEvaluationLane {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShadowEvaluationLane.class);
+
+    private static final int RECENT_DIFFS = 100;
+
+    private final Map<String, ShadowRuleSet> ruleSets = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final CounterpartyGraphIndex graphIndex;
+    private final MeterRegistry meterRegistry;
+    private final Counter droppedCounter;
+
+    public ShadowEvaluationLane(
+            CounterpartyGraphIndex graphIndex,
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.monitoring.shadow.queue-capacity:10000}") int queueCapacity,
+            @Value("${hafnium.monitoring.shadow.threads:1}") int threads) {
+        this.graphIndex = graphIndex;
+        this.meterRegistry = meterRegistry;
+
+        this.droppedCounter = Counter.builder("hafnium.monitoring.shadow.dropped")
+                .description("Transactions dropped because the shadow queue was full")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-rules-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> droppedCounter.increment());
+
+        meterRegistry.gauge("hafnium.monitoring.shadow.queue.size", executor, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Copies a transaction onto the shadow lane.
+     *
+     * <p>
+     * Never blocks: if the queue is full the copy is dropped and counted.
+     * The lane evaluates a {@link Transaction#ruleSnapshot() snapshot} taken
+     * here, never the managed entity.
+     *
+     * @param transaction      The transaction evaluated by production rules
+     * @param productionAlerts Alerts raised by the production rules
+     */
+    public void submit(Transaction transaction, List<Alert> productionAlerts) {
+        if (ruleSets.isEmpty()) {
+            return;
+        }
+
+        Set<String> productionRuleIds = new HashSet<>();
+        for (Alert alert : productionAlerts) {
+            productionRuleIds.add(alert.getRuleId());
+        }
+
+        Transaction snapshot = transaction.ruleSnapshot();
+        executor.execute(() -> evaluate(snapshot, productionRuleIds));
+    }
+
+    /**
+     * Registers or replaces a shadow rule set for a tenant.
+     *
+     * @param tenantId   The tenant whose traffic is evaluated
+     * @param name       The shadow rule set name
+     * @param thresholds The candidate thresholds
+     * @return Snapshot of the newly registered rule set
+     */
+    public ShadowSnapshot register(UUID tenantId, String name, RuleThresholds thresholds) {
+        ShadowRuleSet ruleSet = new ShadowRuleSet(
+                tenantId, name, thresholds, new RuleEngine(thresholds, graphIndex).getRules());
+        ruleSets.put(keyFor(tenantId, name), ruleSet);
+        LOG.info("Registered shadow rule set {} for tenant {}", name, tenantId);
+        return ruleSet.snapshot();
+    }
+
+    /**
+     * Removes a shadow rule set.
+     *
+     * @param tenantId The tenant identifier
+     * @param name     The shadow rule set name
+     * @return true if the rule set existed
+     */
+    public boolean remove(UUID tenantId, String name) {
+        return ruleSets.remove(keyFor(tenantId, name)) != null;
+    }
+
+    /**
+     * Returns the diff statistics of a tenant's shadow rule sets.
+     *
+     * @param tenantId The tenant identifier
+     * @return Snapshot per shadow rule set
+     */
+    public List<ShadowSnapshot> snapshots(UUID tenantId) {
+        List<ShadowSnapshot> snapshots = new ArrayList<>();
+        for (ShadowRuleSet ruleSet : ruleSets.values()) {
+            if (ruleSet.tenantId().equals(tenantId)) {
+                snapshots.add(ruleSet.snapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void evaluate(Transaction transaction, Set<String> productionRuleIds) {
+        for (ShadowRuleSet ruleSet : ruleSets.values()) {
+            if (!ruleSet.tenantId().equals(transaction.getTenantId())) {
+                continue;
+            }
+            try {
+                ruleSet.evaluate(transaction, productionRuleIds, meterRegistry);
+            } catch (RuntimeException e) {
+                LOG.warn("Shadow rule set {} failed for transaction {}: {}",
+                        ruleSet.name(), transaction.getTxnId(), e.getMessage());
+            }
+        }
+    }
+
+    private static String keyFor(UUID tenantId, String name) {
+        return tenantId + ":" + name;
+    }
+
+    /**
+     * Diff between production and shadow firings for a single transaction.
+     *
+     * @param txnId          The transaction identifier
+     * @param shadowOnly     Rules that fired only in the shadow rule set
+     * @param productionOnly Rules that fired only in production
+     * @param evaluatedAt    When the shadow evaluation ran
+     */
+    public record ShadowDiff(
+            UUID txnId, Set<String> shadowOnly, Set<String> productionOnly, Instant evaluatedAt) {
+    }
+
+    /**
+     * Point-in-time view of a shadow rule set.
+     *
+     * @param name              The shadow rule set name
+     * @param thresholds        The candidate thresholds
+     * @param evaluated         Transactions evaluated
+     * @param productionFirings Production firings per rule on the same
+     *                          transactions
+     * @param shadowFirings     Shadow firings per rule
+     * @param recentDiffs       Most recent transactions whose firings differed
+     */
+    public record ShadowSnapshot(
+            String name,
+            RuleThresholds thresholds,
+            long evaluated,
+            Map<String, Long> productionFirings,
+            Map<String, Long> shadowFirings,
+            List<ShadowDiff> recentDiffs) {
+    }
+
+    /** A registered shadow rule set with its diff store. */
+    private static final class ShadowRuleSet {
+
+        private final UUID tenantId;
+        private final String name;
+        private final RuleThresholds thresholds;
+        private final List<Rule> rules;
+        private final LongAdder evaluated = new LongAdder();
+        private final Map<String, LongAdder> productionFirings = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> shadowFirings = new ConcurrentHashMap<>();
+        private final Deque<ShadowDiff> recentDiffs = new ArrayDeque<>();
+
+        ShadowRuleSet(UUID tenantId, String name, RuleThresholds thresholds, List<Rule> rules) {
+            this.tenantId = tenantId;
+            this.name = name;
+            this.thresholds = thresholds;
+            this.rules = rules;
+        }
+
+        UUID tenantId() {
+            return tenantId;
+        }
+
+        String name() {
+            return name;
+        }
+
+        void evaluate(Transaction transaction, Set<String> productionRuleIds, MeterRegistry meterRegistry) {
+            Set<String> shadowRuleIds = new HashSet<>();
+            for (Rule rule : rules) {
+                if (rule.evaluate(transaction).triggered()) {
+                    shadowRuleIds.add(rule.id());
+                    shadowFirings.computeIfAbsent(rule.id(), id -> new LongAdder()).increment();
+                    meterRegistry.counter("hafnium.monitoring.shadow.alerts",
+                            "rule_set", name, "rule_id", rule.id()).increment();
+                }
+            }
+            for (String ruleId : productionRuleIds) {
+                productionFirings.computeIfAbsent(ruleId, id -> new LongAdder()).increment();
+            }
+            evaluated.increment();
+
+            if (shadowRuleIds.equals(productionRuleIds)) {
+                return;
+            }
+
+            Set<String> shadowOnly = new HashSet<>(shadowRuleIds);
+            shadowOnly.removeAll(productionRuleIds);
+            Set<String> productionOnly = new HashSet<>(productionRuleIds);
+            productionOnly.removeAll(shadowRuleIds);
+
+            meterRegistry.counter("hafnium.monitoring.shadow.diffs", "rule_set", name).increment();
+
+            synchronized (recentDiffs) {
+                if (recentDiffs.size() == RECENT_DIFFS) {
+                    recentDiffs.removeFirst();
+                }
+                recentDiffs.addLast(new ShadowDiff(
+                        transaction.getTxnId(), Set.copyOf(shadowOnly), Set.copyOf(productionOnly), Instant.now()));
+            }
+        }
+
+        ShadowSnapshot snapshot() {
+            List<ShadowDiff> diffs;
+            synchronized (recentDiffs) {
+                diffs = List.copyOf(recentDiffs);
+            }
+            return new ShadowSnapshot(
+                    name, thresholds, evaluated.sum(), sums(productionFirings), sums(shadowFirings), diffs);
+        }
+
+        private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+            Map<String, Long> sums = new TreeMap<>();
+            counters.forEach((ruleId, adder) -> sums.put(ruleId, adder.sum()));
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dev.hafnium.monitoring.fx;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.model.money.MinorUnits;
+import dev.hafnium.monitoring.domain.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * FX normalization stage for monitoring rules.
+ *
+ * <p>
+ * Holds the current {@link FxRateTable} behind an atomic reference: reads
+ * are a single volatile load, and a reload builds a new table and swaps it
+ * in, so evaluation never blocks on a refresh or makes a remote call. Rates
+ * are loaded from a JSON file of the form
+ * {@code {"version": "...", "base_currency": "USD", "rates": {"EUR": "1.08"}}};
+ * file resources are polled for changes.
+ */
+@Component
+public class FxRateProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FxRateProvider.class);
+
+    private final AtomicReference<FxRateTable> current = new AtomicReference<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Resource ratesLocation;
+    private final String baseCurrency;
+    private final long reloadSeconds;
+    private final Counter missingRateCounter;
+    private ScheduledExecutorService reloader;
+    private volatile long lastModified = -1L;
+
+    public FxRateProvider(
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.monitoring.fx.rates-location:classpath:fx/rates.json}") Resource ratesLocation,
+            @Value("${hafnium.monitoring.fx.base-currency:USD}") String baseCurrency,
+            @Value("${hafnium.monitoring.fx.reload-seconds:300}") long reloadSeconds) {
+        this.ratesLocation = ratesLocation;
+        this.baseCurrency = baseCurrency;
+        this.reloadSeconds = reloadSeconds;
+        this.missingRateCounter = Counter.builder("hafnium.monitoring.fx.missing_rate")
+                .description("Transactions evaluated in their own currency for lack of an FX rate")
+                .register(meterRegistry);
+        this.current.set(FxRateTable.identity(baseCurrency));
+        meterRegistry.gauge("hafnium.monitoring.fx.currencies", current, ref -> ref.get().currencies().size());
+    }
+
+    @PostConstruct
+    void start() {
+        reload();
+        if (reloadSeconds > 0 && ratesLocation.isFile()) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fx-rate-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the current rate table.
+     *
+     * @return The rate table
+     */
+    public FxRateTable current() {
+        return current.get();
+    }
+
+    /**
+     * Sets a transaction's base currency amount from the current rate table.
+     *
+     * <p>
+     * Transactions in a currency without a rate keep their own amount, so
+     * rules behave as before normalization, and are counted.
+     *
+     * @param transaction The transaction to normalize
+     */
+    public void normalize(Transaction transaction) {
+        MinorUnits base = current.get().toBase(transaction.getAmount(), transaction.getCurrency());
+        if (base == null) {
+            missingRateCounter.increment();
+            LOG.debug("No FX rate for {}; evaluating transaction {} unconverted",
+                    transaction.getCurrency(), transaction.getTxnId());
+            base = transaction.getAmount();
+        }
+        transaction.setBaseAmount(base);
+    }
+
+    /**
+     * Reloads the rate table from the configured location.
+     *
+     * <p>
+     * On failure the previous table stays in use.
+     *
+     * @return true if a new table was installed
+     */
+    public synchronized boolean reload() {
+        if (!ratesLocation.exists()) {
+            LOG.warn("FX rate file {} not found; thresholds apply in transaction currency", ratesLocation);
+            return false;
+        }
+        try (InputStream in = ratesLocation.getInputStream()) {
+            FxRateTable table = parse(objectMapper.readTree(in));
+            FxRateTable previous = current.getAndSet(table);
+            if (ratesLocation.isFile()) {
+                lastModified = ratesLocation.lastModified();
+            }
+            LOG.info("Loaded FX rate table version {} ({} currencies, base {}), replacing version {}",
+                    table.version(), table.currencies().size(), table.baseCurrency(), previous.version());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to load FX rates from {}, keeping version {}: {}",
+                    ratesLocation, current.get().version(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (ratesLocation.lastModified() != lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to check FX rate file {}: {}", ratesLocation, e.getMessage());
+        }
+    }
+
+    private FxRateTable parse(JsonNode root) {
+        String fileBase = root.path("base_currency").asText(baseCurrency);
+        if (!fileBase.equals(baseCurrency)) {
+            throw new IllegalArgumentException(
+                    "Rate file base currency " + fileBase + " does not match configured " + baseCurrency);
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.path("rates").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            rates.put(field.getKey(), new BigDecimal(field.getValue().asText()));
+        }
+        return FxRateTable.of(root.path("version").asText("unversioned"), baseCurrency, rates);
+    }
+}
@@ -0,0 +1,101 @@
+package dev.hafnium.monitoring.fx;
+
+import dev.hafnium.common.model.money.FxConversion;
+import dev.hafnium.common.model.money.MinorUnits;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned snapshot of FX rates into a single base currency.
+ *
+ * <p>
+ * Rates are held as fixed-point longs at {@link #RATE_EXPONENT} decimal
+ * places and amounts are converted through {@link FxConversion}, the same
+ * half-even conversion the stream processor uses. Snapshots are never mutated
+ * once built, so they can be shared between threads without locking.
+ */
+public final class FxRateTable {
+
+    /** Decimal places of a stored rate. */
+    public static final int RATE_EXPONENT = FxConversion.RATE_EXPONENT;
+
+    private final String version;
+    private final String baseCurrency;
+    private final Instant loadedAt;
+    private final Map<String, Long> rates;
+
+    private FxRateTable(String version, String baseCurrency, Instant loadedAt, Map<String, Long> rates) {
+        this.version = version;
+        this.baseCurrency = baseCurrency;
+        this.loadedAt = loadedAt;
+        this.rates = rates;
+    }
+
+    /**
+     * Builds a rate table.
+     *
+     * @param version      Version label of the rate source
+     * @param baseCurrency ISO 4217 code of the base currency
+     * @param rates        Value of one unit of each currency in the base
+     *                     currency
+     * @return The rate table
+     * @throws ArithmeticException      if a rate has more than
+     *                                  {@link #RATE_EXPONENT} decimal places
+     * @throws IllegalArgumentException if a rate is not positive
+     */
+    public static FxRateTable of(String version, String baseCurrency, Map<String, BigDecimal> rates) {
+        Map<String, Long> scaled = new HashMap<>();
+        rates.forEach((currency, rate) ->
+                scaled.put(currency.toUpperCase(), FxConversion.toFixedPoint(currency, rate)));
+        scaled.put(baseCurrency, FxConversion.RATE_SCALE);
+        return new FxRateTable(version, baseCurrency, Instant.now(), Map.copyOf(scaled));
+    }
+
+    /**
+     * Builds a table that only knows the base currency.
+     *
+     * @param baseCurrency ISO 4217 code of the base currency
+     * @return The rate table
+     */
+    public static FxRateTable identity(String baseCurrency) {
+        return of("identity", baseCurrency, Map.of());
+    }
+
+    /**
+     * Converts an amount into the base currency at the amount's exponent.
+     *
+     * @param amount   The amount
+     * @param currency ISO 4217 code of the amount's currency
+     * @return The base currency amount, or null if the currency has no rate
+     * @throws ArithmeticException if the converted amount overflows
+     */
+    public MinorUnits toBase(MinorUnits amount, String currency) {
+        if (baseCurrency.equals(currency)) {
+            return amount;
+        }
+        Long rate = currency != null ? rates.get(currency) : null;
+        if (rate == null) {
+            return null;
+        }
+        return MinorUnits.ofMinor(FxConversion.convert(amount.units(), rate), amount.exponent());
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public Set<String> currencies() {
+        return rates.keySet();
+    }
+}
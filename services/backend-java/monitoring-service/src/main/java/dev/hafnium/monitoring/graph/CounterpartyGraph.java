@@ -0,0 +1,502 @@
+package dev.hafnium.monitoring.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact, time-decayed directed money-flow graph for a single tenant.
+ *
+ * <p>
+ * Node keys (customer and counterparty identifiers) are interned into dense
+ * {@code int} ids through an open-addressing map, and adjacency is held in
+ * parallel primitive arrays per node, so traversals never box or allocate per
+ * edge. Each edge carries a weight that halves every {@code halfLifeMillis};
+ * edges whose decayed weight falls below {@link #MIN_WEIGHT} are treated as
+ * absent and compacted away when their source node is next updated.
+ *
+ * <p>
+ * Once {@code maxNodes} ids are in use, a new node triggers a sweep that frees
+ * the ids of nodes whose edges have all decayed, at most once per
+ * {@link #RECLAIM_INTERVAL_NANOS}; freed ids are reused for new nodes.
+ *
+ * <p>
+ * Writes take an exclusive lock and reads a shared lock; both are short and
+ * bounded by node degree or the caller's hop and time budget.
+ */
+public final class CounterpartyGraph {
+
+    /** Decayed weight under which an edge no longer counts. */
+    static final double MIN_WEIGHT = 0.05;
+
+    /** Minimum interval between sweeps for reclaimable nodes. */
+    static final long RECLAIM_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final int INITIAL_NODES = 64;
+    private static final int INITIAL_DEGREE = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final double decayPerMilli;
+    private final int maxNodes;
+    private final int maxDegree;
+
+    // Node dictionary: open addressing, key -> id
+    private String[] slotKeys = new String[INITIAL_NODES * 2];
+    private int[] slotIds = new int[INITIAL_NODES * 2];
+    private int nodeCount;
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private long latestMs = Long.MIN_VALUE;
+    private long lastReclaimNanos;
+    private boolean reclaimed;
+
+    // Adjacency, indexed by node id
+    private final Adjacency out = new Adjacency();
+    private final Adjacency in = new Adjacency();
+
+    /**
+     * Creates an empty graph.
+     *
+     * @param halfLifeMillis Half-life of edge weights
+     * @param maxNodes       Maximum number of nodes; beyond it, new nodes reuse
+     *                       the ids of nodes without live edges, or are ignored
+     *                       if there are none
+     * @param maxDegree      Maximum live edges per node and direction; the
+     *                       weakest edge is replaced when full
+     */
+    public CounterpartyGraph(long halfLifeMillis, int maxNodes, int maxDegree) {
+        this.decayPerMilli = Math.log(2) / halfLifeMillis;
+        this.maxNodes = maxNodes;
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Records a flow of funds between two nodes.
+     *
+     * @param sourceKey   The paying node
+     * @param targetKey   The receiving node
+     * @param timestampMs When the flow happened, in epoch milliseconds
+     * @return false if the graph is full and the flow could not be recorded
+     */
+    public boolean addFlow(String sourceKey, String targetKey, long timestampMs) {
+        lock.writeLock().lock();
+        try {
+            latestMs = Math.max(latestMs, timestampMs);
+            int source = intern(sourceKey);
+            int target = intern(targetKey);
+            if (source < 0 || target < 0 || source == target) {
+                return false;
+            }
+            out.reinforce(source, target, timestampMs);
+            in.reinforce(target, source, timestampMs);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts distinct nodes with a live edge into the given node.
+     *
+     * @param key   The node key
+     * @param nowMs The evaluation time, in epoch milliseconds
+     * @return The live in-degree, 0 for unknown nodes
+     */
+    public int fanIn(String key, long nowMs) {
+        return degree(in, key, nowMs);
+    }
+
+    /**
+     * Counts distinct nodes the given node has a live edge to.
+     *
+     * @param key   The node key
+     * @param nowMs The evaluation time, in epoch milliseconds
+     * @return The live out-degree, 0 for unknown nodes
+     */
+    public int fanOut(String key, long nowMs) {
+        return degree(out, key, nowMs);
+    }
+
+    /**
+     * Checks whether there is a live edge between two nodes.
+     *
+     * @param sourceKey The paying node
+     * @param targetKey The receiving node
+     * @param nowMs     The evaluation time, in epoch milliseconds
+     * @return Whether the edge exists and has not decayed
+     */
+    public boolean hasEdge(String sourceKey, String targetKey, long nowMs) {
+        lock.readLock().lock();
+        try {
+            int source = lookup(sourceKey);
+            int target = lookup(targetKey);
+            if (source < 0 || target < 0) {
+                return false;
+            }
+            int[] targets = out.targets[source];
+            for (int e = 0; e < out.degree[source]; e++) {
+                if (targets[e] == target) {
+                    return out.weightAt(source, e, nowMs, decayPerMilli) >= MIN_WEIGHT;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches for a directed cycle through the given node.
+     *
+     * <p>
+     * Runs a breadth-first search over live edges, stopping at {@code maxHops}
+     * or when {@code deadlineNanos} (a {@link System#nanoTime()} value) passes.
+     *
+     * @param key           The node key
+     * @param maxHops       Maximum cycle length
+     * @param nowMs         The evaluation time, in epoch milliseconds
+     * @param deadlineNanos Deadline for the search
+     * @return The search result
+     */
+    public PathResult findCycle(String key, int maxHops, long nowMs, long deadlineNanos) {
+        return findPath(key, key, maxHops, nowMs, deadlineNanos);
+    }
+
+    /**
+     * Searches for a directed path between two nodes.
+     *
+     * @param fromKey       The start node key
+     * @param toKey         The end node key
+     * @param maxHops       Maximum path length
+     * @param nowMs         The evaluation time, in epoch milliseconds
+     * @param deadlineNanos Deadline for the search, as a {@link System#nanoTime()}
+     *                      value
+     * @return The search result
+     */
+    public PathResult findPath(String fromKey, String toKey, int maxHops, long nowMs, long deadlineNanos) {
+        lock.readLock().lock();
+        try {
+            int from = lookup(fromKey);
+            int to = lookup(toKey);
+            if (from < 0 || to < 0) {
+                return PathResult.NOT_FOUND;
+            }
+
+            int[] frontier = { from };
+            int frontierSize = 1;
+            IntSet visited = new IntSet();
+            visited.add(from);
+
+            for (int hop = 1; hop <= maxHops; hop++) {
+                int[] next = new int[Math.max(4, frontierSize * 2)];
+                int nextSize = 0;
+                for (int f = 0; f < frontierSize; f++) {
+                    if (System.nanoTime() > deadlineNanos) {
+                        return new PathResult(false, 0, true);
+                    }
+                    int node = frontier[f];
+                    int degree = out.degree[node];
+                    int[] targets = out.targets[node];
+                    for (int e = 0; e < degree; e++) {
+                        if (out.weightAt(node, e, nowMs, decayPerMilli) < MIN_WEIGHT) {
+                            continue;
+                        }
+                        int target = targets[e];
+                        if (target == to) {
+                            return new PathResult(true, hop, false);
+                        }
+                        if (visited.add(target)) {
+                            if (nextSize == next.length) {
+                                next = Arrays.copyOf(next, nextSize * 2);
+                            }
+                            next[nextSize++] = target;
+                        }
+                    }
+                }
+                if (nextSize == 0) {
+                    break;
+                }
+                frontier = next;
+                frontierSize = nextSize;
+            }
+            return PathResult.NOT_FOUND;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of interned nodes.
+     *
+     * @return The node count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount - freeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int degree(Adjacency adjacency, String key, long nowMs) {
+        lock.readLock().lock();
+        try {
+            int node = lookup(key);
+            if (node < 0) {
+                return 0;
+            }
+            int live = 0;
+            for (int e = 0; e < adjacency.degree[node]; e++) {
+                if (adjacency.weightAt(node, e, nowMs, decayPerMilli) >= MIN_WEIGHT) {
+                    live++;
+                }
+            }
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int lookup(String key) {
+        int mask = slotKeys.length - 1;
+        for (int slot = key.hashCode() & mask;; slot = (slot + 1) & mask) {
+            String existing = slotKeys[slot];
+            if (existing == null) {
+                return -1;
+            }
+            if (existing.equals(key)) {
+                return slotIds[slot];
+            }
+        }
+    }
+
+    private int intern(String key) {
+        int existing = lookup(key);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (freeCount == 0 && nodeCount >= maxNodes && reclaim() == 0) {
+            return -1;
+        }
+        if ((nodeCount - freeCount + 1) * 2 > slotKeys.length) {
+            rehash(slotKeys.length * 2, null);
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : nodeCount++;
+        int mask = slotKeys.length - 1;
+        int slot = key.hashCode() & mask;
+        while (slotKeys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        slotKeys[slot] = key;
+        slotIds[slot] = id;
+        out.ensureNode(id);
+        in.ensureNode(id);
+        return id;
+    }
+
+    /**
+     * Frees the ids of nodes without live edges, as of the latest flow.
+     *
+     * @return The number of ids freed
+     */
+    private int reclaim() {
+        long now = System.nanoTime();
+        if (reclaimed && now - lastReclaimNanos < RECLAIM_INTERVAL_NANOS) {
+            return 0;
+        }
+        reclaimed = true;
+        lastReclaimNanos = now;
+
+        boolean[] dead = new boolean[nodeCount];
+        int freed = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            out.purge(node, latestMs);
+            in.purge(node, latestMs);
+            if (out.degree[node] == 0 && in.degree[node] == 0) {
+                dead[node] = true;
+                freed++;
+            }
+        }
+        if (freed == 0) {
+            return 0;
+        }
+
+        // Edges are capped per direction, so a live node may still list a dead one
+        for (int node = 0; node < nodeCount; node++) {
+            if (!dead[node]) {
+                out.removeTargets(node, dead);
+                in.removeTargets(node, dead);
+            }
+        }
+        rehash(slotKeys.length, dead);
+        freeIds = new int[freed];
+        freeCount = 0;
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            if (dead[node]) {
+                freeIds[freeCount++] = node;
+            }
+        }
+        return freed;
+    }
+
+    private void rehash(int capacity, boolean[] dropped) {
+        String[] oldKeys = slotKeys;
+        int[] oldIds = slotIds;
+        slotKeys = new String[capacity];
+        slotIds = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null && (dropped == null || !dropped[oldIds[i]])) {
+                int slot = oldKeys[i].hashCode() & mask;
+                while (slotKeys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                slotKeys[slot] = oldKeys[i];
+                slotIds[slot] = oldIds[i];
+            }
+        }
+    }
+
+    /**
+     * Result of a bounded path search.
+     *
+     * @param found     Whether a path was found
+     * @param hops      Length of the path found, 0 if none
+     * @param truncated Whether the search stopped at its deadline
+     */
+    public record PathResult(boolean found, int hops, boolean truncated) {
+
+        static final PathResult NOT_FOUND = new PathResult(false, 0, false);
+    }
+
+    /** Minimal open-addressing set of node ids, sized to the search frontier. */
+    private static final class IntSet {
+
+        private int[] slots = new int[32];
+        private int size;
+
+        IntSet() {
+            Arrays.fill(slots, -1);
+        }
+
+        boolean add(int value) {
+            if ((size + 1) * 2 > slots.length) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+                Arrays.fill(slots, -1);
+                size = 0;
+                for (int existing : old) {
+                    if (existing >= 0) {
+                        add(existing);
+                    }
+                }
+            }
+            int mask = slots.length - 1;
+            for (int slot = (value * 0x9E3779B9) >>> 1 & mask;; slot = (slot + 1) & mask) {
+                if (slots[slot] == value) {
+                    return false;
+                }
+                if (slots[slot] < 0) {
+                    slots[slot] = value;
+                    size++;
+                    return true;
+                }
+            }
+        }
+    }
+
+    /** One direction of adjacency, as parallel primitive arrays per node. */
+    private final class Adjacency {
+
+        private int[][] targets = new int[INITIAL_NODES][];
+        private double[][] weights = new double[INITIAL_NODES][];
+        private long[][] updatedAt = new long[INITIAL_NODES][];
+        private int[] degree = new int[INITIAL_NODES];
+
+        void ensureNode(int node) {
+            if (node == degree.length) {
+                int capacity = degree.length * 2;
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                updatedAt = Arrays.copyOf(updatedAt, capacity);
+                degree = Arrays.copyOf(degree, capacity);
+            }
+            targets[node] = new int[INITIAL_DEGREE];
+            weights[node] = new double[INITIAL_DEGREE];
+            updatedAt[node] = new long[INITIAL_DEGREE];
+            degree[node] = 0;
+        }
+
+        double weightAt(int node, int edge, long nowMs, double decay) {
+            long age = Math.max(0L, nowMs - updatedAt[node][edge]);
+            return weights[node][edge] * Math.exp(-decay * age);
+        }
+
+        void reinforce(int node, int target, long timestampMs) {
+            int[] nodeTargets = targets[node];
+            int count = degree[node];
+            int weakest = -1;
+            double weakestWeight = Double.MAX_VALUE;
+
+            for (int e = 0; e < count; e++) {
+                double weight = weightAt(node, e, timestampMs, decayPerMilli);
+                if (nodeTargets[e] == target) {
+                    weights[node][e] = weight + 1.0;
+                    updatedAt[node][e] = Math.max(updatedAt[node][e], timestampMs);
+                    return;
+                }
+                if (weight < MIN_WEIGHT) {
+                    // Compact dead edge by swapping in the last one
+                    count = removeAt(node, e, count);
+                    e--;
+                    continue;
+                }
+                if (weight < weakestWeight) {
+                    weakestWeight = weight;
+                    weakest = e;
+                }
+            }
+
+            if (count >= maxDegree && weakest >= 0) {
+                count = removeAt(node, weakest, count);
+            }
+            if (count == targets[node].length) {
+                int capacity = Math.min(count * 2, Math.max(maxDegree, INITIAL_DEGREE));
+                targets[node] = Arrays.copyOf(targets[node], capacity);
+                weights[node] = Arrays.copyOf(weights[node], capacity);
+                updatedAt[node] = Arrays.copyOf(updatedAt[node], capacity);
+            }
+            targets[node][count] = target;
+            weights[node][count] = 1.0;
+            updatedAt[node][count] = timestampMs;
+            degree[node] = count + 1;
+        }
+
+        void purge(int node, long nowMs) {
+            int count = degree[node];
+            for (int e = count - 1; e >= 0; e--) {
+                if (weightAt(node, e, nowMs, decayPerMilli) < MIN_WEIGHT) {
+                    count = removeAt(node, e, count);
+                }
+            }
+        }
+
+        void removeTargets(int node, boolean[] removed) {
+            int count = degree[node];
+            for (int e = count - 1; e >= 0; e--) {
+                if (removed[targets[node][e]]) {
+                    count = removeAt(node, e, count);
+                }
+            }
+        }
+
+        private int removeAt(int node, int edge, int count) {
+            int last = count - 1;
+            targets[node][edge] = targets[node][last];
+            weights[node][edge] = weights[node][last];
+            updatedAt[node][edge] = updatedAt[node][last];
+            degree[node] = last;
+            return last;
+        }
+    }
+}
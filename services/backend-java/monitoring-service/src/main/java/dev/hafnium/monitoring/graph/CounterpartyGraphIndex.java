@@ -0,0 +1,206 @@
+package dev.hafnium.monitoring.graph;
+
+import dev.hafnium.monitoring.domain.Transaction;
+import dev.hafnium.monitoring.domain.Transaction.TransactionType;
+import dev.hafnium.monitoring.graph.CounterpartyGraph.PathResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-tenant index of counterparty graphs for network monitoring rules.
+ *
+ * <p>
+ * Every ingested transaction adds a time-decayed edge in the direction funds
+ * moved: customer to counterparty, or counterparty to customer for credits.
+ * Rules query fan-in, fan-out and short cycles with a fixed hop limit and
+ * latency budget, so graph rules never stall ingestion.
+ *
+ * <p>
+ * Edges are added once the ingesting transaction commits, so rolled-back
+ * transactions never leave flows behind. Rules evaluated before that see the
+ * transaction under evaluation as a pending flow on top of the graph.
+ */
+@Component
+public class CounterpartyGraphIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CounterpartyGraphIndex.class);
+
+    private final Map<UUID, CounterpartyGraph> graphs = new ConcurrentHashMap<>();
+    private final long halfLifeMillis;
+    private final int maxNodesPerTenant;
+    private final int maxDegree;
+    private final int maxHops;
+    private final long queryBudgetNanos;
+    private final Counter droppedFlowCounter;
+    private final AtomicLong droppedFlows = new AtomicLong();
+
+    public CounterpartyGraphIndex(
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.monitoring.graph.half-life-hours:72}") long halfLifeHours,
+            @Value("${hafnium.monitoring.graph.max-nodes-per-tenant:1000000}") int maxNodesPerTenant,
+            @Value("${hafnium.monitoring.graph.max-degree:256}") int maxDegree,
+            @Value("${hafnium.monitoring.graph.max-hops:4}") int maxHops,
+            @Value("${hafnium.monitoring.graph.query-budget-micros:500}") long queryBudgetMicros) {
+        this.halfLifeMillis = Duration.ofHours(halfLifeHours).toMillis();
+        this.maxNodesPerTenant = maxNodesPerTenant;
+        this.maxDegree = maxDegree;
+        this.maxHops = maxHops;
+        this.queryBudgetNanos = queryBudgetMicros * 1_000;
+        this.droppedFlowCounter = Counter.builder("hafnium.monitoring.graph.dropped_flows")
+                .description("Flows not recorded because the tenant's counterparty graph was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a transaction's flow of funds to its tenant's graph.
+     *
+     * <p>
+     * When called inside a transaction the flow is added after commit.
+     *
+     * @param transaction The ingested transaction
+     */
+    public void record(Transaction transaction) {
+        Flow flow = Flow.of(transaction);
+        if (flow == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            apply(transaction.getTenantId(), flow);
+                        }
+                    });
+        } else {
+            apply(transaction.getTenantId(), flow);
+        }
+    }
+
+    /**
+     * Counts distinct payers with live flows into a node, e.g. customers paying a
+     * shared mule account.
+     *
+     * @param tenantId The tenant identifier
+     * @param nodeKey  The customer or counterparty identifier
+     * @return The live fan-in
+     */
+    public int fanIn(UUID tenantId, String nodeKey) {
+        CounterpartyGraph graph = graphs.get(tenantId);
+        return graph != null ? graph.fanIn(nodeKey, System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Counts distinct payees with live flows out of a node.
+     *
+     * @param tenantId The tenant identifier
+     * @param nodeKey  The customer or counterparty identifier
+     * @return The live fan-out
+     */
+    public int fanOut(UUID tenantId, String nodeKey) {
+        CounterpartyGraph graph = graphs.get(tenantId);
+        return graph != null ? graph.fanOut(nodeKey, System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Counts distinct payers with live flows into a transaction's payee,
+     * including the transaction itself if it is not yet in the graph.
+     *
+     * @param transaction The transaction under evaluation
+     * @return The payee's live fan-in
+     */
+    public int payeeFanIn(Transaction transaction) {
+        Flow flow = Flow.of(transaction);
+        if (flow == null) {
+            return 0;
+        }
+        CounterpartyGraph graph = graphs.get(transaction.getTenantId());
+        if (graph == null) {
+            return 1;
+        }
+        long now = System.currentTimeMillis();
+        int fanIn = graph.fanIn(flow.target(), now);
+        return graph.hasEdge(flow.source(), flow.target(), now) ? fanIn : fanIn + 1;
+    }
+
+    /**
+     * Searches for a flow ring through a transaction's customer within the
+     * configured hop limit and latency budget, including the transaction itself
+     * if it is not yet in the graph.
+     *
+     * @param transaction The transaction under evaluation
+     * @return The search result; {@code truncated} if the budget ran out
+     */
+    public PathResult findRing(Transaction transaction) {
+        Flow flow = Flow.of(transaction);
+        CounterpartyGraph graph = graphs.get(transaction.getTenantId());
+        if (flow == null || graph == null) {
+            return PathResult.NOT_FOUND;
+        }
+
+        long now = System.currentTimeMillis();
+        long deadline = System.nanoTime() + queryBudgetNanos;
+        // A path back from the payee to the payer closes a ring with this flow
+        PathResult closing = graph.findPath(flow.target(), flow.source(), maxHops - 1, now, deadline);
+        if (closing.found()) {
+            return new PathResult(true, closing.hops() + 1, false);
+        }
+        PathResult existing = graph.findCycle(transaction.getCustomerId().toString(), maxHops, now, deadline);
+        return existing.found() || !closing.truncated() ? existing : closing;
+    }
+
+    private void apply(UUID tenantId, Flow flow) {
+        CounterpartyGraph graph = graphs.computeIfAbsent(
+                tenantId, id -> new CounterpartyGraph(halfLifeMillis, maxNodesPerTenant, maxDegree));
+        if (!graph.addFlow(flow.source(), flow.target(), flow.timestampMs())) {
+            droppedFlowCounter.increment();
+            long dropped = droppedFlows.incrementAndGet();
+            if (dropped == 1 || dropped % 10_000 == 0) {
+                LOG.warn("Counterparty graph of tenant {} is full at {} nodes; {} flows dropped so far",
+                        tenantId, graph.size(), dropped);
+            }
+        }
+    }
+
+    /**
+     * Direction of a transaction's funds in the graph.
+     *
+     * @param source      The paying node
+     * @param target      The receiving node
+     * @param timestampMs When the flow happened, in epoch milliseconds
+     */
+    private record Flow(String source, String target, long timestampMs) {
+
+        static Flow of(Transaction transaction) {
+            if (transaction.getCustomerId() == null || transaction.getCounterpartyId() == null) {
+                return null;
+            }
+            String customer = transaction.getCustomerId().toString();
+            String counterparty = transaction.getCounterpartyId();
+            if (customer.equals(counterparty)) {
+                return null;
+            }
+            return transaction.getTxnType() == TransactionType.CREDIT
+                    ? new Flow(counterparty, customer, timestampOf(transaction))
+                    : new Flow(customer, counterparty, timestampOf(transaction));
+        }
+    }
+
+    private static long timestampOf(Transaction transaction) {
+        return transaction.getTxnTimestamp() != null
+                ? transaction.getTxnTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+}
@@ -3,11 +3,16 @@ package dev.hafnium.monitoring.repository;
 import dev.hafnium.monitoring.domain.Alert;
 import dev.hafnium.monitoring.domain.Alert.AlertStatus;
 import dev.hafnium.monitoring.domain.Alert.Severity;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -48,4 +53,71 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
             @Param("status") AlertStatus status,
             @Param("severity") Severity severity,
             Pageable pageable);
+
+    /**
+     * Merges a repeated rule firing into an open alert.
+     *
+     * @param alertId  The open alert identifier
+     * @param seenAt   When the repeated firing occurred
+     * @param score    Score of the repeated firing; the alert keeps the maximum
+     * @param statuses Statuses in which the alert counts as open
+     * @return Number of updated rows (0 if the alert is closed or missing)
+     */
+    @Modifying
+    @Query("""
+            UPDATE Alert a
+            SET a.occurrenceCount = a.occurrenceCount + 1,
+                a.lastSeenAt = :seenAt,
+                a.score = CASE WHEN a.score IS NULL OR a.score < :score THEN :score ELSE a.score END
+            WHERE a.alertId = :alertId
+            AND a.status IN :statuses
+            """)
+    int mergeOccurrence(
+            @Param("alertId") UUID alertId,
+            @Param("seenAt") Instant seenAt,
+            @Param("score") BigDecimal score,
+            @Param("statuses") Collection<AlertStatus> statuses);
+
+    /**
+     * Counts a tenant's alerts by status.
+     *
+     * @param tenantId The tenant identifier
+     * @return Rows of status and count
+     */
+    @Query("SELECT a.status, COUNT(a) FROM Alert a WHERE a.tenantId = :tenantId GROUP BY a.status")
+    List<Object[]> countByStatus(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Counts a tenant's alerts by severity.
+     *
+     * @param tenantId The tenant identifier
+     * @return Rows of severity and count
+     */
+    @Query("SELECT a.severity, COUNT(a) FROM Alert a WHERE a.tenantId = :tenantId GROUP BY a.severity")
+    List<Object[]> countBySeverity(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Counts a tenant's alerts by rule.
+     *
+     * @param tenantId The tenant identifier
+     * @return Rows of rule identifier and count
+     */
+    @Query("SELECT a.ruleId, COUNT(a) FROM Alert a WHERE a.tenantId = :tenantId GROUP BY a.ruleId")
+    List<Object[]> countByRule(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Counts a tenant's alerts by UTC creation day.
+     *
+     * @param tenantId The tenant identifier
+     * @param since    Inclusive start of the creation time range
+     * @return Rows of ISO-8601 day and count
+     */
+    @Query(value = """
+            SELECT to_char(a.created_at AT TIME ZONE 'UTC', 'YYYY-MM-DD') AS day, COUNT(*)
+            FROM alerts a
+            WHERE a.tenant_id = :tenantId
+            AND a.created_at >= :since
+            GROUP BY day
+            """, nativeQuery = true)
+    List<Object[]> countByDay(@Param("tenantId") UUID tenantId, @Param("since") Instant since);
 }
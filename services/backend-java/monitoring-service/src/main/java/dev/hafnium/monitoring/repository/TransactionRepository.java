@@ -1,9 +1,16 @@
 package dev.hafnium.monitoring.repository;
 
 import dev.hafnium.monitoring.domain.Transaction;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -20,4 +27,38 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
          * @return The transaction if found
          */
         Optional<Transaction> findByTenantIdAndTxnId(UUID tenantId, UUID txnId);
+
+        /**
+         * Streams one customer partition of a tenant's transaction history.
+         *
+         * <p>
+         * Backed by a server-side cursor: rows are fetched in batches of the
+         * configured fetch size, so callers must consume the stream inside a
+         * read-only transaction and detach entities as they go.
+         *
+         * @param tenantId   The tenant identifier
+         * @param from       Inclusive start of the transaction time range
+         * @param to         Exclusive end of the transaction time range
+         * @param partitions Total number of customer partitions
+         * @param partition  The partition to stream (0-based)
+         * @return Stream of transactions in the partition
+         */
+        @Query(value = """
+                        SELECT * FROM transactions t
+                        WHERE t.tenant_id = :tenantId
+                        AND t.txn_timestamp >= :from
+                        AND t.txn_timestamp < :to
+                        AND mod(abs(hashtext(coalesce(t.customer_id::text, ''))::bigint), :partitions) = :partition
+                        """, nativeQuery = true)
+        @QueryHints({
+                        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+                        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+        })
+        Stream<Transaction> streamCustomerPartition(
+                        @Param("tenantId") UUID tenantId,
+                        @Param("from") Instant from,
+                        @Param("to") Instant to,
+                        @Param("partitions") int partitions,
+                        @Param("partition") int partition);
 }
@@ -0,0 +1,526 @@
+package dev.hafnium.monitoring.service;
+
+import dev.hafnium.monitoring.domain.Alert;
+import dev.hafnium.monitoring.domain.Alert.AlertStatus;
+import dev.hafnium.monitoring.dto.AlertStatsResponse;
+import dev.hafnium.monitoring.repository.AlertRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service maintaining pre-aggregated alert statistics.
+ *
+ * <p>
+ * Counters by status, severity, rule and day are incremented in Redis as
+ * alerts are persisted, and status counters move as alerts change status, so
+ * reading statistics never touches the alerts table. Daily counters live in
+ * their own keys, which expire after {@code day-retention-days}. With Redis
+ * disabled, each instance keeps the counters in memory instead.
+ *
+ * <p>
+ * Counters are rebuilt from the database off the read path: a background
+ * resync runs every {@code resync-check-seconds} and rebuilds the tenants
+ * whose counters were never built, are older than {@code resync-minutes}, or
+ * missed an update on this instance. Snapshots are cached for a short TTL to
+ * absorb dashboard refreshes; while Redis is unavailable the last snapshot
+ * read is served, or empty counts without a generation time if there is none.
+ */
+@Service
+public class AlertStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AlertStatsService.class);
+
+    private static final String KEY_PREFIX = "hafnium:monitoring:alert-stats:";
+    private static final String DAY_INFIX = ":day:";
+    private static final String SYNCED_SUFFIX = ":synced";
+    private static final String FIELD_TOTAL = "total";
+    private static final String PREFIX_STATUS = "status:";
+    private static final String PREFIX_SEVERITY = "severity:";
+    private static final String PREFIX_RULE = "rule:";
+
+    private final AlertRepository alertRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<UUID, CachedSnapshot> snapshotCache = new ConcurrentHashMap<>();
+    private final Map<UUID, LocalCounters> localCounters = new ConcurrentHashMap<>();
+    /** Tenants whose counters missed an update on this instance. */
+    private final Set<UUID> staleTenants = ConcurrentHashMap.newKeySet();
+    /** Tenants read without built counters, rebuilt unless another instance did. */
+    private final Set<UUID> unsyncedTenants = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService resyncer;
+
+    @Value("${hafnium.monitoring.stats.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${hafnium.monitoring.stats.cache-ttl-seconds:5}")
+    private long cacheTtlSeconds;
+
+    @Value("${hafnium.monitoring.stats.day-retention-days:366}")
+    private int dayRetentionDays;
+
+    @Value("${hafnium.monitoring.stats.resync-minutes:60}")
+    private long resyncMinutes;
+
+    @Value("${hafnium.monitoring.stats.resync-check-seconds:60}")
+    private long resyncCheckSeconds;
+
+    public AlertStatsService(AlertRepository alertRepository, StringRedisTemplate redisTemplate) {
+        this.alertRepository = alertRepository;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    void start() {
+        resyncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-stats-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resyncer.scheduleWithFixedDelay(this::resync, resyncCheckSeconds, resyncCheckSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (resyncer != null) {
+            resyncer.shutdownNow();
+        }
+    }
+
+    /**
+     * Records newly raised alerts.
+     *
+     * <p>
+     * When called inside a transaction the counters are applied after commit,
+     * so rolled-back alerts are never counted.
+     *
+     * @param alerts The alerts that were persisted
+     */
+    public void recordRaised(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> apply(alerts));
+    }
+
+    /**
+     * Records a status transition of an alert.
+     *
+     * <p>
+     * Every change of {@link Alert#setStatus} that is persisted must be
+     * recorded here, or status counts drift until the next resync. When called
+     * inside a transaction the counters are moved after commit.
+     *
+     * @param alert    The alert, with its new status
+     * @param previous The status the alert had before
+     */
+    public void recordStatusChange(Alert alert, AlertStatus previous) {
+        if (previous == alert.getStatus()) {
+            return;
+        }
+        UUID tenantId = alert.getTenantId();
+        AlertStatus current = alert.getStatus();
+        afterCommit(() -> applyStatusChange(tenantId, previous, current));
+    }
+
+    /**
+     * Returns the alert statistics for a tenant.
+     *
+     * @param tenantId The tenant identifier
+     * @param days     Number of most recent days to include in the daily
+     *                 series, at most {@code day-retention-days}
+     * @return The aggregated statistics
+     */
+    public AlertStatsResponse getStats(UUID tenantId, int days) {
+        Counts counts = loadCounts(tenantId);
+        LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).minusDays(Math.max(days, 1) - 1L);
+
+        return new AlertStatsResponse(
+                counts.total(),
+                counts.byStatus(),
+                counts.bySeverity(),
+                counts.byRule(),
+                new TreeMap<>(counts.byDay().tailMap(firstDay.toString())),
+                counts.generatedAt());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            action.run();
+                        }
+                    });
+        } else {
+            action.run();
+        }
+    }
+
+    private void apply(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            invalidate(alert.getTenantId());
+        }
+
+        if (!redisEnabled) {
+            // Tenants without counters are counted by their first resync
+            for (Alert alert : alerts) {
+                LocalCounters counters = localCounters.get(alert.getTenantId());
+                if (counters != null) {
+                    counters.add(alert);
+                }
+            }
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection redis = (StringRedisConnection) connection;
+                        for (Alert alert : alerts) {
+                            String key = KEY_PREFIX + alert.getTenantId();
+                            redis.hIncrBy(key, FIELD_TOTAL, 1);
+                            redis.hIncrBy(key, PREFIX_STATUS + alert.getStatus().name(), 1);
+                            redis.hIncrBy(key, PREFIX_SEVERITY + alert.getSeverity().name(), 1);
+                            redis.hIncrBy(key, PREFIX_RULE + alert.getRuleId(), 1);
+
+                            LocalDate day = LocalDate.ofInstant(alert.getCreatedAt(), ZoneOffset.UTC);
+                            String dayKey = dayKey(alert.getTenantId(), day);
+                            redis.incr(dayKey);
+                            redis.expireAt(dayKey, dayExpiry(day));
+                        }
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to update alert stats in Redis, resyncing them: {}", e.getMessage());
+            for (Alert alert : alerts) {
+                staleTenants.add(alert.getTenantId());
+            }
+        }
+    }
+
+    private void applyStatusChange(UUID tenantId, AlertStatus previous, AlertStatus current) {
+        invalidate(tenantId);
+
+        if (!redisEnabled) {
+            LocalCounters counters = localCounters.get(tenantId);
+            if (counters != null) {
+                counters.move(previous, current);
+            }
+            return;
+        }
+
+        try {
+            String key = KEY_PREFIX + tenantId;
+            redisTemplate.executePipelined(
+                    (RedisCallback<Object>) connection -> {
+                        StringRedisConnection redis = (StringRedisConnection) connection;
+                        redis.hIncrBy(key, PREFIX_STATUS + previous.name(), -1);
+                        redis.hIncrBy(key, PREFIX_STATUS + current.name(), 1);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to move alert status counts in Redis, resyncing them: {}", e.getMessage());
+            staleTenants.add(tenantId);
+        }
+    }
+
+    private Counts loadCounts(UUID tenantId) {
+        CachedSnapshot cached = snapshotCache.get(tenantId);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached.counts();
+        }
+
+        Counts counts;
+        if (redisEnabled) {
+            try {
+                counts = readRedis(tenantId);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to read alert stats from Redis for tenant {}, serving the last snapshot: {}",
+                        tenantId, e.getMessage());
+                return cached != null ? cached.counts() : Counts.EMPTY;
+            }
+        } else {
+            LocalCounters counters = localCounters.get(tenantId);
+            if (counters == null || counters.isOlderThan(Duration.ofMinutes(resyncMinutes))) {
+                unsyncedTenants.add(tenantId);
+            }
+            if (counters == null) {
+                return Counts.EMPTY;
+            }
+            counts = counters.snapshot();
+        }
+
+        snapshotCache.put(tenantId, new CachedSnapshot(counts, Instant.now().plusSeconds(cacheTtlSeconds)));
+        return counts;
+    }
+
+    /**
+     * Reads a tenant's counters from Redis, and queues a resync if they are
+     * due to be rebuilt.
+     */
+    private Counts readRedis(UUID tenantId) {
+        List<LocalDate> days = retainedDays();
+        List<String> dayKeys = days.stream().map(day -> dayKey(tenantId, day)).toList();
+        List<Object> results = redisTemplate.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    StringRedisConnection redis = (StringRedisConnection) connection;
+                    redis.exists(KEY_PREFIX + tenantId + SYNCED_SUFFIX);
+                    redis.hGetAll(KEY_PREFIX + tenantId);
+                    redis.mGet(dayKeys.toArray(String[]::new));
+                    return null;
+                });
+        if (!Boolean.TRUE.equals(results.get(0))) {
+            unsyncedTenants.add(tenantId);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> fields = (Map<String, String>) results.get(1);
+        @SuppressWarnings("unchecked")
+        List<String> dayCounts = (List<String>) results.get(2);
+
+        long total = 0L;
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Long> bySeverity = new TreeMap<>();
+        Map<String, Long> byRule = new TreeMap<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            long value = Long.parseLong(field.getValue());
+            if (field.getKey().equals(FIELD_TOTAL)) {
+                total = value;
+            } else if (field.getKey().startsWith(PREFIX_STATUS)) {
+                byStatus.put(field.getKey().substring(PREFIX_STATUS.length()).toLowerCase(), value);
+            } else if (field.getKey().startsWith(PREFIX_SEVERITY)) {
+                bySeverity.put(field.getKey().substring(PREFIX_SEVERITY.length()).toLowerCase(), value);
+            } else if (field.getKey().startsWith(PREFIX_RULE)) {
+                byRule.put(field.getKey().substring(PREFIX_RULE.length()), value);
+            }
+        }
+        TreeMap<String, Long> byDay = new TreeMap<>();
+        for (int i = 0; i < days.size(); i++) {
+            if (dayCounts.get(i) != null) {
+                byDay.put(days.get(i).toString(), Long.parseLong(dayCounts.get(i)));
+            }
+        }
+        return new Counts(total, byStatus, bySeverity, byRule, byDay, Instant.now());
+    }
+
+    /**
+     * Rebuilds the counters of tenants queued for a resync from the database.
+     *
+     * <p>
+     * Runs on the resync thread, never on the read path. A tenant that fails
+     * to rebuild stays queued for the next run.
+     */
+    void resync() {
+        for (UUID tenantId : List.copyOf(staleTenants)) {
+            staleTenants.remove(tenantId);
+            unsyncedTenants.remove(tenantId);
+            rebuild(tenantId);
+        }
+        for (UUID tenantId : List.copyOf(unsyncedTenants)) {
+            unsyncedTenants.remove(tenantId);
+            try {
+                // Another instance may have rebuilt the counters since they were read
+                if (redisEnabled && Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + tenantId + SYNCED_SUFFIX))) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to check alert stats of tenant {} in Redis: {}", tenantId, e.getMessage());
+                unsyncedTenants.add(tenantId);
+                continue;
+            }
+            rebuild(tenantId);
+        }
+    }
+
+    /**
+     * Replaces a tenant's counters with counts from the database.
+     *
+     * <p>
+     * Alerts committed while the counts are written may be missed until the
+     * next resync.
+     */
+    private void rebuild(UUID tenantId) {
+        try {
+            Counts counts = fromDatabase(tenantId);
+            if (redisEnabled) {
+                writeRedis(tenantId, counts);
+            } else {
+                localCounters.put(tenantId, new LocalCounters(counts));
+            }
+            invalidate(tenantId);
+            LOG.info("Rebuilt alert stats for tenant {} from the database", tenantId);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to rebuild alert stats for tenant {}, retrying on the next resync: {}",
+                    tenantId, e.getMessage());
+            staleTenants.add(tenantId);
+        }
+    }
+
+    private void writeRedis(UUID tenantId, Counts counts) {
+        String key = KEY_PREFIX + tenantId;
+        redisTemplate.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    StringRedisConnection redis = (StringRedisConnection) connection;
+                    redis.del(key);
+                    redis.hSet(key, FIELD_TOTAL, Long.toString(counts.total()));
+                    counts.byStatus().forEach((status, count) -> redis.hSet(
+                            key, PREFIX_STATUS + status.toUpperCase(), count.toString()));
+                    counts.bySeverity().forEach((severity, count) -> redis.hSet(
+                            key, PREFIX_SEVERITY + severity.toUpperCase(), count.toString()));
+                    counts.byRule().forEach((rule, count) -> redis.hSet(key, PREFIX_RULE + rule, count.toString()));
+                    for (LocalDate day : retainedDays()) {
+                        Long count = counts.byDay().get(day.toString());
+                        if (count != null) {
+                            redis.set(dayKey(tenantId, day), count.toString());
+                            redis.expireAt(dayKey(tenantId, day), dayExpiry(day));
+                        } else {
+                            redis.del(dayKey(tenantId, day));
+                        }
+                    }
+                    redis.setEx(KEY_PREFIX + tenantId + SYNCED_SUFFIX, resyncMinutes * 60, Instant.now().toString());
+                    return null;
+                });
+    }
+
+    private Counts fromDatabase(UUID tenantId) {
+        Map<String, Long> byStatus = group(alertRepository.countByStatus(tenantId));
+        Map<String, Long> bySeverity = group(alertRepository.countBySeverity(tenantId));
+        Map<String, Long> byRule = new TreeMap<>();
+        for (Object[] row : alertRepository.countByRule(tenantId)) {
+            byRule.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+        }
+        TreeMap<String, Long> byDay = new TreeMap<>();
+        Instant since = retainedDays().get(0).atStartOfDay(ZoneOffset.UTC).toInstant();
+        for (Object[] row : alertRepository.countByDay(tenantId, since)) {
+            byDay.put(row[0].toString(), ((Number) row[1]).longValue());
+        }
+        long total = bySeverity.values().stream().mapToLong(Long::longValue).sum();
+        return new Counts(total, byStatus, bySeverity, byRule, byDay, Instant.now());
+    }
+
+    /** Expires a tenant's cached snapshot, keeping it to serve while Redis is unavailable. */
+    private void invalidate(UUID tenantId) {
+        snapshotCache.computeIfPresent(tenantId, (id, cached) -> new CachedSnapshot(cached.counts(), Instant.EPOCH));
+    }
+
+    /** Groups enum-keyed count rows by lower-case name. */
+    private static Map<String, Long> group(List<Object[]> rows) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            counts.put(((Enum<?>) row[0]).name().toLowerCase(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private List<LocalDate> retainedDays() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<LocalDate> days = new ArrayList<>(dayRetentionDays);
+        for (int i = dayRetentionDays - 1; i >= 0; i--) {
+            days.add(today.minusDays(i));
+        }
+        return days;
+    }
+
+    private long dayExpiry(LocalDate day) {
+        Instant end = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return end.plus(Duration.ofDays(dayRetentionDays)).getEpochSecond();
+    }
+
+    private static String dayKey(UUID tenantId, LocalDate day) {
+        return KEY_PREFIX + tenantId + DAY_INFIX + day;
+    }
+
+    /**
+     * Counts of a tenant's alerts.
+     *
+     * @param generatedAt When the counts were read, or null for the empty
+     *                    counts served when none could be read
+     */
+    private record Counts(
+            long total,
+            Map<String, Long> byStatus,
+            Map<String, Long> bySeverity,
+            Map<String, Long> byRule,
+            TreeMap<String, Long> byDay,
+            Instant generatedAt) {
+
+        static final Counts EMPTY = new Counts(0L, Map.of(), Map.of(), Map.of(), new TreeMap<>(), null);
+    }
+
+    private record CachedSnapshot(Counts counts, Instant expiresAt) {
+    }
+
+    /** In-memory counters of a tenant, used when Redis is disabled. */
+    private static final class LocalCounters {
+
+        private final Instant syncedAt = Instant.now();
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> bySeverity = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byRule = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byDay = new ConcurrentHashMap<>();
+
+        LocalCounters(Counts counts) {
+            total.add(counts.total());
+            counts.byStatus().forEach((status, count) -> counter(byStatus, status).add(count));
+            counts.bySeverity().forEach((severity, count) -> counter(bySeverity, severity).add(count));
+            counts.byRule().forEach((rule, count) -> counter(byRule, rule).add(count));
+            counts.byDay().forEach((day, count) -> counter(byDay, day).add(count));
+        }
+
+        void add(Alert alert) {
+            total.increment();
+            counter(byStatus, alert.getStatus().name().toLowerCase()).increment();
+            counter(bySeverity, alert.getSeverity().name().toLowerCase()).increment();
+            counter(byRule, alert.getRuleId()).increment();
+            counter(byDay, LocalDate.ofInstant(alert.getCreatedAt(), ZoneOffset.UTC).toString()).increment();
+        }
+
+        void move(AlertStatus previous, AlertStatus current) {
+            counter(byStatus, previous.name().toLowerCase()).decrement();
+            counter(byStatus, current.name().toLowerCase()).increment();
+        }
+
+        boolean isOlderThan(Duration age) {
+            return syncedAt.plus(age).isBefore(Instant.now());
+        }
+
+        Counts snapshot() {
+            return new Counts(total.sum(), sums(byStatus), sums(bySeverity), sums(byRule), sums(byDay), Instant.now());
+        }
+
+        private static LongAdder counter(Map<String, LongAdder> counters, String key) {
+            return counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+
+        private static TreeMap<String, Long> sums(Map<String, LongAdder> counters) {
+            TreeMap<String, Long> sums = new TreeMap<>();
+            counters.forEach((key, adder) -> sums.put(key, adder.sum()));
+            return sums;
+        }
+    }
+}
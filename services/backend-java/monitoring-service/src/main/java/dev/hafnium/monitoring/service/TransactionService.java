@@ -2,16 +2,24 @@ package dev.hafnium.monitoring.service;
 
 import dev.hafnium.common.kafka.KafkaEventPublisher;
 import dev.hafnium.common.model.event.EventType;
+import dev.hafnium.common.model.money.MinorUnits;
 import dev.hafnium.common.security.TenantContext;
 import dev.hafnium.monitoring.domain.Alert;
+import dev.hafnium.monitoring.domain.Alert.AlertStatus;
 import dev.hafnium.monitoring.domain.Transaction;
 import dev.hafnium.monitoring.dto.TransactionRequest;
 import dev.hafnium.monitoring.dto.TransactionResponse;
+import dev.hafnium.monitoring.engine.AlertSuppressionWindow;
 import dev.hafnium.monitoring.engine.RuleEngine;
+import dev.hafnium.monitoring.engine.ShadowEvaluationLane;
+import dev.hafnium.monitoring.fx.FxRateProvider;
+import dev.hafnium.monitoring.graph.CounterpartyGraphIndex;
 import dev.hafnium.monitoring.repository.AlertRepository;
 import dev.hafnium.monitoring.repository.TransactionRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,17 +41,32 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AlertRepository alertRepository;
     private final RuleEngine ruleEngine;
+    private final AlertSuppressionWindow suppressionWindow;
+    private final ShadowEvaluationLane shadowEvaluationLane;
+    private final CounterpartyGraphIndex graphIndex;
+    private final FxRateProvider fxRateProvider;
     private final KafkaEventPublisher eventPublisher;
+    private final AlertStatsService alertStatsService;
 
     public TransactionService(
             TransactionRepository transactionRepository,
             AlertRepository alertRepository,
             RuleEngine ruleEngine,
-            KafkaEventPublisher eventPublisher) {
+            AlertSuppressionWindow suppressionWindow,
+            ShadowEvaluationLane shadowEvaluationLane,
+            CounterpartyGraphIndex graphIndex,
+            FxRateProvider fxRateProvider,
+            KafkaEventPublisher eventPublisher,
+            AlertStatsService alertStatsService) {
         this.transactionRepository = transactionRepository;
         this.alertRepository = alertRepository;
         this.ruleEngine = ruleEngine;
+        this.suppressionWindow = suppressionWindow;
+        this.shadowEvaluationLane = shadowEvaluationLane;
+        this.graphIndex = graphIndex;
+        this.fxRateProvider = fxRateProvider;
         this.eventPublisher = eventPublisher;
+        this.alertStatsService = alertStatsService;
     }
 
     /**
@@ -61,7 +84,7 @@ public class TransactionService {
         transaction.setTenantId(tenantId);
         transaction.setCustomerId(request.customerId());
         transaction.setExternalTxnId(request.externalTxnId());
-        transaction.setAmount(request.amount());
+        transaction.setAmount(MinorUnits.of(request.amount(), Transaction.AMOUNT_EXPONENT));
         transaction.setCurrency(request.currency());
         transaction.setTxnType(request.txnType());
         transaction.setTxnTimestamp(request.txnTimestamp());
@@ -88,16 +111,21 @@ public class TransactionService {
                 Map.of(
                         "txn_id", transaction.getTxnId(),
                         "customer_id", transaction.getCustomerId() != null ? transaction.getCustomerId() : "",
-                        "amount", transaction.getAmount(),
+                        "amount", transaction.getAmount().toBigDecimal(),
                         "currency", transaction.getCurrency(),
                         "txn_type", transaction.getTxnType().name()));
 
         // Evaluate rules
-        List<Alert> alerts = ruleEngine.evaluate(transaction);
+        fxRateProvider.normalize(transaction);
+        graphIndex.record(transaction);
+        List<Alert> triggered = ruleEngine.evaluate(transaction);
+        shadowEvaluationLane.submit(transaction, triggered);
+        List<Alert> alerts = suppressRepeatedFirings(triggered);
 
         // Save any generated alerts
         if (!alerts.isEmpty()) {
             alertRepository.saveAll(alerts);
+            alertStatsService.recordRaised(alerts);
 
             LOG.info(
                     "Generated {} alerts for transaction {}",
@@ -123,11 +151,45 @@ public class TransactionService {
         return new TransactionResponse(
                 transaction.getTxnId(),
                 transaction.getExternalTxnId(),
-                transaction.getAmount(),
+                transaction.getAmount().toBigDecimal(),
                 transaction.getCurrency(),
                 transaction.getTxnType().name().toLowerCase(),
                 transaction.getRiskScore(),
-                alerts.size(),
+                triggered.size(),
                 transaction.getCreatedAt());
     }
+
+    /**
+     * Merges repeated firings into alerts already open within the suppression
+     * window.
+     *
+     * @param triggered Alerts generated by the rule engine
+     * @return Alerts that must be created; merged firings are excluded
+     */
+    private List<Alert> suppressRepeatedFirings(List<Alert> triggered) {
+        List<Alert> created = new ArrayList<>(triggered.size());
+
+        for (Alert alert : triggered) {
+            Optional<UUID> openAlertId = suppressionWindow.claim(alert);
+            if (openAlertId.isEmpty()) {
+                created.add(alert);
+                continue;
+            }
+
+            int merged = alertRepository.mergeOccurrence(
+                    openAlertId.get(), alert.getCreatedAt(), alert.getScore(), AlertStatus.OPEN);
+            if (merged > 0) {
+                LOG.debug(
+                        "Merged firing of rule {} into open alert {}",
+                        alert.getRuleId(),
+                        openAlertId.get());
+            } else {
+                // Open alert was closed or never committed; this firing takes over the window
+                suppressionWindow.reclaim(alert);
+                created.add(alert);
+            }
+        }
+
+        return created;
+    }
 }
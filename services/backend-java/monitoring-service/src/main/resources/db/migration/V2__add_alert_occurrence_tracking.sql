@@ -0,0 +1,12 @@
+-- Monitoring Service Schema
+-- V2__add_alert_occurrence_tracking.sql
+
+-- Repeated firings of the same rule for the same customer are merged into the
+-- open alert within the suppression window instead of creating new rows.
+ALTER TABLE alerts
+    ADD COLUMN occurrence_count INTEGER NOT NULL DEFAULT 1,
+    ADD COLUMN last_seen_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE alerts SET last_seen_at = created_at WHERE last_seen_at IS NULL;
+
+ALTER TABLE alerts ALTER COLUMN last_seen_at SET NOT NULL;
@@ -0,0 +1,6 @@
+-- Monitoring Service Schema
+-- V3__add_alert_stats_index.sql
+
+-- The alert statistics resync counts a tenant's alerts by status; the
+-- composite index answers the aggregate without reading the alert rows.
+CREATE INDEX idx_alerts_tenant_status ON alerts (tenant_id, status);
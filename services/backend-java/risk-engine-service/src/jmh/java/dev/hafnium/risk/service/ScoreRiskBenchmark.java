@@ -0,0 +1,270 @@
+package dev.hafnium.risk.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import dev.hafnium.common.kafka.EventPublisher;
+import dev.hafnium.common.security.TenantContext;
+import dev.hafnium.risk.client.AiInferenceClient;
+import dev.hafnium.risk.domain.RiskDecision;
+import dev.hafnium.risk.dto.RiskScoreRequest;
+import dev.hafnium.risk.feature.FeatureCache;
+import dev.hafnium.risk.repository.RiskDecisionRepository;
+import dev.hafnium.risk.scoring.GraphScorer;
+import dev.hafnium.risk.scoring.MlScorer;
+import dev.hafnium.risk.scoring.RuleScorer;
+import dev.hafnium.risk.scoring.ScoringPipeline;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Load harness for single-entity scoring through {@link RiskScoringService}.
+ *
+ * <p>
+ * Each invocation sends {@value #REQUESTS} concurrent score requests, so the
+ * score is requests per second. {@code mode} selects how they are sent:
+ * {@code platform} calls {@code computeRiskScore} from 200 platform threads,
+ * the Tomcat default; {@code virtual} calls it from a virtual thread each;
+ * {@code reactive} subscribes to {@code scoreRisk} from one thread. The p99
+ * latency of each iteration is printed after it.
+ *
+ * <p>
+ * Runs in-process, not end to end: inference is a local HTTP stub that
+ * answers batches after {@code inferenceLatencyMs}, and the repository is a
+ * stub with {@code connections} connections that holds one for
+ * {@code insertMs} per save. Kafka publishing is a no-op. Run with
+ * {@code ./gradlew :risk-engine-service:jmh}, e.g. under
+ * {@code taskset -c 0} for a single CPU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ScoreRiskBenchmark.REQUESTS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreRiskBenchmark {
+
+    static final int REQUESTS = 10_000;
+
+    private static final String BATCH_PATH = "/predict/batch";
+
+    @Param({"platform", "virtual", "reactive"})
+    public String mode;
+
+    @Param("250")
+    public int inferenceLatencyMs;
+
+    @Param("10")
+    public int connections;
+
+    @Param("2")
+    public int insertMs;
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final long[] latencies = new long[REQUESTS];
+
+    private HttpServer inference;
+    private RiskScoringService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        inference = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        inference.createContext(BATCH_PATH, exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            int requests = body.split("\"entity_id\"", -1).length - 1;
+            sleep(inferenceLatencyMs);
+            StringBuilder response = new StringBuilder("{\"predictions\":[");
+            for (int i = 0; i < requests; i++) {
+                response.append(i > 0 ? "," : "").append("{\"risk_score\":0.5,\"model_id\":\"stub\"}");
+            }
+            byte[] bytes = response.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        inference.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        inference.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AiInferenceClient client = new AiInferenceClient(
+                "http://localhost:" + inference.getAddress().getPort(), 2_000, true, BATCH_PATH,
+                64, 2_000, REQUESTS * 2, false, 10, 10_000, meterRegistry, CircuitBreakerRegistry.ofDefaults());
+        ScoringPipeline pipeline = new ScoringPipeline(
+                List.of(new RuleScorer(0.4, 50), new MlScorer(client, 0.6, 450), new GraphScorer(true, 0.2, 20, 50)),
+                meterRegistry, 500, 20, 2_000, 10_000);
+
+        service = new RiskScoringService(
+                decisionRepository(new Semaphore(connections)),
+                pipeline,
+                new NoOpEventPublisher(),
+                new ObjectMapper().findAndRegisterModules(),
+                new TransactionTemplate(new NoOpTransactionManager()),
+                new FeatureCache(null, meterRegistry, true, false, 30, 48, REQUESTS * 2),
+                new LatestDecisionCache(meterRegistry, true, 60, REQUESTS * 2),
+                null);
+        setField("activeModelVersion", "benchmark");
+        setField("featureBudgetMs", 20L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inference.stop(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printLatency() {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%n%s p50 %d ms, p99 %d ms%n", mode,
+                TimeUnit.NANOSECONDS.toMillis(sorted[REQUESTS / 2]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[REQUESTS * 99 / 100]));
+    }
+
+    @Benchmark
+    public void score() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        switch (mode) {
+            case "reactive" -> {
+                TenantContext.setTenantId(tenantId);
+                try {
+                    for (int i = 0; i < REQUESTS; i++) {
+                        int request = i;
+                        long start = System.nanoTime();
+                        service.scoreRisk(request(request), null).subscribe(
+                                response -> latencies[request] = System.nanoTime() - start,
+                                error -> done.countDown(),
+                                done::countDown);
+                    }
+                } finally {
+                    TenantContext.clear();
+                }
+            }
+            case "platform", "virtual" -> {
+                try (ExecutorService executor = mode.equals("platform")
+                        ? Executors.newFixedThreadPool(200)
+                        : Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int i = 0; i < REQUESTS; i++) {
+                        int request = i;
+                        long start = System.nanoTime();
+                        executor.execute(() -> {
+                            TenantContext.setTenantId(tenantId);
+                            try {
+                                service.computeRiskScore(request(request));
+                                latencies[request] = System.nanoTime() - start;
+                            } finally {
+                                TenantContext.clear();
+                                done.countDown();
+                            }
+                        });
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+        done.await();
+    }
+
+    private static RiskScoreRequest request(int i) {
+        return new RiskScoreRequest("CUSTOMER", "customer-" + i, null, Map.of("amount", 1_000.0));
+    }
+
+    private RiskDecisionRepository decisionRepository(Semaphore pool) {
+        return (RiskDecisionRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {RiskDecisionRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("save")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    pool.acquire();
+                    try {
+                        sleep(insertMs);
+                    } finally {
+                        pool.release();
+                    }
+                    RiskDecision decision = (RiskDecision) args[0];
+                    decision.setId(UUID.randomUUID());
+                    return decision;
+                });
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = RiskScoringService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class NoOpEventPublisher extends EventPublisher {
+
+        NoOpEventPublisher() {
+            super(null, null);
+        }
+
+        @Override
+        public <T> CompletableFuture<SendResult<String, String>> publish(
+                String topic, String eventType, String schemaVersion, String key, T payload) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
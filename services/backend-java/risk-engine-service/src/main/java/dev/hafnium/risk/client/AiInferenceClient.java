@@ -1,59 +1,362 @@
 package dev.hafnium.risk.client;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Client for AI inference service.
+ *
+ * <p>
+ * Concurrent score requests are coalesced: requests arriving within
+ * {@code batch.linger-micros} microseconds of each other, up to
+ * {@code batch.max-size}, are sent as one call to the batch prediction
+ * endpoint, and each caller receives its own score from the response. A batch that fails or times out fails all of
+ * its callers, who fall back to rules-only scoring. Failures open the
+ * {@code ai-inference} circuit breaker, which then fails calls without
+ * sending them.
+ *
+ * <p>
+ * With hedging enabled, a batch still unanswered after the p95 latency of
+ * recent batches is sent a second time and the first response wins, which
+ * cuts the tail caused by a single slow inference replica. Hedging starts once
+ * enough batches were observed to estimate the p95.
+ *
+ * <p>
+ * The batch endpoint takes {@code {"requests": [{"entity_type", "entity_id",
+ * "features"}]}} and answers {@code {"predictions": [{"risk_score",
+ * "model_id"}]}} in request order, as the stream processor's inference stage
+ * does, so its {@code InferenceStubServer} can stand in for the service with
+ * {@code hafnium.ai-inference.batch.path=/predict/batch}.
+ *
+ * <p>
+ * Bulk callers that already hold a full batch use {@link #scoreAll}, which
+ * sends it as one call under the longer {@code bulk.timeout-ms}.
  */
 @Slf4j
 @Component
 public class AiInferenceClient {
 
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
     private final Duration timeout;
+    private final Duration bulkTimeout;
+
+    private final boolean batchEnabled;
+    private final String batchPath;
+    private final int maxBatchSize;
+    private final long lingerMicros;
+    private final int maxPending;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayNanos;
+
+    private final ScheduledExecutorService scheduler;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_SAMPLES);
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final DistributionSummary batchSizes;
+    private final Timer batchLatency;
+    private final Counter hedgedCounter;
+    private final Counter rejectedCounter;
+
+    private final Object lock = new Object();
+    private List<Pending> queued = new ArrayList<>();
+    private ScheduledFuture<?> lingerFlush;
 
     public AiInferenceClient(
             @Value("${hafnium.ai-inference.base-url:http://localhost:8001}") String baseUrl,
-            @Value("${hafnium.ai-inference.timeout-ms:500}") int timeoutMs) {
+            @Value("${hafnium.ai-inference.timeout-ms:500}") int timeoutMs,
+            @Value("${hafnium.ai-inference.batch.enabled:true}") boolean batchEnabled,
+            @Value("${hafnium.ai-inference.batch.path:/api/v1/risk/predict/batch}") String batchPath,
+            @Value("${hafnium.ai-inference.batch.max-size:64}") int maxBatchSize,
+            @Value("${hafnium.ai-inference.batch.linger-micros:2000}") long lingerMicros,
+            @Value("${hafnium.ai-inference.batch.max-pending:10000}") int maxPending,
+            @Value("${hafnium.ai-inference.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${hafnium.ai-inference.hedge.min-delay-ms:10}") int minHedgeDelayMs,
+            @Value("${hafnium.ai-inference.bulk.timeout-ms:10000}") int bulkTimeoutMs,
+            MeterRegistry meterRegistry,
+            CircuitBreakerRegistry circuitBreakerRegistry) {
         this.webClient = WebClient.builder().baseUrl(baseUrl).build();
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("ai-inference");
         this.timeout = Duration.ofMillis(timeoutMs);
+        this.bulkTimeout = Duration.ofMillis(bulkTimeoutMs);
+        this.batchEnabled = batchEnabled;
+        this.batchPath = batchPath;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMicros = lingerMicros;
+        this.maxPending = maxPending;
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMs);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-inference-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.batchSizes = DistributionSummary.builder("hafnium.risk.inference.batch.size")
+                .description("Score requests coalesced into one inference call")
+                .register(meterRegistry);
+        this.batchLatency = Timer.builder("hafnium.risk.inference.batch.latency")
+                .description("Time from sending a batch to its first successful response")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hedgedCounter = Counter.builder("hafnium.risk.inference.hedged")
+                .description("Batches sent a second time because the first response was late")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("hafnium.risk.inference.rejected")
+                .description("Score requests rejected because too many were pending")
+                .register(meterRegistry);
+        meterRegistry.gauge("hafnium.risk.inference.pending", outstanding);
     }
 
     /**
-     * Gets a risk score from the AI inference service.
+     * Gets a risk score from the AI inference service without blocking.
+     *
+     * <p>
+     * The request joins a batch when subscribed. The Mono errors if the batch
+     * fails or times out, or at once while the {@code ai-inference} circuit
+     * breaker is open.
      */
-    @CircuitBreaker(name = "ai-inference", fallbackMethod = "getScoreFallback")
-    public Double getScore(String entityType, String entityId, Map<String, Double> features) {
-        log.debug("Calling AI inference for entity: {}/{}", entityType, entityId);
+    public Mono<Double> score(String entityType, String entityId, Map<String, Double> features) {
+        Mono<Double> score = batchEnabled
+                ? Mono.fromFuture(() -> enqueue(entityType, entityId, features))
+                : predict(entityType, entityId, features);
+        return score.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Scores many entities in one call, bypassing the coalescing queue.
+     *
+     * <p>
+     * The call is bounded by {@code bulk.timeout-ms} and is not hedged. With
+     * batching disabled, the entities are scored one call each. The Mono
+     * errors if any entity cannot be scored, or at once while the
+     * {@code ai-inference} circuit breaker is open.
+     *
+     * @param requests The entities to score
+     * @return The scores, in the order of the requests
+     */
+    public Mono<List<Double>> scoreAll(List<PredictionRequest> requests) {
+        if (requests.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        if (!batchEnabled) {
+            return Flux.fromIterable(requests)
+                    .flatMapSequential(request -> predict(request.entityType(), request.entityId(), request.features()))
+                    .collectList()
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        }
+        batchSizes.record(requests.size());
+        return predictBatch(new BatchRequest(requests))
+                .timeout(bulkTimeout)
+                .map(response -> {
+                    if (response.predictions() == null || response.predictions().size() != requests.size()) {
+                        throw new IllegalStateException("AI inference returned "
+                                + (response.predictions() == null ? 0 : response.predictions().size())
+                                + " scores for " + requests.size() + " requests");
+                    }
+                    return response.predictions().stream().map(PredictionResponse::riskScore).toList();
+                })
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        List<Pending> remaining;
+        synchronized (lock) {
+            remaining = queued;
+            queued = new ArrayList<>();
+        }
+        fail(remaining, new RejectedExecutionException("AI inference client is shutting down"));
+    }
 
+    private Mono<Double> predict(String entityType, String entityId, Map<String, Double> features) {
         InferenceRequest request = new InferenceRequest(entityType, entityId, features);
 
-        InferenceResponse response = webClient.post()
+        return webClient.post()
                 .uri("/api/v1/risk/predict")
                 .bodyValue(request)
                 .retrieve()
                 .bodyToMono(InferenceResponse.class)
                 .timeout(timeout)
-                .block();
+                .map(response -> {
+                    log.debug("AI inference returned score: {}", response.score());
+                    return response.score();
+                });
+    }
+
+    private CompletableFuture<Double> enqueue(String entityType, String entityId, Map<String, Double> features) {
+        if (outstanding.incrementAndGet() > maxPending) {
+            outstanding.decrementAndGet();
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many pending AI inference requests"));
+        }
+        Pending pending = new Pending(new PredictionRequest(entityType, entityId, features),
+                new CompletableFuture<>());
+        pending.result().whenComplete((score, error) -> outstanding.decrementAndGet());
+
+        List<Pending> full = null;
+        synchronized (lock) {
+            queued.add(pending);
+            if (queued.size() >= maxBatchSize) {
+                full = takeQueued();
+            } else if (queued.size() == 1) {
+                lingerFlush = scheduler.schedule(this::flushLingering, lingerMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return pending.result();
+    }
+
+    private void flushLingering() {
+        List<Pending> batch;
+        synchronized (lock) {
+            if (queued.isEmpty()) {
+                return;
+            }
+            batch = takeQueued();
+        }
+        send(batch);
+    }
+
+    // Called holding the lock
+    private List<Pending> takeQueued() {
+        List<Pending> batch = queued;
+        queued = new ArrayList<>(maxBatchSize);
+        if (lingerFlush != null) {
+            lingerFlush.cancel(false);
+            lingerFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        List<PredictionRequest> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request());
+        }
+        BatchRequest body = new BatchRequest(requests);
+
+        Mono<BatchResponse> call = predictBatch(body);
+        long hedgeDelayNanos = hedgeEnabled ? hedgeDelayNanos() : -1L;
+        if (hedgeDelayNanos > 0) {
+            Mono<BatchResponse> hedge = Mono.delay(Duration.ofNanos(hedgeDelayNanos))
+                    .then(Mono.defer(() -> {
+                        hedgedCounter.increment();
+                        return predictBatch(body);
+                    }));
+            // The slower call is cancelled once either answers
+            call = Mono.firstWithValue(call, hedge);
+        }
+
+        long start = System.nanoTime();
+        call.timeout(timeout).subscribe(
+                response -> complete(batch, response, System.nanoTime() - start),
+                error -> fail(batch, error));
+    }
 
-        if (response != null) {
-            log.debug("AI inference returned score: {}", response.score());
-            return response.score();
+    private Mono<BatchResponse> predictBatch(BatchRequest body) {
+        return webClient.post()
+                .uri(batchPath)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(BatchResponse.class);
+    }
+
+    private void complete(List<Pending> batch, BatchResponse response, long elapsedNanos) {
+        if (response.predictions() == null || response.predictions().size() != batch.size()) {
+            fail(batch, new IllegalStateException("AI inference returned "
+                    + (response.predictions() == null ? 0 : response.predictions().size())
+                    + " scores for " + batch.size() + " requests"));
+            return;
+        }
+        batchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        latencies.record(elapsedNanos);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(response.predictions().get(i).riskScore());
         }
+    }
 
-        return null;
+    private void fail(List<Pending> batch, Throwable error) {
+        log.debug("AI inference batch of {} failed: {}", batch.size(), error.toString());
+        for (Pending pending : batch) {
+            pending.result().completeExceptionally(error);
+        }
     }
 
-    @SuppressWarnings("unused")
-    private Double getScoreFallback(String entityType, String entityId, Map<String, Double> features, Throwable t) {
-        log.warn("AI inference fallback triggered for {}/{}: {}", entityType, entityId, t.getMessage());
-        return null;
+    private long hedgeDelayNanos() {
+        long p95 = latencies.p95Nanos();
+        return p95 > 0 ? Math.max(minHedgeDelayNanos, p95) : -1L;
+    }
+
+    /**
+     * Latencies of the most recent batches, for the hedge delay.
+     *
+     * <p>
+     * The p95 is recomputed every few samples rather than per batch.
+     */
+    private static final class LatencyTracker {
+
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final long[] samples;
+        private long count;
+        private volatile long p95Nanos = -1L;
+
+        LatencyTracker(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void record(long nanos) {
+            samples[(int) (count % samples.length)] = nanos;
+            count++;
+            if (count >= MIN_HEDGE_SAMPLES && count % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        }
+
+        /** The p95 latency, or -1 until enough batches were observed. */
+        long p95Nanos() {
+            return p95Nanos;
+        }
+    }
+
+    private record Pending(PredictionRequest request, CompletableFuture<Double> result) {
     }
 
     private record InferenceRequest(String entityType, String entityId, Map<String, Double> features) {
@@ -61,4 +364,28 @@ public class AiInferenceClient {
 
     private record InferenceResponse(Double score, String modelVersion) {
     }
+
+    /**
+     * An entity to score.
+     *
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @param features   The entity's features
+     */
+    public record PredictionRequest(
+            @JsonProperty("entity_type") String entityType,
+            @JsonProperty("entity_id") String entityId,
+            @JsonProperty("features") Map<String, Double> features) {
+    }
+
+    private record BatchRequest(@JsonProperty("requests") List<PredictionRequest> requests) {
+    }
+
+    private record PredictionResponse(
+            @JsonProperty("risk_score") double riskScore,
+            @JsonProperty("model_id") String modelId) {
+    }
+
+    private record BatchResponse(@JsonProperty("predictions") List<PredictionResponse> predictions) {
+    }
 }
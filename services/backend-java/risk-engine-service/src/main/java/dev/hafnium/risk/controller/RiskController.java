@@ -1,13 +1,20 @@
 package dev.hafnium.risk.controller;
 
+import dev.hafnium.risk.dto.BatchRiskScoreRequest;
+import dev.hafnium.risk.dto.BatchRiskScoreResponse;
+import dev.hafnium.risk.dto.RescoringJobRequest;
+import dev.hafnium.risk.dto.RescoringJobResponse;
 import dev.hafnium.risk.dto.RiskScoreRequest;
 import dev.hafnium.risk.dto.RiskScoreResponse;
+import dev.hafnium.risk.service.RescoringJobService;
 import dev.hafnium.risk.service.RiskScoringService;
 import jakarta.validation.Valid;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 /**
  * REST controller for risk scoring API.
@@ -18,16 +25,65 @@ import org.springframework.web.bind.annotation.*;
 public class RiskController {
 
     private final RiskScoringService scoringService;
+    private final RescoringJobService rescoringJobService;
 
     /**
      * Compute a risk score for an entity.
+     *
+     * <p>
+     * The request is completed asynchronously, so no servlet thread waits on
+     * inference, persistence or publishing.
+     *
+     * <p>
+     * The caller may bound scoring with the {@code X-Deadline-Ms} header or the
+     * {@code deadline_ms} parameter; the header wins if both are given.
      */
     @PostMapping("/score")
     @PreAuthorize("hasRole('ANALYST') or hasRole('OPERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<RiskScoreResponse> computeRiskScore(
-            @Valid @RequestBody RiskScoreRequest request) {
-        RiskScoreResponse response = scoringService.computeRiskScore(request);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<RiskScoreResponse>> computeRiskScore(
+            @Valid @RequestBody RiskScoreRequest request,
+            @RequestHeader(value = "X-Deadline-Ms", required = false) Long deadlineHeader,
+            @RequestParam(value = "deadline_ms", required = false) Long deadlineParam) {
+        Long deadlineMs = deadlineHeader != null ? deadlineHeader : deadlineParam;
+        return scoringService.scoreRisk(request, deadlineMs).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Compute risk scores for up to 100 entities at once.
+     *
+     * <p>
+     * An entity that cannot be scored gets an error in its result; the others
+     * are still scored.
+     */
+    @PostMapping("/score/batch")
+    @PreAuthorize("hasRole('ANALYST') or hasRole('OPERATOR') or hasRole('ADMIN')")
+    public Mono<ResponseEntity<BatchRiskScoreResponse>> computeRiskScoreBatch(
+            @Valid @RequestBody BatchRiskScoreRequest request) {
+        return scoringService.scoreBatch(request.requests())
+                .map(results -> ResponseEntity.ok(new BatchRiskScoreResponse(results)));
+    }
+
+    /**
+     * Start re-scoring entities in bulk.
+     *
+     * <p>
+     * The job runs in the background; its progress is read from
+     * {@code GET /rescoring-jobs/{jobId}}.
+     */
+    @PostMapping("/rescoring-jobs")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<RescoringJobResponse> startRescoringJob(
+            @Valid @RequestBody RescoringJobRequest request) {
+        return ResponseEntity.accepted().body(rescoringJobService.start(request));
+    }
+
+    /**
+     * Retrieve the progress of a re-scoring job.
+     */
+    @GetMapping("/rescoring-jobs/{jobId}")
+    @PreAuthorize("hasRole('OPERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<RescoringJobResponse> getRescoringJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(rescoringJobService.get(jobId));
     }
 
     /**
@@ -0,0 +1,13 @@
+package dev.hafnium.risk.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request to compute risk scores for several entities.
+ */
+public record BatchRiskScoreRequest(
+        @NotEmpty @Size(max = 100) List<@Valid RiskScoreRequest> requests) {
+}
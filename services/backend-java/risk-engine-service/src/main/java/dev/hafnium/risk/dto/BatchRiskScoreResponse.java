@@ -0,0 +1,23 @@
+package dev.hafnium.risk.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import dev.hafnium.common.model.dto.ProblemDetail;
+import java.util.List;
+
+/**
+ * Risk scores of several entities, in the order they were requested.
+ */
+public record BatchRiskScoreResponse(List<BatchRiskScoreResult> results) {
+
+    /**
+     * Outcome for one entity: its score, or the error that prevented it.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchRiskScoreResult(
+            @JsonProperty("entity_type") String entityType,
+            @JsonProperty("entity_id") String entityId,
+            RiskScoreResponse result,
+            ProblemDetail error) {
+    }
+}
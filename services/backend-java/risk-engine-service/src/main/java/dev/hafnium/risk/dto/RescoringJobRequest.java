@@ -0,0 +1,19 @@
+package dev.hafnium.risk.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request to re-score entities in bulk.
+ *
+ * <p>
+ * Without entity identifiers, every entity of the type that has a risk
+ * decision is re-scored.
+ */
+public record RescoringJobRequest(
+        @NotBlank @JsonProperty("entity_type") String entityType,
+        @Size(max = 1_000_000) @JsonProperty("entity_ids") List<@NotBlank String> entityIds,
+        RiskScoreRequest.RiskContext context) {
+}
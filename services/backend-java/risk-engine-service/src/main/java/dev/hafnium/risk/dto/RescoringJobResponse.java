@@ -0,0 +1,21 @@
+package dev.hafnium.risk.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * Progress of a re-scoring job.
+ */
+public record RescoringJobResponse(
+        @JsonProperty("job_id") String jobId,
+        @JsonProperty("entity_type") String entityType,
+        String status,
+        Long total,
+        long processed,
+        long scored,
+        long failed,
+        @JsonProperty("entities_per_second") double entitiesPerSecond,
+        @JsonProperty("started_at") Instant startedAt,
+        @JsonProperty("completed_at") Instant completedAt,
+        String error) {
+}
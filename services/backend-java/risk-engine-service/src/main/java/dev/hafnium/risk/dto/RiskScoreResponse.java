@@ -1,5 +1,6 @@
 package dev.hafnium.risk.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 import java.util.List;
@@ -14,7 +15,8 @@ public record RiskScoreResponse(
         @JsonProperty("policy_actions") List<PolicyAction> policyActions,
         @JsonProperty("model_version") String modelVersion,
         @JsonProperty("computed_at") Instant computedAt,
-        @JsonProperty("decision_id") String decisionId) {
+        @JsonProperty("decision_id") String decisionId,
+        @JsonProperty("missing_components") @JsonInclude(JsonInclude.Include.NON_EMPTY) List<String> missingComponents) {
 
     public record ReasonCode(String code, Double contribution, String description) {
     }
@@ -0,0 +1,249 @@
+package dev.hafnium.risk.feature;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-entity cache of risk scoring features.
+ *
+ * <p>
+ * Features are kept in two tiers: a local Caffeine cache, bounded by
+ * {@code max-local-entries}, that answers repeated lookups without a round
+ * trip, and a Redis hash per entity shared by all
+ * instances. A local miss reads Redis and keeps the result locally for
+ * {@code local-ttl-seconds}, which bounds how stale a local entry can get
+ * after another instance updated Redis.
+ *
+ * <p>
+ * Entries are merged feature by feature, so features derived from different
+ * events accumulate on the same entity.
+ *
+ * <p>
+ * Bulk reads go to Redis in one pipelined round trip, and what they read is
+ * not kept locally, so re-rating a whole book does not push out the entries
+ * online scoring reuses.
+ */
+@Slf4j
+@Component
+public class FeatureCache {
+
+    private static final String KEY_PREFIX = "hafnium:risk:features:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Map<String, Double>> localEntries;
+
+    private final boolean enabled;
+    private final boolean redisEnabled;
+    private final Duration redisTtl;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public FeatureCache(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.risk.features.enabled:true}") boolean enabled,
+            @Value("${hafnium.risk.features.redis-enabled:true}") boolean redisEnabled,
+            @Value("${hafnium.risk.features.local-ttl-seconds:30}") long localTtlSeconds,
+            @Value("${hafnium.risk.features.redis-ttl-hours:48}") long redisTtlHours,
+            @Value("${hafnium.risk.features.max-local-entries:100000}") int maxLocalEntries) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.redisEnabled = redisEnabled;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+        this.localEntries = Caffeine.newBuilder()
+                .maximumSize(maxLocalEntries)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        this.localHits = lookups(meterRegistry, "local");
+        this.redisHits = lookups(meterRegistry, "redis");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * Returns the features of an entity if they are held locally.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @return The features, or empty if a lookup must go to Redis
+     */
+    public Optional<Map<String, Double>> getLocal(UUID tenantId, String entityType, String entityId) {
+        if (!enabled) {
+            return Optional.of(Map.of());
+        }
+        Map<String, Double> local = localEntries.getIfPresent(keyFor(tenantId, entityType, entityId));
+        if (local != null) {
+            localHits.increment();
+            return Optional.of(local);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the features of an entity, reading Redis on a local miss.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @return The features, empty if none are known
+     */
+    public Map<String, Double> get(UUID tenantId, String entityType, String entityId) {
+        Optional<Map<String, Double>> local = getLocal(tenantId, entityType, entityId);
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        String key = keyFor(tenantId, entityType, entityId);
+        Map<String, Double> features = Map.of();
+        if (redisEnabled) {
+            try {
+                Map<Object, Object> stored = redisTemplate.opsForHash().entries(KEY_PREFIX + key);
+                features = parse(stored);
+            } catch (RuntimeException e) {
+                log.warn("Failed to read features from Redis: {}", e.getMessage());
+            }
+        }
+
+        if (features.isEmpty()) {
+            misses.increment();
+        } else {
+            redisHits.increment();
+        }
+        // Remember misses too, so entities without features do not hit Redis on every score
+        localEntries.put(key, Map.copyOf(features));
+        return features;
+    }
+
+    /**
+     * Returns the features of many entities of one type.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityIds  The entity identifiers
+     * @return The features by entity identifier; entities without features are
+     *         absent
+     */
+    public Map<String, Map<String, Double>> getAll(UUID tenantId, String entityType, List<String> entityIds) {
+        Map<String, Map<String, Double>> found = new HashMap<>();
+        if (!enabled) {
+            return found;
+        }
+
+        List<String> remote = new ArrayList<>();
+        for (String entityId : entityIds) {
+            Map<String, Double> local = localEntries.getIfPresent(keyFor(tenantId, entityType, entityId));
+            if (local != null) {
+                localHits.increment();
+                if (!local.isEmpty()) {
+                    found.put(entityId, local);
+                }
+            } else {
+                remote.add(entityId);
+            }
+        }
+
+        int redisFound = 0;
+        if (redisEnabled && !remote.isEmpty()) {
+            try {
+                RedisSerializer<String> keys = redisTemplate.getStringSerializer();
+                List<Object> stored = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String entityId : remote) {
+                        connection.hashCommands().hGetAll(
+                                keys.serialize(KEY_PREFIX + keyFor(tenantId, entityType, entityId)));
+                    }
+                    return null;
+                });
+                for (int i = 0; i < remote.size(); i++) {
+                    Map<String, Double> features = stored.get(i) instanceof Map<?, ?> hash ? parse(hash) : Map.of();
+                    if (!features.isEmpty()) {
+                        found.put(remote.get(i), features);
+                        redisFound++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to read features of {} entities from Redis: {}", remote.size(), e.getMessage());
+            }
+        }
+        redisHits.increment(redisFound);
+        misses.increment(remote.size() - redisFound);
+        return found;
+    }
+
+    /**
+     * Merges features into the entry of an entity.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @param features   The features to add or replace
+     */
+    public void merge(UUID tenantId, String entityType, String entityId, Map<String, Double> features) {
+        if (!enabled || features.isEmpty()) {
+            return;
+        }
+
+        String key = keyFor(tenantId, entityType, entityId);
+        if (redisEnabled) {
+            try {
+                Map<String, String> values = new HashMap<>();
+                features.forEach((name, value) -> values.put(name, Double.toString(value)));
+                redisTemplate.opsForHash().putAll(KEY_PREFIX + key, values);
+                redisTemplate.expire(KEY_PREFIX + key, redisTtl);
+            } catch (RuntimeException e) {
+                log.warn("Failed to write features to Redis: {}", e.getMessage());
+            }
+        }
+
+        Map<String, Double> existing = localEntries.getIfPresent(key);
+        if (existing != null) {
+            Map<String, Double> merged = new HashMap<>(existing);
+            merged.putAll(features);
+            localEntries.put(key, Map.copyOf(merged));
+        } else if (redisEnabled) {
+            // Redis holds the merged entry; the next lookup reads it
+            localEntries.invalidate(key);
+        } else {
+            localEntries.put(key, Map.copyOf(features));
+        }
+    }
+
+    private static Map<String, Double> parse(Map<?, ?> stored) {
+        Map<String, Double> features = new HashMap<>();
+        stored.forEach((name, value) -> {
+            try {
+                features.put(name.toString(), Double.parseDouble(value.toString()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed feature {}={}", name, value);
+            }
+        });
+        return features;
+    }
+
+    private static String keyFor(UUID tenantId, String entityType, String entityId) {
+        return tenantId + ":" + entityType + ":" + entityId;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("hafnium.risk.features.lookups")
+                .description("Feature cache lookups by the tier that answered them")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,110 @@
+package dev.hafnium.risk.feature;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.kafka.Topics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the {@link FeatureCache} from scored transaction and risk events.
+ *
+ * <p>
+ * Scored transactions from the stream processor carry the customer's velocity
+ * over its activity windows, which become the customer's aggregate features
+ * under the names of the model feature schema. The stream processor keeps 24
+ * hours of activity, so the 30-day features are computed over that window, as
+ * in its own model features. Risk scored events add the entity's last risk
+ * score.
+ *
+ * <p>
+ * Events that cannot be read are skipped: the cache is an optimization, and
+ * scoring works without it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeatureEventListener {
+
+    /** Entity type of the customers that scored transactions belong to. */
+    static final String CUSTOMER = "CUSTOMER";
+
+    private final FeatureCache featureCache;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = Topics.TXN_SCORED,
+            groupId = "${hafnium.risk.features.group-id:risk-engine-features}",
+            properties = "auto.offset.reset=latest")
+    public void onTransactionScored(String message) {
+        JsonNode event = read(message);
+        if (event == null) {
+            return;
+        }
+        UUID tenantId = tenantOf(event);
+        String customerId = event.path("payload").path("customer_id").asText("");
+        JsonNode velocity = event.path("velocity");
+        if (tenantId == null || customerId.isEmpty() || !velocity.isObject()) {
+            return;
+        }
+
+        Map<String, Double> features = new HashMap<>();
+        long count = velocity.path("count_24h").asLong();
+        features.put("transaction_count_30d", (double) count);
+        features.put("avg_amount_30d", count > 0 ? velocity.path("sum_24h").asDouble() / count : 0.0);
+        features.put("unique_counterparties", velocity.path("distinct_counterparties_24h").asDouble());
+        features.put("transaction_count_1h", velocity.path("count_1h").asDouble());
+        features.put("near_threshold_count_24h", velocity.path("near_threshold_24h").asDouble());
+        if (event.path("risk_score").isNumber()) {
+            features.put("last_transaction_risk_score", event.path("risk_score").asDouble());
+        }
+
+        featureCache.merge(tenantId, CUSTOMER, customerId, features);
+    }
+
+    @KafkaListener(
+            topics = Topics.RISK_SCORED,
+            groupId = "${hafnium.risk.features.group-id:risk-engine-features}",
+            properties = "auto.offset.reset=latest")
+    public void onRiskScored(String message) {
+        JsonNode event = read(message);
+        if (event == null) {
+            return;
+        }
+        UUID tenantId = tenantOf(event);
+        JsonNode decision = event.path("payload");
+        String entityType = decision.path("entityType").asText("");
+        String entityId = decision.path("entityId").asText("");
+        if (tenantId == null || entityType.isEmpty() || entityId.isEmpty() || !decision.path("score").isNumber()) {
+            return;
+        }
+
+        featureCache.merge(tenantId, entityType, entityId, Map.of("last_risk_score", decision.path("score").asDouble()));
+    }
+
+    private JsonNode read(String message) {
+        if (message == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            log.debug("Skipping unreadable feature event: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static UUID tenantOf(JsonNode event) {
+        try {
+            return UUID.fromString(event.path("tenant_id").asText());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
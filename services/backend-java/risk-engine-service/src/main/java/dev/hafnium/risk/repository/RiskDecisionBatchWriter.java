@@ -0,0 +1,58 @@
+package dev.hafnium.risk.repository;
+
+import dev.hafnium.risk.domain.RiskDecision;
+import java.sql.Timestamp;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts risk decisions with JDBC batch statements.
+ *
+ * <p>
+ * Used by batch scoring, where saving decisions one by one through JPA costs
+ * a round trip each. Decisions must carry their identifiers. With the
+ * PostgreSQL driver's {@code reWriteBatchedInserts}, each batch of
+ * {@code insert-batch-size} rows is sent as one multi-row insert. Inserts join
+ * the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RiskDecisionBatchWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO risk.risk_decisions (id, tenant_id, entity_type, entity_id, score, risk_level,
+                model_version, feature_version, reasons, policy_actions, context, computed_at, decision_metadata)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), CAST(? AS jsonb), ?, CAST(? AS jsonb))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${hafnium.risk.batch.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    /**
+     * Inserts decisions.
+     *
+     * @param decisions The decisions, with their identifiers set
+     */
+    public void insertAll(List<RiskDecision> decisions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, decisions, insertBatchSize, (ps, decision) -> {
+            ps.setObject(1, decision.getId());
+            ps.setObject(2, decision.getTenantId());
+            ps.setString(3, decision.getEntityType());
+            ps.setString(4, decision.getEntityId());
+            ps.setBigDecimal(5, decision.getScore());
+            ps.setString(6, decision.getRiskLevel().name());
+            ps.setString(7, decision.getModelVersion());
+            ps.setString(8, decision.getFeatureVersion());
+            ps.setString(9, decision.getReasons());
+            ps.setString(10, decision.getPolicyActions());
+            ps.setString(11, decision.getContext());
+            ps.setTimestamp(12, Timestamp.from(decision.getComputedAt()));
+            ps.setString(13, decision.getDecisionMetadata());
+        });
+    }
+}
@@ -1,8 +1,10 @@
 package dev.hafnium.risk.repository;
 
 import dev.hafnium.risk.domain.RiskDecision;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,4 +29,15 @@ public interface RiskDecisionRepository extends JpaRepository<RiskDecision, UUID
      * Find decision by ID and tenant.
      */
     Optional<RiskDecision> findByIdAndTenantId(UUID id, UUID tenantId);
+
+    /**
+     * Page through the entities of a type that have decisions, in identifier
+     * order, starting after the given identifier.
+     */
+    @Query("SELECT DISTINCT d.entityId FROM RiskDecision d WHERE d.tenantId = :tenantId AND d.entityType = :entityType AND d.entityId > :after ORDER BY d.entityId")
+    List<String> findEntityIdsAfter(
+            @Param("tenantId") UUID tenantId,
+            @Param("entityType") String entityType,
+            @Param("after") String after,
+            Pageable pageable);
 }
@@ -0,0 +1,33 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.dto.RiskScoreResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of the {@link ScoringPipeline}.
+ *
+ * @param score   Weighted average of the scorers that answered
+ * @param results Results of the scorers that answered before the deadline
+ * @param missing Names of the components that failed or missed their budget or
+ *                the deadline
+ */
+public record BlendedScore(double score, List<ScorerResult> results, List<String> missing) {
+
+    /**
+     * @return The reasons of all answering scorers
+     */
+    public List<RiskScoreResponse.ReasonCode> reasons() {
+        return results.stream().flatMap(result -> result.reasons().stream()).toList();
+    }
+
+    /**
+     * @param component A component outside the pipeline that missed its budget
+     * @return This score with the component flagged as missing
+     */
+    public BlendedScore withMissing(String component) {
+        List<String> components = new ArrayList<>(missing);
+        components.add(component);
+        return new BlendedScore(score, results, List.copyOf(components));
+    }
+}
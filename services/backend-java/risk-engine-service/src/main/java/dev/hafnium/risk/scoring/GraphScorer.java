@@ -0,0 +1,69 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.dto.RiskScoreResponse;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counterparty network score.
+ *
+ * <p>
+ * Scores the entity's fan-out, its number of distinct counterparties, from the
+ * {@code unique_counterparties} feature that the feature cache derives from
+ * scored transactions. Fan-out at {@code fan-out-threshold} or above scores 1.
+ * Disabled by default; entities without the feature are not scored.
+ */
+@Component
+public class GraphScorer implements RiskScorer {
+
+    static final String FAN_OUT_FEATURE = "unique_counterparties";
+
+    private final boolean enabled;
+    private final double weight;
+    private final Duration budget;
+    private final double fanOutThreshold;
+
+    public GraphScorer(
+            @Value("${hafnium.risk.scoring.graph.enabled:false}") boolean enabled,
+            @Value("${hafnium.risk.scoring.graph.weight:0.2}") double weight,
+            @Value("${hafnium.risk.scoring.graph.budget-ms:50}") long budgetMs,
+            @Value("${hafnium.risk.scoring.graph.fan-out-threshold:20}") double fanOutThreshold) {
+        this.enabled = enabled;
+        this.weight = weight;
+        this.budget = Duration.ofMillis(budgetMs);
+        this.fanOutThreshold = fanOutThreshold;
+    }
+
+    @Override
+    public String name() {
+        return "graph";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public Duration budget() {
+        return budget;
+    }
+
+    @Override
+    public Mono<ScorerResult> score(ScoringContext context) {
+        Double fanOut = context.feature(FAN_OUT_FEATURE);
+        if (!enabled || fanOut == null) {
+            return Mono.empty();
+        }
+
+        double score = Math.min(1.0, fanOut / fanOutThreshold);
+        List<RiskScoreResponse.ReasonCode> reasons = score >= 0.5
+                ? List.of(new RiskScoreResponse.ReasonCode(
+                        "HIGH_COUNTERPARTY_FAN_OUT", score, "Funds spread across many counterparties"))
+                : List.of();
+        return Mono.just(new ScorerResult(name(), score, reasons));
+    }
+}
@@ -0,0 +1,63 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.client.AiInferenceClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Model score from the AI inference service.
+ */
+@Component
+public class MlScorer implements RiskScorer {
+
+    private final AiInferenceClient aiInferenceClient;
+    private final double weight;
+    private final Duration budget;
+
+    public MlScorer(
+            AiInferenceClient aiInferenceClient,
+            @Value("${hafnium.risk.scoring.ml.weight:0.6}") double weight,
+            @Value("${hafnium.risk.scoring.ml.budget-ms:450}") long budgetMs) {
+        this.aiInferenceClient = aiInferenceClient;
+        this.weight = weight;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    @Override
+    public String name() {
+        return "ml";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public Duration budget() {
+        return budget;
+    }
+
+    @Override
+    public Mono<ScorerResult> score(ScoringContext context) {
+        return aiInferenceClient
+                .score(context.request().entityType(), context.request().entityId(), context.features())
+                .map(score -> new ScorerResult(name(), score, List.of()));
+    }
+
+    @Override
+    public Mono<List<Optional<ScorerResult>>> scoreAll(List<ScoringContext> contexts) {
+        List<AiInferenceClient.PredictionRequest> requests = contexts.stream()
+                .map(context -> new AiInferenceClient.PredictionRequest(
+                        context.request().entityType(), context.request().entityId(), context.features()))
+                .toList();
+        return aiInferenceClient.scoreAll(requests)
+                .map(scores -> scores.stream()
+                        .map(score -> Optional.of(new ScorerResult(name(), score, List.of())))
+                        .toList());
+    }
+}
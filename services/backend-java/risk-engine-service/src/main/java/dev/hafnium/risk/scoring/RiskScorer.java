@@ -0,0 +1,57 @@
+package dev.hafnium.risk.scoring;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A source of risk signal blended by the {@link ScoringPipeline}.
+ *
+ * <p>
+ * Scorers run in parallel under the pipeline's deadline. A scorer must not
+ * block the subscribing thread; one with nothing to say for an entity
+ * completes empty.
+ */
+public interface RiskScorer {
+
+    /**
+     * @return The scorer name, used in metrics and configuration
+     */
+    String name();
+
+    /**
+     * @return The scorer's weight in the blend
+     */
+    double weight();
+
+    /**
+     * @return The longest the scorer may take, within the request's deadline
+     */
+    Duration budget();
+
+    /**
+     * Scores an entity.
+     *
+     * @param context The request and the entity's features
+     * @return The score between 0 and 1, or empty
+     */
+    Mono<ScorerResult> score(ScoringContext context);
+
+    /**
+     * Scores many entities at once.
+     *
+     * <p>
+     * By default each entity is scored on its own. Scorers backed by a remote
+     * call override this to score all entities in one call.
+     *
+     * @param contexts The requests and the entities' features
+     * @return One result per context, in order, empty where the scorer abstains
+     */
+    default Mono<List<Optional<ScorerResult>>> scoreAll(List<ScoringContext> contexts) {
+        return Flux.fromIterable(contexts)
+                .concatMap(context -> score(context).map(Optional::of).defaultIfEmpty(Optional.empty()))
+                .collectList();
+    }
+}
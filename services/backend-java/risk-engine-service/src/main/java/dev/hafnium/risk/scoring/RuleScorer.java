@@ -0,0 +1,70 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.dto.RiskScoreRequest;
+import dev.hafnium.risk.dto.RiskScoreResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rule-based baseline score.
+ *
+ * <p>
+ * Always answers, so a decision can be made when every other scorer is
+ * unavailable.
+ */
+@Component
+public class RuleScorer implements RiskScorer {
+
+    private final double weight;
+    private final Duration budget;
+
+    public RuleScorer(
+            @Value("${hafnium.risk.scoring.rules.weight:0.4}") double weight,
+            @Value("${hafnium.risk.scoring.rules.budget-ms:50}") long budgetMs) {
+        this.weight = weight;
+        this.budget = Duration.ofMillis(budgetMs);
+    }
+
+    @Override
+    public String name() {
+        return "rules";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public Duration budget() {
+        return budget;
+    }
+
+    @Override
+    public Mono<ScorerResult> score(ScoringContext context) {
+        return Mono.fromSupplier(() -> evaluate(context.request()));
+    }
+
+    private ScorerResult evaluate(RiskScoreRequest request) {
+        double score = 0.3;
+        List<RiskScoreResponse.ReasonCode> reasons = new ArrayList<>();
+
+        // Adjust based on amount if present
+        if (request.context() != null && request.context().amount() != null) {
+            double amount = request.context().amount();
+            if (amount > 50000) {
+                score += 0.2;
+                reasons.add(new RiskScoreResponse.ReasonCode(
+                        "UNUSUAL_AMOUNT", 0.2, "Transaction amount significantly differs from historical pattern"));
+            } else if (amount > 10000) {
+                score += 0.1;
+            }
+        }
+
+        return new ScorerResult(name(), Math.min(1.0, score), reasons);
+    }
+}
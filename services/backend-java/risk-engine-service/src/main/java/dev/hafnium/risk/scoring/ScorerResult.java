@@ -0,0 +1,14 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.dto.RiskScoreResponse;
+import java.util.List;
+
+/**
+ * Score of a single scorer.
+ *
+ * @param scorer  Name of the scorer
+ * @param score   The score between 0 and 1
+ * @param reasons Reasons the scorer contributes to the decision
+ */
+public record ScorerResult(String scorer, double score, List<RiskScoreResponse.ReasonCode> reasons) {
+}
@@ -0,0 +1,23 @@
+package dev.hafnium.risk.scoring;
+
+import dev.hafnium.risk.dto.RiskScoreRequest;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Input shared by all scorers of a request.
+ *
+ * @param tenantId The tenant
+ * @param request  The score request
+ * @param features The request's features merged with the cached ones, or null
+ */
+public record ScoringContext(UUID tenantId, RiskScoreRequest request, Map<String, Double> features) {
+
+    /**
+     * @param name The feature name
+     * @return The feature value, or null if absent
+     */
+    public Double feature(String name) {
+        return features != null ? features.get(name) : null;
+    }
+}
@@ -0,0 +1,292 @@
+package dev.hafnium.risk.scoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs all {@link RiskScorer}s of a request in parallel and blends their
+ * scores.
+ *
+ * <p>
+ * Scorers share one deadline: the caller's, or
+ * {@code hafnium.risk.scoring.deadline-ms} by default, clamped between
+ * {@code min-deadline-ms} and {@code max-deadline-ms}. Each scorer also has its
+ * own budget, {@link RiskScorer#budget()}, so one slow component cannot use up
+ * the whole deadline. The blend is the weighted average of the scorers that
+ * answered in time; scorers that failed, ran over budget or were still
+ * running at the deadline are left out and reported as missing, and scorers
+ * that completed empty abstain. With the default weights, rules at 0.4 and
+ * the model at 0.6, this is the model blend when the model answers and the
+ * rule score alone when it does not.
+ *
+ * <p>
+ * {@link #scoreAll} scores many entities for bulk re-rating. Each scorer sees
+ * all of them at once, within {@code batch-timeout-ms}, and there is no
+ * request deadline.
+ *
+ * <p>
+ * All scoring metrics are recorded here:
+ * <ul>
+ * <li>{@code hafnium.risk.scores}: blended scores, including those of
+ * batches</li>
+ * <li>{@code hafnium.risk.scoring.duration}: time to the blended score of a
+ * request</li>
+ * <li>{@code hafnium.risk.scorer.duration}: time to each scorer's answer,
+ * tagged by scorer</li>
+ * <li>{@code hafnium.risk.scorer.missed}: scorers left out of a blend, tagged
+ * by scorer and cause ({@code error}, {@code budget} or {@code deadline})</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ScoringPipeline {
+
+    private static final String ABSTAINED = "abstained";
+    private static final String FAILED = "failed";
+
+    private final List<RiskScorer> scorers;
+    private final Duration defaultDeadline;
+    private final Duration minDeadline;
+    private final Duration maxDeadline;
+    private final Duration batchTimeout;
+
+    private final Counter scoreCounter;
+    private final Timer scoringTimer;
+    private final Map<String, Timer> scorerTimers = new HashMap<>();
+    private final Map<String, Counter> errorCounters = new HashMap<>();
+    private final Map<String, Counter> budgetCounters = new HashMap<>();
+    private final Map<String, Counter> deadlineCounters = new HashMap<>();
+
+    public ScoringPipeline(
+            List<RiskScorer> scorers,
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.risk.scoring.deadline-ms:500}") long deadlineMs,
+            @Value("${hafnium.risk.scoring.min-deadline-ms:20}") long minDeadlineMs,
+            @Value("${hafnium.risk.scoring.max-deadline-ms:2000}") long maxDeadlineMs,
+            @Value("${hafnium.risk.scoring.batch-timeout-ms:10000}") long batchTimeoutMs) {
+        this.scorers = List.copyOf(scorers);
+        this.defaultDeadline = Duration.ofMillis(deadlineMs);
+        this.minDeadline = Duration.ofMillis(minDeadlineMs);
+        this.maxDeadline = Duration.ofMillis(maxDeadlineMs);
+        this.batchTimeout = Duration.ofMillis(batchTimeoutMs);
+
+        this.scoreCounter = Counter.builder("hafnium.risk.scores")
+                .description("Total risk scores calculated")
+                .register(meterRegistry);
+        this.scoringTimer = Timer.builder("hafnium.risk.scoring.duration")
+                .description("Risk scoring duration")
+                .register(meterRegistry);
+
+        for (RiskScorer scorer : this.scorers) {
+            scorerTimers.put(scorer.name(), Timer.builder("hafnium.risk.scorer.duration")
+                    .description("Time to a scorer's answer")
+                    .tag("scorer", scorer.name())
+                    .register(meterRegistry));
+            errorCounters.put(scorer.name(), missed(meterRegistry, scorer.name(), "error"));
+            budgetCounters.put(scorer.name(), missed(meterRegistry, scorer.name(), "budget"));
+            deadlineCounters.put(scorer.name(), missed(meterRegistry, scorer.name(), "deadline"));
+        }
+    }
+
+    /**
+     * Resolves the deadline of a request.
+     *
+     * @param requestedMs The time the caller allows, in milliseconds, or null
+     * @return The deadline to score within
+     */
+    public Duration deadline(Long requestedMs) {
+        if (requestedMs == null) {
+            return defaultDeadline;
+        }
+        Duration requested = Duration.ofMillis(requestedMs);
+        if (requested.compareTo(minDeadline) < 0) {
+            return minDeadline;
+        }
+        return requested.compareTo(maxDeadline) > 0 ? maxDeadline : requested;
+    }
+
+    /**
+     * Scores an entity with all scorers within the default deadline.
+     *
+     * @param context The request and the entity's features
+     * @return The blended score; fails if no scorer answered
+     */
+    public Mono<BlendedScore> score(ScoringContext context) {
+        return score(context, defaultDeadline);
+    }
+
+    /**
+     * Scores an entity with all scorers.
+     *
+     * @param context  The request and the entity's features
+     * @param deadline Time left for scoring
+     * @return The blended score of the scorers that answered in time; fails if
+     *         none did
+     */
+    public Mono<BlendedScore> score(ScoringContext context, Duration deadline) {
+        Duration cutoff = deadline.compareTo(minDeadline) < 0 ? minDeadline : deadline;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Map<String, String> outcomes = new ConcurrentHashMap<>();
+
+            return Flux.fromIterable(scorers)
+                    .flatMap(scorer -> run(scorer, context, outcomes))
+                    .take(cutoff)
+                    .collectList()
+                    .map(results -> {
+                        BlendedScore blended = blend(results, missing(results, outcomes));
+                        scoreCounter.increment();
+                        scoringTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return blended;
+                    });
+        });
+    }
+
+    /**
+     * Scores many entities with all scorers, each scorer scoring them at once.
+     *
+     * <p>
+     * A scorer that fails or runs over {@code batch-timeout-ms} is missing from
+     * every score of the batch.
+     *
+     * @param contexts The requests and the entities' features
+     * @return One blended score per context, in order, empty where no scorer
+     *         answered
+     */
+    public Mono<List<Optional<BlendedScore>>> scoreAll(List<ScoringContext> contexts) {
+        return Flux.fromIterable(scorers)
+                .flatMapSequential(scorer -> runAll(scorer, contexts))
+                .collectList()
+                .map(answered -> {
+                    List<String> failed = scorers.stream()
+                            .map(RiskScorer::name)
+                            .filter(name -> answered.stream().noneMatch(batch -> batch.scorer().equals(name)))
+                            .toList();
+
+                    List<Optional<BlendedScore>> blended = new ArrayList<>(contexts.size());
+                    for (int i = 0; i < contexts.size(); i++) {
+                        List<ScorerResult> results = new ArrayList<>();
+                        for (ScorerBatch batch : answered) {
+                            batch.results().get(i).ifPresent(results::add);
+                        }
+                        blended.add(results.isEmpty() ? Optional.empty() : Optional.of(blend(results, failed)));
+                    }
+                    scoreCounter.increment(contexts.size());
+                    return blended;
+                });
+    }
+
+    private Mono<ScorerBatch> runAll(RiskScorer scorer, List<ScoringContext> contexts) {
+        return scorer.scoreAll(contexts)
+                .timeout(batchTimeout)
+                .flatMap(results -> {
+                    if (results.size() != contexts.size()) {
+                        return Mono.error(new IllegalStateException(
+                                "Scorer returned " + results.size() + " results for " + contexts.size() + " entities"));
+                    }
+                    return Mono.just(new ScorerBatch(scorer.name(), results));
+                })
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Scorer {} ran over the batch timeout of {}", scorer.name(), batchTimeout);
+                    budgetCounters.get(scorer.name()).increment();
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Scorer {} failed a batch of {}, blending without it: {}",
+                            scorer.name(), contexts.size(), e.getMessage());
+                    errorCounters.get(scorer.name()).increment();
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<ScorerResult> run(RiskScorer scorer, ScoringContext context, Map<String, String> outcomes) {
+        long start = System.nanoTime();
+        return scorer.score(context)
+                .timeout(scorer.budget())
+                .doOnSuccess(result -> {
+                    if (result == null) {
+                        outcomes.put(scorer.name(), ABSTAINED);
+                    } else {
+                        scorerTimers.get(scorer.name()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.debug("Scorer {} ran over its budget of {}", scorer.name(), scorer.budget());
+                    outcomes.put(scorer.name(), FAILED);
+                    budgetCounters.get(scorer.name()).increment();
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    log.warn("Scorer {} failed, blending without it: {}", scorer.name(), e.getMessage());
+                    outcomes.put(scorer.name(), FAILED);
+                    errorCounters.get(scorer.name()).increment();
+                    return Mono.empty();
+                });
+    }
+
+    private List<String> missing(List<ScorerResult> results, Map<String, String> outcomes) {
+        return scorers.stream()
+                .map(RiskScorer::name)
+                .filter(name -> results.stream().noneMatch(result -> result.scorer().equals(name)))
+                .filter(name -> {
+                    String outcome = outcomes.get(name);
+                    if (outcome == null) {
+                        // Still running when the deadline cut the scorers off
+                        deadlineCounters.get(name).increment();
+                        return true;
+                    }
+                    return outcome.equals(FAILED);
+                })
+                .toList();
+    }
+
+    private BlendedScore blend(List<ScorerResult> results, List<String> missing) {
+        double weighted = 0.0;
+        double totalWeight = 0.0;
+        for (ScorerResult result : results) {
+            double weight = weightOf(result.scorer());
+            weighted += weight * result.score();
+            totalWeight += weight;
+        }
+        if (totalWeight <= 0.0) {
+            throw new IllegalStateException("No risk scorer answered; missing " + missing);
+        }
+        double score = Math.max(0.0, Math.min(1.0, weighted / totalWeight));
+        return new BlendedScore(score, List.copyOf(results), missing);
+    }
+
+    private double weightOf(String name) {
+        for (RiskScorer scorer : scorers) {
+            if (scorer.name().equals(name)) {
+                return scorer.weight();
+            }
+        }
+        return 0.0;
+    }
+
+    private static Counter missed(MeterRegistry meterRegistry, String scorer, String cause) {
+        return Counter.builder("hafnium.risk.scorer.missed")
+                .description("Scorers left out of a blend")
+                .tag("scorer", scorer)
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    private record ScorerBatch(String scorer, List<Optional<ScorerResult>> results) {
+    }
+}
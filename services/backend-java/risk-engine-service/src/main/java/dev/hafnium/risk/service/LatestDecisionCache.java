@@ -0,0 +1,126 @@
+package dev.hafnium.risk.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.hafnium.risk.dto.RiskScoreResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the latest risk decision per entity, as ready-to-return responses.
+ *
+ * <p>
+ * Decisions are written through when they are persisted, and become visible
+ * once their transaction commits, so a rolled-back decision is never served.
+ * Decisions persisted by other instances are only seen after the local entry
+ * expires, which {@code ttl-seconds} bounds. At most {@code max-entries}
+ * decisions are held.
+ */
+@Component
+public class LatestDecisionCache {
+
+    private final Cache<String, RiskScoreResponse> entries;
+
+    private final boolean enabled;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public LatestDecisionCache(
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.risk.decision-cache.enabled:true}") boolean enabled,
+            @Value("${hafnium.risk.decision-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${hafnium.risk.decision-cache.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * Returns the latest decision of an entity if it is cached.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @return The decision, or empty if it must be loaded
+     */
+    public Optional<RiskScoreResponse> get(UUID tenantId, String entityType, String entityId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RiskScoreResponse response = entries.getIfPresent(keyFor(tenantId, entityType, entityId));
+        if (response != null) {
+            hits.increment();
+            return Optional.of(response);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Caches a decision loaded from the database.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @param response   The decision
+     */
+    public void put(UUID tenantId, String entityType, String entityId, RiskScoreResponse response) {
+        if (enabled) {
+            remember(keyFor(tenantId, entityType, entityId), response);
+        }
+    }
+
+    /**
+     * Caches a newly persisted decision once the current transaction commits,
+     * or at once outside a transaction.
+     *
+     * @param tenantId   The tenant
+     * @param entityType The entity type
+     * @param entityId   The entity identifier
+     * @param response   The decision
+     */
+    public void putAfterCommit(UUID tenantId, String entityType, String entityId, RiskScoreResponse response) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(tenantId, entityType, entityId, response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(tenantId, entityType, entityId, response);
+            }
+        });
+    }
+
+    private void remember(String key, RiskScoreResponse response) {
+        // Concurrent scores of one entity may commit out of order; keep the latest
+        entries.asMap().merge(key, response, (current, candidate) ->
+                candidate.computedAt().isBefore(current.computedAt()) ? current : candidate);
+    }
+
+    private static String keyFor(UUID tenantId, String entityType, String entityId) {
+        return tenantId + ":" + entityType + ":" + entityId;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("hafnium.risk.decision-cache.lookups")
+                .description("Latest decision lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
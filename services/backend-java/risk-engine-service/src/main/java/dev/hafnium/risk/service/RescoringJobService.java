@@ -0,0 +1,265 @@
+package dev.hafnium.risk.service;
+
+import dev.hafnium.common.security.TenantContext;
+import dev.hafnium.common.web.ResourceConflictException;
+import dev.hafnium.common.web.ResourceNotFoundException;
+import dev.hafnium.risk.dto.BatchRiskScoreResponse;
+import dev.hafnium.risk.dto.RescoringJobRequest;
+import dev.hafnium.risk.dto.RescoringJobResponse;
+import dev.hafnium.risk.dto.RiskScoreRequest;
+import dev.hafnium.risk.repository.RiskDecisionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs bulk re-scoring jobs, such as the periodic re-rating of a customer
+ * book.
+ *
+ * <p>
+ * A job scores its entities in chunks of {@code chunk-size} through
+ * {@link RiskScoringService#scoreBatch(List)}, with up to
+ * {@code concurrency} chunks in flight. Entity identifiers are streamed in:
+ * a given list is cut into chunks, and without one the entities of the type
+ * that have decisions are paged from the database by identifier. Chunks are
+ * only read as fast as they are scored, so a job never holds all of its
+ * entities.
+ *
+ * <p>
+ * Jobs are tracked in memory on the instance that runs them. Their progress
+ * is lost on restart, and must be polled on the instance that accepted the
+ * job. Finished jobs are kept for {@code retention-minutes}.
+ */
+@Slf4j
+@Service
+public class RescoringJobService {
+
+    private final RiskScoringService scoringService;
+    private final RiskDecisionRepository decisionRepository;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private final int chunkSize;
+    private final int concurrency;
+    private final int maxActiveJobs;
+    private final Duration retention;
+
+    private final Counter scoredCounter;
+    private final Counter failedCounter;
+
+    /** Reads the entity identifiers of jobs, off the thread that started them. */
+    private final Scheduler sourceScheduler = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "risk-rescoring");
+
+    public RescoringJobService(
+            RiskScoringService scoringService,
+            RiskDecisionRepository decisionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${hafnium.risk.batch.chunk-size:500}") int chunkSize,
+            @Value("${hafnium.risk.batch.concurrency:4}") int concurrency,
+            @Value("${hafnium.risk.batch.max-active-jobs:2}") int maxActiveJobs,
+            @Value("${hafnium.risk.batch.retention-minutes:1440}") long retentionMinutes) {
+        this.scoringService = scoringService;
+        this.decisionRepository = decisionRepository;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        this.maxActiveJobs = maxActiveJobs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.scoredCounter = entities(meterRegistry, "scored");
+        this.failedCounter = entities(meterRegistry, "failed");
+    }
+
+    /**
+     * Starts a job for the current tenant.
+     *
+     * @param request The entities to re-score
+     * @return The job's initial progress
+     */
+    public RescoringJobResponse start(RescoringJobRequest request) {
+        UUID tenantId = TenantContext.requireTenantId();
+        String actorId = TenantContext.getActorId();
+        UUID traceId = TenantContext.getOrCreateTraceId();
+
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.plus(retention).isBefore(now));
+        long active = jobs.values().stream().filter(job -> job.completedAt == null).count();
+        if (active >= maxActiveJobs) {
+            throw new ResourceConflictException(active + " re-scoring jobs are already running");
+        }
+
+        Long total = request.entityIds() != null ? (long) request.entityIds().size() : null;
+        Job job = new Job(UUID.randomUUID(), tenantId, request.entityType(), total, now);
+        jobs.put(job.id, job);
+        log.info("Starting re-scoring job {} for {} {} entities", job.id,
+                total != null ? total : "all", request.entityType());
+
+        job.subscription = chunks(tenantId, request)
+                .flatMap(chunk -> scoreChunk(tenantId, actorId, traceId, request, chunk)
+                        .doOnNext(job::record)
+                        .onErrorResume(e -> {
+                            log.warn("Re-scoring job {} failed a chunk of {}: {}", job.id, chunk.size(), e.getMessage());
+                            job.recordFailure(chunk.size());
+                            return Mono.empty();
+                        }), concurrency)
+                .subscribe(
+                        null,
+                        error -> {
+                            log.error("Re-scoring job {} failed", job.id, error);
+                            job.complete("FAILED", error.getMessage());
+                        },
+                        () -> {
+                            job.complete("COMPLETED", null);
+                            log.info("Re-scoring job {} completed: {} scored, {} failed, {} entities/s",
+                                    job.id, job.scored.get(), job.failed.get(),
+                                    Math.round(job.toResponse().entitiesPerSecond()));
+                        });
+        return job.toResponse();
+    }
+
+    /**
+     * Returns the progress of a job of the current tenant.
+     *
+     * @param jobId The job
+     * @return The job's progress
+     */
+    public RescoringJobResponse get(UUID jobId) {
+        UUID tenantId = TenantContext.requireTenantId();
+        Job job = jobs.get(jobId);
+        if (job == null || !job.tenantId.equals(tenantId)) {
+            throw new ResourceNotFoundException("RescoringJob", jobId.toString());
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> {
+            if (job.subscription != null) {
+                job.subscription.dispose();
+            }
+        });
+        sourceScheduler.dispose();
+    }
+
+    private Flux<List<String>> chunks(UUID tenantId, RescoringJobRequest request) {
+        if (request.entityIds() != null) {
+            return Flux.fromIterable(request.entityIds()).buffer(chunkSize).subscribeOn(sourceScheduler);
+        }
+        // Keyset paging: each page starts after the last identifier of the previous one
+        return Flux.<List<String>, String>generate(() -> "", (after, sink) -> {
+            List<String> page = decisionRepository.findEntityIdsAfter(
+                    tenantId, request.entityType(), after, PageRequest.of(0, chunkSize));
+            if (page.isEmpty()) {
+                sink.complete();
+                return after;
+            }
+            sink.next(page);
+            return page.get(page.size() - 1);
+        }).subscribeOn(sourceScheduler);
+    }
+
+    private Mono<List<BatchRiskScoreResponse.BatchRiskScoreResult>> scoreChunk(
+            UUID tenantId, String actorId, UUID traceId, RescoringJobRequest request, List<String> chunk) {
+        return Mono.defer(() -> {
+            List<RiskScoreRequest> requests = chunk.stream()
+                    .map(entityId -> new RiskScoreRequest(request.entityType(), entityId, request.context(), null))
+                    .toList();
+            // scoreBatch reads the tenant context when called, on the thread that emitted the chunk
+            TenantContext.setTenantId(tenantId);
+            TenantContext.setActorId(actorId);
+            TenantContext.setTraceId(traceId);
+            try {
+                return scoringService.scoreBatch(requests);
+            } finally {
+                TenantContext.clear();
+            }
+        });
+    }
+
+    private static Counter entities(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("hafnium.risk.rescoring.entities")
+                .description("Entities processed by re-scoring jobs")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Progress of a running or finished job.
+     */
+    private final class Job {
+
+        private final UUID id;
+        private final UUID tenantId;
+        private final String entityType;
+        private final Long total;
+        private final Instant startedAt;
+        private final AtomicLong scored = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile String status = "RUNNING";
+        private volatile Instant completedAt;
+        private volatile String error;
+        private volatile Disposable subscription;
+
+        private Job(UUID id, UUID tenantId, String entityType, Long total, Instant startedAt) {
+            this.id = id;
+            this.tenantId = tenantId;
+            this.entityType = entityType;
+            this.total = total;
+            this.startedAt = startedAt;
+        }
+
+        private void record(List<BatchRiskScoreResponse.BatchRiskScoreResult> results) {
+            long ok = results.stream().filter(result -> result.result() != null).count();
+            scored.addAndGet(ok);
+            failed.addAndGet(results.size() - ok);
+            scoredCounter.increment(ok);
+            failedCounter.increment(results.size() - ok);
+        }
+
+        private void recordFailure(int entities) {
+            failed.addAndGet(entities);
+            failedCounter.increment(entities);
+        }
+
+        private void complete(String finalStatus, String failure) {
+            error = failure;
+            status = finalStatus;
+            completedAt = Instant.now();
+        }
+
+        private RescoringJobResponse toResponse() {
+            long processed = scored.get() + failed.get();
+            Instant end = completedAt != null ? completedAt : Instant.now();
+            long elapsedMillis = Math.max(1, Duration.between(startedAt, end).toMillis());
+            return new RescoringJobResponse(
+                    id.toString(),
+                    entityType,
+                    status,
+                    total,
+                    processed,
+                    scored.get(),
+                    failed.get(),
+                    processed * 1000.0 / elapsedMillis,
+                    startedAt,
+                    completedAt,
+                    error);
+        }
+    }
+}
@@ -4,37 +4,94 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.hafnium.common.kafka.EventPublisher;
 import dev.hafnium.common.kafka.Topics;
+import dev.hafnium.common.model.dto.ProblemDetail;
 import dev.hafnium.common.security.TenantContext;
 import dev.hafnium.common.web.ResourceNotFoundException;
-import dev.hafnium.risk.client.AiInferenceClient;
 import dev.hafnium.risk.domain.RiskDecision;
+import dev.hafnium.risk.dto.BatchRiskScoreResponse;
 import dev.hafnium.risk.dto.RiskScoreRequest;
 import dev.hafnium.risk.dto.RiskScoreResponse;
+import dev.hafnium.risk.feature.FeatureCache;
+import dev.hafnium.risk.repository.RiskDecisionBatchWriter;
 import dev.hafnium.risk.repository.RiskDecisionRepository;
+import dev.hafnium.risk.scoring.BlendedScore;
+import dev.hafnium.risk.scoring.ScoringContext;
+import dev.hafnium.risk.scoring.ScoringPipeline;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Risk scoring service combining rules, ML models, and policy decisions.
+ *
+ * <p>
+ * Scores come from the {@link ScoringPipeline}, which blends all configured
+ * scorers. {@link #scoreRisk(RiskScoreRequest, Long)} is the non-blocking path: the
+ * scorers are awaited without holding a thread, and the decision is persisted
+ * and published on a virtual thread, so a request waiting on I/O costs no
+ * platform thread. {@link #computeRiskScore(RiskScoreRequest)} waits for the
+ * same result on the calling thread.
+ *
+ * <p>
+ * Features cached for the entity by the {@link FeatureCache} are added to
+ * those of the request, which take precedence.
+ *
+ * <p>
+ * A request is scored within a deadline, which the feature lookup and the
+ * scorers share. Components that miss their budget or the deadline are left
+ * out, and the best score available at the deadline is returned with them
+ * listed as missing components.
+ *
+ * <p>
+ * {@link #scoreBatch(List)} scores many entities together. It reads their
+ * features in bulk, makes one inference call for all of them, inserts the
+ * decisions with JDBC batch statements, and publishes their events together.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RiskScoringService {
 
+    /** Component name flagged when the feature lookup misses its budget. */
+    static final String FEATURES_COMPONENT = "features";
+
+    private static final String MISSING_COMPONENTS = "missing_components";
+
     private final RiskDecisionRepository decisionRepository;
-    private final AiInferenceClient aiInferenceClient;
+    private final ScoringPipeline scoringPipeline;
     private final EventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final FeatureCache featureCache;
+    private final LatestDecisionCache latestDecisions;
+    private final RiskDecisionBatchWriter batchWriter;
+
+    /** Runs the blocking Redis lookups, JPA save and Kafka hand-off of the reactive path. */
+    private final Scheduler blockingScheduler = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "risk-blocking");
 
     @Value("${hafnium.risk.model.active-version:v1.0.0}")
     private String activeModelVersion;
@@ -42,62 +99,272 @@ public class RiskScoringService {
     @Value("${hafnium.ai-inference.fallback-enabled:true}")
     private boolean fallbackEnabled;
 
+    @Value("${hafnium.risk.scoring.features.budget-ms:20}")
+    private long featureBudgetMs;
+
+    @Value("${hafnium.risk.batch.publish-timeout-ms:30000}")
+    private long batchPublishTimeoutMs;
+
     /**
-     * Computes a risk score for the given entity.
+     * Computes a risk score for the given entity, waiting on the calling thread.
+     *
+     * <p>
+     * Must not be called from a non-blocking thread.
      */
-    @Transactional
     @CircuitBreaker(name = "risk-scoring", fallbackMethod = "computeRiskScoreFallback")
     public RiskScoreResponse computeRiskScore(RiskScoreRequest request) {
+        return scoreRisk(request, null).block();
+    }
+
+    /**
+     * Computes a risk score without blocking the calling thread.
+     *
+     * <p>
+     * The tenant context is read on the calling thread and restored on the
+     * thread that persists and publishes the decision. Scorers that fail or
+     * miss the deadline are left out of the blend, so if inference fails the
+     * score is computed from rules alone. A feature lookup over its budget is
+     * abandoned and the request's own features are used.
+     *
+     * @param request    The entity to score
+     * @param deadlineMs Time the caller allows for scoring, in milliseconds, or
+     *                   null for the configured default
+     */
+    @CircuitBreaker(name = "risk-scoring", fallbackMethod = "scoreRiskFallback")
+    public Mono<RiskScoreResponse> scoreRisk(RiskScoreRequest request, Long deadlineMs) {
         UUID tenantId = TenantContext.requireTenantId();
+        String actorId = TenantContext.getActorId();
+        UUID traceId = TenantContext.getOrCreateTraceId();
         Instant computedAt = Instant.now();
+        Duration deadline = scoringPipeline.deadline(deadlineMs);
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+
+        // Local features are used in place; a Redis lookup moves off the calling thread
+        Duration featureBudget = min(Duration.ofMillis(featureBudgetMs), deadline);
+        Mono<Optional<Map<String, Double>>> cachedFeatures = featureCache
+                .getLocal(tenantId, request.entityType(), request.entityId())
+                .map(features -> Mono.just(Optional.of(features)))
+                .orElseGet(() -> Mono
+                        .fromCallable(() -> Optional.of(
+                                featureCache.get(tenantId, request.entityType(), request.entityId())))
+                        .subscribeOn(blockingScheduler)
+                        .timeout(featureBudget, Mono.fromCallable(() -> {
+                            log.debug("Feature lookup ran over its budget of {}", featureBudget);
+                            return Optional.empty();
+                        })));
+
+        return cachedFeatures
+                .flatMap(cached -> scoringPipeline
+                        .score(
+                                new ScoringContext(tenantId, request,
+                                        withCachedFeatures(request, cached.orElse(Map.of()))),
+                                Duration.ofNanos(Math.max(0, deadlineAt - System.nanoTime())))
+                        .map(blended -> cached.isPresent() ? blended : blended.withMissing(FEATURES_COMPONENT)))
+                .publishOn(blockingScheduler)
+                .map(blended -> {
+                    TenantContext.setTenantId(tenantId);
+                    TenantContext.setActorId(actorId);
+                    TenantContext.setTraceId(traceId);
+                    try {
+                        return transactionTemplate.execute(
+                                status -> decide(tenantId, request, blended, computedAt));
+                    } finally {
+                        TenantContext.clear();
+                    }
+                });
+    }
 
-        // Get ML score if available
-        Double mlScore = null;
-        try {
-            mlScore = aiInferenceClient.getScore(request.entityType(), request.entityId(), request.features());
-        } catch (Exception e) {
-            log.warn("ML inference failed, using rules-only mode: {}", e.getMessage());
+    /**
+     * Computes risk scores for many entities together.
+     *
+     * <p>
+     * The decisions of the batch are inserted in one transaction, and their
+     * events are published once it commits. The batch then waits until Kafka
+     * has acknowledged the events, so a caller that submits batches one after
+     * another cannot outrun the broker. Entities that no scorer could score get
+     * an error instead of a result.
+     *
+     * @param requests The entities to score
+     * @return One result per request, in order
+     */
+    public Mono<List<BatchRiskScoreResponse.BatchRiskScoreResult>> scoreBatch(List<RiskScoreRequest> requests) {
+        UUID tenantId = TenantContext.requireTenantId();
+        String actorId = TenantContext.getActorId();
+        UUID traceId = TenantContext.getOrCreateTraceId();
+        Instant computedAt = Instant.now();
+
+        return Mono.fromCallable(() -> batchContexts(tenantId, requests))
+                .subscribeOn(blockingScheduler)
+                .flatMap(contexts -> scoringPipeline.scoreAll(contexts))
+                .publishOn(blockingScheduler)
+                .map(scores -> {
+                    TenantContext.setTenantId(tenantId);
+                    TenantContext.setActorId(actorId);
+                    TenantContext.setTraceId(traceId);
+                    try {
+                        return decideAll(tenantId, traceId, requests, scores, computedAt);
+                    } finally {
+                        TenantContext.clear();
+                    }
+                });
+    }
+
+    /**
+     * Retrieves a previously computed risk score.
+     *
+     * <p>
+     * Served from the {@link LatestDecisionCache} when possible. No transaction
+     * is opened here, so a cache hit does not take a database connection; the
+     * repository query runs in its own read-only transaction.
+     */
+    public RiskScoreResponse getRiskScore(String entityType, String entityId) {
+        UUID tenantId = TenantContext.requireTenantId();
+
+        Optional<RiskScoreResponse> cached = latestDecisions.get(tenantId, entityType, entityId);
+        if (cached.isPresent()) {
+            return cached.get();
         }
 
-        // Compute final score (rules + ML blend)
-        double finalScore = computeFinalScore(request, mlScore);
+        RiskDecision decision = decisionRepository
+                .findLatestByEntityAndTenant(entityType, entityId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("RiskScore", entityType + "/" + entityId));
+
+        RiskScoreResponse response = toResponse(decision);
+        latestDecisions.put(tenantId, entityType, entityId, response);
+        return response;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static Map<String, Double> withCachedFeatures(RiskScoreRequest request, Map<String, Double> cached) {
+        if (cached.isEmpty()) {
+            return request.features();
+        }
+        Map<String, Double> features = new HashMap<>(cached);
+        if (request.features() != null) {
+            features.putAll(request.features());
+        }
+        return features;
+    }
+
+    private List<ScoringContext> batchContexts(UUID tenantId, List<RiskScoreRequest> requests) {
+        Map<String, List<String>> idsByType = new HashMap<>();
+        for (RiskScoreRequest request : requests) {
+            idsByType.computeIfAbsent(request.entityType(), type -> new ArrayList<>()).add(request.entityId());
+        }
+        Map<String, Map<String, Map<String, Double>>> cachedByType = new HashMap<>();
+        idsByType.forEach((entityType, entityIds) ->
+                cachedByType.put(entityType, featureCache.getAll(tenantId, entityType, entityIds)));
+
+        List<ScoringContext> contexts = new ArrayList<>(requests.size());
+        for (RiskScoreRequest request : requests) {
+            Map<String, Double> cached = cachedByType.get(request.entityType())
+                    .getOrDefault(request.entityId(), Map.of());
+            contexts.add(new ScoringContext(tenantId, request, withCachedFeatures(request, cached)));
+        }
+        return contexts;
+    }
+
+    /**
+     * Persists and publishes a decision once the blended score is known.
+     */
+    private RiskScoreResponse decide(
+            UUID tenantId, RiskScoreRequest request, BlendedScore blended, Instant computedAt) {
+        double finalScore = blended.score();
         RiskDecision.RiskLevel riskLevel = determineRiskLevel(finalScore);
 
         // Generate reasons
-        List<RiskScoreResponse.ReasonCode> reasons = generateReasons(request, finalScore);
+        List<RiskScoreResponse.ReasonCode> reasons = generateReasons(blended, finalScore);
 
         // Determine policy actions
         List<RiskScoreResponse.PolicyAction> policyActions = determinePolicyActions(riskLevel);
 
         // Persist decision for audit
         RiskDecision decision = persistDecision(
-                tenantId, request, finalScore, riskLevel, reasons, policyActions, computedAt);
+                tenantId, request, finalScore, riskLevel, reasons, policyActions, blended.missing(), computedAt);
 
         // Publish event
         publishRiskScoredEvent(decision);
 
-        return new RiskScoreResponse(
-                finalScore,
-                riskLevel.name(),
-                reasons,
-                policyActions,
-                activeModelVersion,
-                computedAt,
-                decision.getId().toString());
+        // Answer with the stored, rounded score, as a later read of the decision would
+        return toResponse(decision, reasons, policyActions, blended.missing());
     }
 
     /**
-     * Retrieves a previously computed risk score.
+     * Persists and publishes the decisions of a batch once its scores are
+     * known.
      */
-    @Transactional(readOnly = true)
-    public RiskScoreResponse getRiskScore(String entityType, String entityId) {
-        UUID tenantId = TenantContext.requireTenantId();
+    private List<BatchRiskScoreResponse.BatchRiskScoreResult> decideAll(
+            UUID tenantId,
+            UUID traceId,
+            List<RiskScoreRequest> requests,
+            List<Optional<BlendedScore>> scores,
+            Instant computedAt) {
+        List<RiskDecision> decisions = new ArrayList<>(requests.size());
+        List<RiskScoreResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            RiskScoreRequest request = requests.get(i);
+            BlendedScore blended = scores.get(i).orElse(null);
+            if (blended == null) {
+                responses.add(null);
+                continue;
+            }
 
-        RiskDecision decision = decisionRepository
-                .findLatestByEntityAndTenant(entityType, entityId, tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("RiskScore", entityType + "/" + entityId));
+            double finalScore = blended.score();
+            RiskDecision.RiskLevel riskLevel = determineRiskLevel(finalScore);
+            List<RiskScoreResponse.ReasonCode> reasons = generateReasons(blended, finalScore);
+            List<RiskScoreResponse.PolicyAction> policyActions = determinePolicyActions(riskLevel);
 
-        return toResponse(decision);
+            RiskDecision decision = newDecision(
+                    tenantId, request, finalScore, riskLevel, reasons, policyActions, blended.missing(), computedAt);
+            decision.setId(UUID.randomUUID());
+            decisions.add(decision);
+            responses.add(toResponse(decision, reasons, policyActions, blended.missing()));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            batchWriter.insertAll(decisions);
+            for (int i = 0; i < requests.size(); i++) {
+                if (responses.get(i) != null) {
+                    RiskScoreRequest request = requests.get(i);
+                    latestDecisions.putAfterCommit(tenantId, request.entityType(), request.entityId(), responses.get(i));
+                }
+            }
+        });
+
+        publishRiskScoredEvents(decisions);
+
+        List<BatchRiskScoreResponse.BatchRiskScoreResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            RiskScoreRequest request = requests.get(i);
+            results.add(new BatchRiskScoreResponse.BatchRiskScoreResult(
+                    request.entityType(),
+                    request.entityId(),
+                    responses.get(i),
+                    responses.get(i) != null ? null : new ProblemDetail(
+                            URI.create(ProblemDetail.PROBLEM_TYPE_BASE + "scoring-unavailable"),
+                            "Scoring Unavailable",
+                            503,
+                            "No risk scorer could score the entity",
+                            null,
+                            traceId.toString())));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        blockingScheduler.dispose();
+    }
+
+    /**
+     * Fallback of the non-blocking path when the circuit breaker is open.
+     */
+    @SuppressWarnings("unused")
+    private Mono<RiskScoreResponse> scoreRiskFallback(RiskScoreRequest request, Long deadlineMs, Throwable t) {
+        return Mono.fromCallable(() -> computeRiskScoreFallback(request, t));
     }
 
     /**
@@ -119,29 +386,8 @@ public class RiskScoringService {
                 List.of(new RiskScoreResponse.PolicyAction("MANUAL_REVIEW", 1)),
                 "fallback",
                 Instant.now(),
-                "fallback-" + UUID.randomUUID());
-    }
-
-    private double computeFinalScore(RiskScoreRequest request, Double mlScore) {
-        // Rule-based baseline score
-        double ruleScore = 0.3;
-
-        // Adjust based on amount if present
-        if (request.context() != null && request.context().amount() != null) {
-            double amount = request.context().amount();
-            if (amount > 50000) {
-                ruleScore += 0.2;
-            } else if (amount > 10000) {
-                ruleScore += 0.1;
-            }
-        }
-
-        // Blend with ML score if available
-        if (mlScore != null) {
-            return 0.4 * ruleScore + 0.6 * mlScore;
-        }
-
-        return Math.min(1.0, ruleScore);
+                "fallback-" + UUID.randomUUID(),
+                List.of());
     }
 
     private RiskDecision.RiskLevel determineRiskLevel(double score) {
@@ -154,15 +400,8 @@ public class RiskScoringService {
         return RiskDecision.RiskLevel.LOW;
     }
 
-    private List<RiskScoreResponse.ReasonCode> generateReasons(RiskScoreRequest request, double score) {
-        List<RiskScoreResponse.ReasonCode> reasons = new ArrayList<>();
-
-        if (request.context() != null && request.context().amount() != null) {
-            if (request.context().amount() > 50000) {
-                reasons.add(new RiskScoreResponse.ReasonCode(
-                        "UNUSUAL_AMOUNT", 0.2, "Transaction amount significantly differs from historical pattern"));
-            }
-        }
+    private List<RiskScoreResponse.ReasonCode> generateReasons(BlendedScore blended, double score) {
+        List<RiskScoreResponse.ReasonCode> reasons = new ArrayList<>(blended.reasons());
 
         if (score > 0.6) {
             reasons.add(new RiskScoreResponse.ReasonCode(
@@ -199,23 +438,44 @@ public class RiskScoringService {
             RiskDecision.RiskLevel riskLevel,
             List<RiskScoreResponse.ReasonCode> reasons,
             List<RiskScoreResponse.PolicyAction> policyActions,
+            List<String> missingComponents,
+            Instant computedAt) {
+
+        RiskDecision saved = decisionRepository.save(newDecision(
+                tenantId, request, score, riskLevel, reasons, policyActions, missingComponents, computedAt));
+
+        // Write through, as getRiskScore would read the decision back
+        latestDecisions.putAfterCommit(tenantId, request.entityType(), request.entityId(),
+                toResponse(saved, reasons, policyActions, missingComponents));
+        return saved;
+    }
+
+    private RiskDecision newDecision(
+            UUID tenantId,
+            RiskScoreRequest request,
+            double score,
+            RiskDecision.RiskLevel riskLevel,
+            List<RiskScoreResponse.ReasonCode> reasons,
+            List<RiskScoreResponse.PolicyAction> policyActions,
+            List<String> missingComponents,
             Instant computedAt) {
 
         try {
-            RiskDecision decision = RiskDecision.builder()
+            return RiskDecision.builder()
                     .tenantId(tenantId)
                     .entityType(request.entityType())
                     .entityId(request.entityId())
-                    .score(BigDecimal.valueOf(score))
+                    .score(BigDecimal.valueOf(score).setScale(4, RoundingMode.HALF_UP))
                     .riskLevel(riskLevel)
                     .modelVersion(activeModelVersion)
                     .reasons(objectMapper.writeValueAsString(reasons))
                     .policyActions(objectMapper.writeValueAsString(policyActions))
                     .context(request.context() != null ? objectMapper.writeValueAsString(request.context()) : null)
+                    .decisionMetadata(missingComponents.isEmpty()
+                            ? null
+                            : objectMapper.writeValueAsString(Map.of(MISSING_COMPONENTS, missingComponents)))
                     .computedAt(computedAt)
                     .build();
-
-            return decisionRepository.save(decision);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize decision data", e);
         }
@@ -230,6 +490,45 @@ public class RiskScoringService {
                 decision);
     }
 
+    /**
+     * Publishes the events of a batch and waits until all are acknowledged.
+     * Decisions are already committed, so a failed send is logged, not raised.
+     */
+    private void publishRiskScoredEvents(List<RiskDecision> decisions) {
+        CompletableFuture<?>[] sent = decisions.stream()
+                .map(decision -> eventPublisher.publish(
+                        Topics.RISK_SCORED,
+                        "risk.scored",
+                        "1.0.0",
+                        decision.getEntityId(),
+                        decision))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sent).get(batchPublishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Failed to publish risk scored events of a batch of {}", decisions.size(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted publishing risk scored events of a batch of {}", decisions.size());
+        }
+    }
+
+    private RiskScoreResponse toResponse(
+            RiskDecision decision,
+            List<RiskScoreResponse.ReasonCode> reasons,
+            List<RiskScoreResponse.PolicyAction> policyActions,
+            List<String> missingComponents) {
+        return new RiskScoreResponse(
+                decision.getScore().doubleValue(),
+                decision.getRiskLevel().name(),
+                List.copyOf(reasons),
+                List.copyOf(policyActions),
+                decision.getModelVersion(),
+                decision.getComputedAt(),
+                decision.getId().toString(),
+                List.copyOf(missingComponents));
+    }
+
     private RiskScoreResponse toResponse(RiskDecision decision) {
         try {
             List<RiskScoreResponse.ReasonCode> reasons = objectMapper.readValue(
@@ -242,6 +541,13 @@ public class RiskScoringService {
                     objectMapper.getTypeFactory().constructCollectionType(List.class,
                             RiskScoreResponse.PolicyAction.class));
 
+            List<String> missingComponents = new ArrayList<>();
+            if (decision.getDecisionMetadata() != null) {
+                objectMapper.readTree(decision.getDecisionMetadata())
+                        .path(MISSING_COMPONENTS)
+                        .forEach(component -> missingComponents.add(component.asText()));
+            }
+
             return new RiskScoreResponse(
                     decision.getScore().doubleValue(),
                     decision.getRiskLevel().name(),
@@ -249,7 +555,8 @@ public class RiskScoringService {
                     policyActions,
                     decision.getModelVersion(),
                     decision.getComputedAt(),
-                    decision.getId().toString());
+                    decision.getId().toString(),
+                    missingComponents);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize decision data", e);
         }
@@ -0,0 +1,164 @@
+package dev.hafnium.risk.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
+
+/**
+ * Runs the client against a stub of the batch prediction endpoint, which
+ * answers each request with its {@code score} feature.
+ */
+class AiInferenceClientTest {
+
+    private static final String BATCH_PATH = "/predict/batch";
+    private static final long LINGER_MICROS = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /** Request count of each batch call received. */
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    /** Delays of the next batch calls, in arrival order; later calls answer at once. */
+    private final Queue<Duration> delays = new ConcurrentLinkedQueue<>();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private AiInferenceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(BATCH_PATH, this::predictBatch);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void demultiplexesCoalescedRequests() {
+        client = client(1_000, false);
+
+        Tuple3<Double, Double, Double> scores = Mono.zip(
+                client.score("customer", "c-1", Map.of("score", 0.1)),
+                client.score("customer", "c-2", Map.of("score", 0.2)),
+                client.score("customer", "c-3", Map.of("score", 0.3)))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(batches).containsExactly(3);
+        assertThat(List.of(scores.getT1(), scores.getT2(), scores.getT3())).containsExactly(0.1, 0.2, 0.3);
+    }
+
+    @Test
+    void failsBatchThatOutlivesTimeout() {
+        client = client(200, false);
+        delays.add(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.score("customer", "c-1", Map.of("score", 0.5)).block(Duration.ofSeconds(5)))
+                .hasRootCauseInstanceOf(TimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void hedgedRequestWinsOverSlowPrimary() {
+        client = client(1_000, true);
+        // Hedging starts once the p95 of recent batches is known
+        for (int i = 0; i < 32; i++) {
+            client.score("customer", "warmup-" + i, Map.of("score", 0.0)).block(Duration.ofSeconds(5));
+        }
+        batches.clear();
+        delays.add(Duration.ofSeconds(2));
+
+        long start = System.nanoTime();
+        Double score = client.score("customer", "c-1", Map.of("score", 0.7)).block(Duration.ofSeconds(5));
+
+        assertThat(score).isEqualTo(0.7);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(batches).containsExactly(1, 1);
+        assertThat(meterRegistry.counter("hafnium.risk.inference.hedged").count()).isEqualTo(1.0);
+    }
+
+    private AiInferenceClient client(int timeoutMs, boolean hedgeEnabled) {
+        return new AiInferenceClient(
+                "http://localhost:" + server.getAddress().getPort(),
+                timeoutMs,
+                true,
+                BATCH_PATH,
+                64,
+                LINGER_MICROS,
+                1_000,
+                hedgeEnabled,
+                10,
+                10_000,
+                meterRegistry,
+                CircuitBreakerRegistry.ofDefaults());
+    }
+
+    private void predictBatch(HttpExchange exchange) throws IOException {
+        JsonNode requests;
+        try (InputStream in = exchange.getRequestBody()) {
+            requests = objectMapper.readTree(in).path("requests");
+        }
+        batches.add(requests.size());
+
+        Duration delay = delays.poll();
+        if (delay != null) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return;
+            }
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode predictions = response.putArray("predictions");
+        for (JsonNode request : requests) {
+            predictions.addObject()
+                    .put("risk_score", request.path("features").path("score").asDouble())
+                    .put("model_id", "stub");
+        }
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -1,58 +1,113 @@
 package dev.hafnium.stream;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Kafka Streams topology for alert enrichment.
+ *
+ * <p>
+ * Records are bound to {@link EventEnvelope} by {@link EventSerde}; enrichment
+ * fields are added to the envelope in place. Alerts that fail to decode or
+ * enrich are routed to the dead letter topic by {@link DeadLetters} with their
+ * original bytes.
  */
 public class AlertEnrichmentTopology {
 
     private static final Logger log = LoggerFactory.getLogger(AlertEnrichmentTopology.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     private static final String INPUT_TOPIC = "hf.alert.raised.v1";
     private static final String OUTPUT_TOPIC = "hf.alert.enriched.v1";
 
+    static final String TOPOLOGY = "alert-enrichment";
+
+    private static final Deserializer<EventEnvelope<AlertPayload>> DECODER = EventSerde.ALERT_EVENT.deserializer();
+
     public static void build(StreamsBuilder builder) {
-        KStream<String, String> alerts = builder.stream(INPUT_TOPIC);
+        KStream<String, byte[]> alerts =
+                builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()));
 
-        alerts
-                .mapValues(AlertEnrichmentTopology::enrichAlert)
-                .filter((key, value) -> value != null)
+        DeadLetters.route(alerts.processValues(EnrichmentProcessor::new), TOPOLOGY, "enrich")
                 .peek((key, value) -> log.debug("Enriched alert: key={}", key))
-                .to(OUTPUT_TOPIC);
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), EventSerde.ALERT_EVENT));
     }
 
-    private static String enrichAlert(String value) {
-        try {
-            JsonNode alert = objectMapper.readTree(value);
-            ObjectNode enriched = (ObjectNode) alert.deepCopy();
+    /** Decodes and enriches alerts, dead-lettering those that fail. */
+    private static final class EnrichmentProcessor
+            implements FixedKeyProcessor<String, byte[], ProcessingOutcome<EventEnvelope<AlertPayload>>> {
 
-            // Add enrichment metadata
-            enriched.put("enriched_at", System.currentTimeMillis());
-            enriched.put("enrichment_version", "1.0.0");
+        private FixedKeyProcessorContext<String, ProcessingOutcome<EventEnvelope<AlertPayload>>> context;
+        private TopologyMetrics metrics;
+        private Timer latency;
 
-            // Add priority based on severity
-            String severity = alert.path("severity").asText("LOW");
-            enriched.put("priority", severityToPriority(severity));
+        @Override
+        public void init(FixedKeyProcessorContext<String, ProcessingOutcome<EventEnvelope<AlertPayload>>> context) {
+            this.context = context;
+            this.metrics = new TopologyMetrics(context.metrics(), TOPOLOGY);
+            this.latency = metrics.stageLatency("enrich");
+        }
 
-            // Add SLA deadline
-            long slaDays = getSlaForSeverity(severity);
-            enriched.put("sla_deadline_ms", System.currentTimeMillis() + slaDays * 86400000L);
+        @Override
+        public void process(FixedKeyRecord<String, byte[]> record) {
+            long start = System.nanoTime();
+            try {
+                enrich(record);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
 
-            return objectMapper.writeValueAsString(enriched);
-        } catch (Exception e) {
-            log.error("Failed to enrich alert", e);
-            return null;
+        private void enrich(FixedKeyRecord<String, byte[]> record) {
+            metrics.recordInput();
+            EventEnvelope<AlertPayload> alert;
+            try {
+                if (record.value() == null) {
+                    throw new SerializationException("Alert record has no value");
+                }
+                alert = enrichAlert(DECODER.deserialize(INPUT_TOPIC, record.value()));
+            } catch (RuntimeException e) {
+                metrics.recordDeadLetter();
+                EventEnvelope<DeadLetter> deadLetter = DeadLetters.deadLetter(INPUT_TOPIC, record.key(),
+                        record.value(), record.headers(), context.recordMetadata(), TOPOLOGY, "enrich", e);
+                context.forward(record
+                        .withValue(ProcessingOutcome.<EventEnvelope<AlertPayload>>failure(deadLetter))
+                        .withHeaders(DeadLetters.headers(deadLetter)));
+                return;
+            }
+            context.forward(record.withValue(ProcessingOutcome.success(alert)));
         }
     }
 
+    private static EventEnvelope<AlertPayload> enrichAlert(EventEnvelope<AlertPayload> alert) {
+        // Add enrichment metadata
+        alert.put("enriched_at", System.currentTimeMillis());
+        alert.put("enrichment_version", "1.0.0");
+
+        // Add priority based on severity
+        String severity = alert.getPayload() != null && alert.getPayload().getSeverity() != null
+                ? alert.getPayload().getSeverity()
+                : "LOW";
+        alert.put("priority", severityToPriority(severity));
+
+        // Add SLA deadline
+        long slaDays = getSlaForSeverity(severity);
+        alert.put("sla_deadline_ms", System.currentTimeMillis() + slaDays * 86400000L);
+
+        return alert;
+    }
+
     private static int severityToPriority(String severity) {
         return switch (severity.toUpperCase()) {
             case "CRITICAL" -> 1;
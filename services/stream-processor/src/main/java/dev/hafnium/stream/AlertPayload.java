@@ -0,0 +1,56 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payload of an alert event.
+ *
+ * <p>
+ * Only the fields used for enrichment are bound; all others are passed
+ * through unchanged.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlertPayload {
+
+    @JsonProperty("severity")
+    private String severity;
+
+    private final Map<String, Object> otherFields = new LinkedHashMap<>();
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getOtherFields() {
+        return otherFields;
+    }
+
+    @JsonAnySetter
+    public void setOtherField(String name, Object value) {
+        otherFields.put(name, value);
+    }
+
+    /**
+     * Sets a decoded field by its wire name.
+     *
+     * @param name  The field name
+     * @param value The decoded value
+     */
+    void setField(String name, Object value) {
+        if ("severity".equals(name)) {
+            severity = (String) value;
+        } else {
+            setOtherField(name, value);
+        }
+    }
+}
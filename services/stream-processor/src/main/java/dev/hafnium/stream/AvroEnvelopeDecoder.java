@@ -0,0 +1,264 @@
+package dev.hafnium.stream;
+
+import dev.hafnium.common.avro.LocalSchemaRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Decodes Avro event envelopes in the schema registry wire format.
+ *
+ * <p>
+ * Values are resolved from the writer's schema, named by the id after the
+ * magic byte, to the latest schema of the topic's value subject, so producers
+ * may run ahead of or behind the processor by compatible schema versions.
+ * Fields are bound straight onto the event classes with the values their JSON
+ * encoding would produce: timestamps as ISO-8601 strings, decimals as
+ * {@link BigDecimal} and nested records as maps. Absent optional fields are
+ * left unset.
+ */
+final class AvroEnvelopeDecoder {
+
+    static final byte MAGIC_BYTE = 0x0;
+
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+    private static final String PAYLOAD_FIELD = "payload";
+
+    private final LocalSchemaRegistry registry;
+
+    /** Resolving decoders are costly to build, so each thread keeps one per writer and reader schema. */
+    private final ThreadLocal<Map<Long, ResolvingDecoder>> resolvers = ThreadLocal.withInitial(HashMap::new);
+    private final ThreadLocal<BinaryDecoder> binaryDecoder = new ThreadLocal<>();
+
+    AvroEnvelopeDecoder(LocalSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Checks whether a value is Avro encoded.
+     *
+     * @param data The record value
+     * @return true if the value starts with the Avro magic byte
+     */
+    static boolean isAvro(byte[] data) {
+        return data.length >= HEADER_LENGTH && data[0] == MAGIC_BYTE;
+    }
+
+    /**
+     * Decodes a record value into an envelope.
+     *
+     * @param topic         The topic the value was read from
+     * @param data          The record value
+     * @param payloadType   Creates the payload to bind
+     * @param payloadFields Binds a payload field
+     * @param <P>           The payload type
+     * @return The envelope
+     * @throws SerializationException if the schema is unknown or the value is
+     *                                malformed
+     */
+    <P> EventEnvelope<P> decode(String topic, byte[] data, Supplier<P> payloadType, FieldBinder<P> payloadFields) {
+        int writerId = ByteBuffer.wrap(data, 1, Integer.BYTES).getInt();
+        LocalSchemaRegistry.RegisteredSchema writer = registry.byId(writerId);
+        if (writer == null) {
+            throw new SerializationException("Unknown Avro schema id " + writerId + " on topic " + topic);
+        }
+        LocalSchemaRegistry.RegisteredSchema reader = registry.latest(LocalSchemaRegistry.valueSubject(topic));
+        if (reader == null) {
+            reader = writer;
+        }
+
+        try {
+            BinaryDecoder in = DecoderFactory.get()
+                    .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, binaryDecoder.get());
+            binaryDecoder.set(in);
+            if (writer.id() == reader.id()) {
+                return readEnvelope(reader.schema(), in, payloadType, payloadFields);
+            }
+            ResolvingDecoder resolver = resolver(writer, reader);
+            resolver.configure(in);
+            EventEnvelope<P> envelope = readEnvelope(reader.schema(), resolver, payloadType, payloadFields);
+            resolver.drain();
+            return envelope;
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to decode Avro value with schema id " + writerId
+                    + " from topic " + topic, e);
+        }
+    }
+
+    private ResolvingDecoder resolver(LocalSchemaRegistry.RegisteredSchema writer,
+            LocalSchemaRegistry.RegisteredSchema reader) throws IOException {
+        long key = ((long) writer.id() << 32) | (reader.id() & 0xFFFFFFFFL);
+        Map<Long, ResolvingDecoder> cache = resolvers.get();
+        ResolvingDecoder resolver = cache.get(key);
+        if (resolver == null) {
+            resolver = DecoderFactory.get().resolvingDecoder(writer.schema(), reader.schema(), null);
+            cache.put(key, resolver);
+        }
+        return resolver;
+    }
+
+    private static <P> EventEnvelope<P> readEnvelope(Schema schema, Decoder in, Supplier<P> payloadType,
+            FieldBinder<P> payloadFields) throws IOException {
+        EventEnvelope<P> envelope = new EventEnvelope<>();
+        for (Schema.Field field : fields(schema, in)) {
+            Schema fieldSchema = presentBranch(field.schema(), in);
+            if (fieldSchema == null) {
+                continue;
+            }
+            if (PAYLOAD_FIELD.equals(field.name()) && fieldSchema.getType() == Schema.Type.RECORD) {
+                P payload = payloadType.get();
+                for (Schema.Field payloadField : fields(fieldSchema, in)) {
+                    Schema payloadFieldSchema = presentBranch(payloadField.schema(), in);
+                    if (payloadFieldSchema != null) {
+                        payloadFields.bind(payload, payloadField.name(), read(payloadFieldSchema, in));
+                    }
+                }
+                envelope.setPayload(payload);
+            } else {
+                envelope.setField(field.name(), read(fieldSchema, in));
+            }
+        }
+        return envelope;
+    }
+
+    private static List<Schema.Field> fields(Schema record, Decoder in) throws IOException {
+        // Only a resolving decoder may reorder fields
+        return in instanceof ResolvingDecoder resolver
+                ? Arrays.asList(resolver.readFieldOrder())
+                : record.getFields();
+    }
+
+    /**
+     * Reads the branch of an optional value.
+     *
+     * @return The schema of the value, or null if it is absent
+     */
+    private static Schema presentBranch(Schema schema, Decoder in) throws IOException {
+        if (schema.getType() != Schema.Type.UNION) {
+            return schema;
+        }
+        Schema branch = schema.getTypes().get(in.readIndex());
+        if (branch.getType() == Schema.Type.NULL) {
+            in.readNull();
+            return null;
+        }
+        return branch;
+    }
+
+    private static Object read(Schema schema, Decoder in) throws IOException {
+        LogicalType logicalType = schema.getLogicalType();
+        switch (schema.getType()) {
+            case RECORD: {
+                Map<String, Object> record = new LinkedHashMap<>();
+                for (Schema.Field field : fields(schema, in)) {
+                    Schema fieldSchema = presentBranch(field.schema(), in);
+                    if (fieldSchema != null) {
+                        record.put(field.name(), read(fieldSchema, in));
+                    }
+                }
+                return record;
+            }
+            case UNION: {
+                Schema branch = presentBranch(schema, in);
+                return branch != null ? read(branch, in) : null;
+            }
+            case NULL:
+                in.readNull();
+                return null;
+            case STRING:
+                return in.readString();
+            case ENUM:
+                return schema.getEnumSymbols().get(in.readEnum());
+            case BOOLEAN:
+                return in.readBoolean();
+            case INT:
+                return in.readInt();
+            case LONG: {
+                long value = in.readLong();
+                if (logicalType instanceof LogicalTypes.TimestampMicros) {
+                    return Instant.ofEpochSecond(Math.floorDiv(value, 1_000_000L),
+                            Math.floorMod(value, 1_000_000L) * 1_000L).toString();
+                }
+                if (logicalType instanceof LogicalTypes.TimestampMillis) {
+                    return Instant.ofEpochMilli(value).toString();
+                }
+                return value;
+            }
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case BYTES: {
+                ByteBuffer bytes = in.readBytes(null);
+                byte[] array = new byte[bytes.remaining()];
+                bytes.get(array);
+                if (logicalType instanceof LogicalTypes.Decimal decimal) {
+                    return new BigDecimal(new BigInteger(array), decimal.getScale());
+                }
+                return array;
+            }
+            case FIXED: {
+                byte[] array = new byte[schema.getFixedSize()];
+                in.readFixed(array);
+                return array;
+            }
+            case MAP: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (long count = in.readMapStart(); count != 0; count = in.mapNext()) {
+                    for (long i = 0; i < count; i++) {
+                        String key = in.readString();
+                        map.put(key, read(schema.getValueType(), in));
+                    }
+                }
+                return map;
+            }
+            case ARRAY: {
+                List<Object> list = new ArrayList<>();
+                for (long count = in.readArrayStart(); count != 0; count = in.arrayNext()) {
+                    for (long i = 0; i < count; i++) {
+                        list.add(read(schema.getElementType(), in));
+                    }
+                }
+                return list;
+            }
+            default:
+                throw new SerializationException("Unsupported Avro type " + schema.getType());
+        }
+    }
+
+    /**
+     * Sets a decoded field on an event object.
+     *
+     * @param <T> The object type
+     */
+    @FunctionalInterface
+    interface FieldBinder<T> {
+
+        /**
+         * Sets a field.
+         *
+         * @param target The object
+         * @param name   The field name in the schema
+         * @param value  The decoded value
+         */
+        void bind(T target, String name, Object value);
+    }
+}
@@ -0,0 +1,87 @@
+package dev.hafnium.stream;
+
+import java.util.Map;
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * Bounds the off-heap memory of all RocksDB state stores in the process.
+ *
+ * <p>
+ * By default every RocksDB instance, and every segment of a window store is
+ * one, gets its own block cache and memtables, so memory grows with the
+ * number of tasks and segments and a rebalance can push the container over
+ * its limit. Here all stores share one LRU block cache of
+ * {@link #TOTAL_MEMORY_CONFIG} bytes, and memtables are charged against the
+ * same cache by a shared write buffer manager up to
+ * {@link #WRITE_BUFFER_MEMORY_CONFIG}. Index and filter blocks are cached too,
+ * at high priority, so they are evicted last.
+ *
+ * <p>
+ * The sizes are read from the Streams configuration the first time a store
+ * opens and apply to the whole process.
+ */
+public class BoundedRocksDBConfig implements RocksDBConfigSetter {
+
+    /** Bytes shared by block cache, index and filter blocks, and memtables. */
+    public static final String TOTAL_MEMORY_CONFIG = "hafnium.rocksdb.total.memory.bytes";
+
+    /** Part of the total memory that memtables may use. */
+    public static final String WRITE_BUFFER_MEMORY_CONFIG = "hafnium.rocksdb.write.buffer.memory.bytes";
+
+    static final long DEFAULT_TOTAL_MEMORY = 256L * 1024 * 1024;
+    static final long DEFAULT_WRITE_BUFFER_MEMORY = 64L * 1024 * 1024;
+
+    private static final double INDEX_FILTER_RATIO = 0.1;
+    private static final long BLOCK_SIZE = 16L * 1024;
+    private static final long MEMTABLE_SIZE = 16L * 1024 * 1024;
+    private static final int MEMTABLES = 3;
+
+    // Shared by every store; never closed, as they live as long as the process
+    private static Cache cache;
+    private static WriteBufferManager writeBufferManager;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(sharedCache(configs));
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        // Larger blocks than the 4 KB default keep the cached indexes of large stores small
+        tableConfig.setBlockSize(BLOCK_SIZE);
+        options.setTableFormatConfig(tableConfig);
+
+        options.setWriteBufferManager(writeBufferManager);
+        options.setWriteBufferSize(MEMTABLE_SIZE);
+        options.setMaxWriteBufferNumber(MEMTABLES);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // The cache and write buffer manager are shared with the other stores
+    }
+
+    private static synchronized Cache sharedCache(Map<String, Object> configs) {
+        if (cache == null) {
+            long totalMemory = bytes(configs, TOTAL_MEMORY_CONFIG, DEFAULT_TOTAL_MEMORY);
+            long writeBufferMemory = bytes(configs, WRITE_BUFFER_MEMORY_CONFIG, DEFAULT_WRITE_BUFFER_MEMORY);
+            if (writeBufferMemory >= totalMemory) {
+                throw new IllegalArgumentException(WRITE_BUFFER_MEMORY_CONFIG + " must be less than "
+                        + TOTAL_MEMORY_CONFIG);
+            }
+            cache = new LRUCache(totalMemory, -1, false, INDEX_FILTER_RATIO);
+            writeBufferManager = new WriteBufferManager(writeBufferMemory, cache);
+        }
+        return cache;
+    }
+
+    private static long bytes(Map<String, Object> configs, String name, long defaultValue) {
+        Object value = configs.get(name);
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+}
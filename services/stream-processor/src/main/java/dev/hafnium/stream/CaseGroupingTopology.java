@@ -0,0 +1,583 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Branched;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.JoinWindows;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.kstream.StreamJoined;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Kafka Streams topology grouping related alerts into case proposals.
+ *
+ * <p>
+ * Enriched alerts are joined to the scored transaction they were raised on,
+ * within {@link #JOIN_BEFORE} before and {@link #JOIN_AFTER} after the alert,
+ * to pick up the transaction's counterparty. Alerts without a transaction
+ * pass through unjoined; an alert whose transaction is not found is emitted
+ * without a counterparty once the join window closes.
+ *
+ * <p>
+ * Alerts are then re-keyed by tenant and customer, and each customer's open
+ * group is kept in a local store. An alert joins the open group if its record
+ * time is within the linger time of the group's latest alert and within
+ * {@link #MAX_GROUP_AGE} of its first; otherwise the group is proposed and the
+ * alert opens a new one. A group is also closed and proposed as a case on
+ * {@code hf.case.created.v1} when no alert arrived for the linger time of wall
+ * clock, when it is {@link #MAX_GROUP_AGE} old, or at once when it holds
+ * {@link #MAX_ALERTS} alerts. Idle groups are emitted together by a
+ * wall-clock punctuator, so cases arrive in batches rather than per alert.
+ * The proposal lists the counterparties of the group and is typed as a
+ * sanctions hit when any of them is in a high-risk country.
+ *
+ * <p>
+ * Groups are changelogged and alerts are deduplicated by identifier, within
+ * the open group and against the alerts proposed in the last
+ * {@link #PROPOSED_RETENTION} of stream time, so a replayed alert does not
+ * reopen or grow a case.
+ */
+public class CaseGroupingTopology {
+
+    private static final Logger log = LoggerFactory.getLogger(CaseGroupingTopology.class);
+
+    private static final String ALERT_TOPIC = "hf.alert.enriched.v1";
+    private static final String TRANSACTION_TOPIC = "hf.txn.scored.v1";
+    private static final String OUTPUT_TOPIC = "hf.case.created.v1";
+
+    static final String TOPOLOGY = "case-grouping";
+    static final String GROUP_STORE = "case-grouping-store";
+    static final String PROPOSED_STORE = "case-grouping-proposed-store";
+
+    /** How long proposed alerts are remembered, so their replays are dropped. */
+    static final Duration PROPOSED_RETENTION = Duration.ofDays(7);
+
+    /** Longest an alert may follow its transaction and still be joined to it. */
+    static final Duration JOIN_BEFORE = Duration.ofMinutes(15);
+    /** Longest an alert may precede its transaction, allowing for clock skew between producers. */
+    static final Duration JOIN_AFTER = Duration.ofMinutes(5);
+    private static final Duration JOIN_GRACE = Duration.ofMinutes(5);
+
+    static final int MAX_ALERTS = 50;
+    static final Duration MAX_GROUP_AGE = Duration.ofHours(24);
+    private static final Duration PUNCTUATE_INTERVAL = Duration.ofMinutes(1);
+
+    private static final String EVENT_TYPE = "CASE_CREATED";
+    private static final String SCHEMA_VERSION = "1.0.0";
+    private static final String ACTOR_ID = "system";
+
+    private static final Deserializer<EventEnvelope<AlertPayload>> ALERT_DECODER =
+            EventSerde.ALERT_EVENT.deserializer();
+    private static final Deserializer<EventEnvelope<TransactionPayload>> TRANSACTION_DECODER =
+            EventSerde.TRANSACTION_EVENT.deserializer();
+
+    /**
+     * Adds the topology to a builder.
+     *
+     * @param builder The builder
+     * @param linger  Time without a new alert after which a customer's group
+     *                is proposed as a case
+     */
+    public static void build(StreamsBuilder builder, Duration linger) {
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(GROUP_STORE),
+                Serdes.String(),
+                CaseGroup.SERDE));
+        builder.addStateStore(Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(PROPOSED_STORE, PROPOSED_RETENTION, Duration.ofMillis(1), false),
+                Serdes.String(),
+                Serdes.String()));
+
+        KStream<String, CaseAlert> alerts = DeadLetters.route(
+                builder.stream(ALERT_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                        .processValues(AlertDecodingProcessor::new),
+                TOPOLOGY, "decode");
+
+        // Scored transactions are written by this processor, so only their counterparty is carried to the join
+        KStream<String, Counterparty> counterparties = builder
+                .stream(TRANSACTION_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                .process(CounterpartyProcessor::new);
+
+        Map<String, KStream<String, CaseAlert>> byTransaction = alerts
+                .filter((key, alert) -> alert.customerId() != null)
+                .split(Named.as("case-alerts-"))
+                .branch((key, alert) -> alert.txnId() != null, Branched.as("with-txn"))
+                .defaultBranch(Branched.as("without-txn"));
+
+        KStream<String, CaseAlert> joined = byTransaction.get("case-alerts-with-txn")
+                .selectKey((key, alert) -> alert.txnId(), Named.as("case-alerts-by-txn"))
+                .leftJoin(counterparties,
+                        (alert, counterparty) -> counterparty != null ? alert.withCounterparty(counterparty) : alert,
+                        JoinWindows.ofTimeDifferenceAndGrace(JOIN_AFTER, JOIN_GRACE).before(JOIN_BEFORE),
+                        StreamJoined.with(Serdes.String(), CaseAlert.SERDE, Counterparty.SERDE)
+                                .withName("case-alert-txn")
+                                .withStoreName("case-alert-txn-join"));
+
+        joined.merge(byTransaction.get("case-alerts-without-txn"))
+                .selectKey((key, alert) -> TransactionScoringTopology.customerKey(alert.tenantId(), alert.customerId()))
+                .repartition(Repartitioned.<String, CaseAlert>as("alerts-by-customer")
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(CaseAlert.SERDE))
+                .process(() -> new CaseGroupingProcessor(linger), GROUP_STORE, PROPOSED_STORE)
+                .peek((key, value) -> log.debug("Proposed case: key={}, alerts={}",
+                        key, value.getPayload().alertIds().size()))
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), EventSerde.CASE_EVENT));
+    }
+
+    /** Decodes alerts, dead-lettering those that fail. */
+    private static final class AlertDecodingProcessor
+            implements FixedKeyProcessor<String, byte[], ProcessingOutcome<CaseAlert>> {
+
+        private FixedKeyProcessorContext<String, ProcessingOutcome<CaseAlert>> context;
+        private TopologyMetrics metrics;
+        private Timer latency;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, ProcessingOutcome<CaseAlert>> context) {
+            this.context = context;
+            this.metrics = new TopologyMetrics(context.metrics(), TOPOLOGY);
+            this.latency = metrics.stageLatency("decode");
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, byte[]> record) {
+            long start = System.nanoTime();
+            try {
+                decode(record);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void decode(FixedKeyRecord<String, byte[]> record) {
+            metrics.recordInput();
+            CaseAlert alert;
+            try {
+                if (record.value() == null) {
+                    throw new SerializationException("Alert record has no value");
+                }
+                alert = CaseAlert.of(ALERT_DECODER.deserialize(ALERT_TOPIC, record.value()), record.timestamp());
+            } catch (RuntimeException e) {
+                metrics.recordDeadLetter();
+                EventEnvelope<DeadLetter> deadLetter = DeadLetters.deadLetter(ALERT_TOPIC, record.key(),
+                        record.value(), record.headers(), context.recordMetadata(), TOPOLOGY, "decode", e);
+                context.forward(record
+                        .withValue(ProcessingOutcome.<CaseAlert>failure(deadLetter))
+                        .withHeaders(DeadLetters.headers(deadLetter)));
+                return;
+            }
+            context.forward(record.withValue(ProcessingOutcome.success(alert)));
+        }
+    }
+
+    /** Keys scored transactions that have a counterparty by transaction identifier. */
+    private static final class CounterpartyProcessor implements Processor<String, byte[], String, Counterparty> {
+
+        private ProcessorContext<String, Counterparty> context;
+
+        @Override
+        public void init(ProcessorContext<String, Counterparty> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(Record<String, byte[]> record) {
+            if (record.value() == null) {
+                return;
+            }
+            EventEnvelope<TransactionPayload> event;
+            try {
+                event = TRANSACTION_DECODER.deserialize(TRANSACTION_TOPIC, record.value());
+            } catch (RuntimeException e) {
+                // Already scored, and dead-lettered there if it failed; a case only misses its counterparty
+                log.debug("Skipping undecodable scored transaction: key={}", record.key(), e);
+                return;
+            }
+            TransactionPayload transaction = event.getPayload();
+            if (transaction == null || transaction.getCounterpartyId() == null) {
+                return;
+            }
+            Object txnId = transaction.getOtherFields().get("txn_id");
+            if (txnId == null) {
+                return;
+            }
+            context.forward(record.withKey(txnId.toString()).withValue(new Counterparty(
+                    transaction.getCounterpartyId(), transaction.getCounterpartyCountry())));
+        }
+    }
+
+    /**
+     * Groups each customer's alerts and proposes a case for each closed group.
+     */
+    private static final class CaseGroupingProcessor
+            implements Processor<String, CaseAlert, String, EventEnvelope<CaseProposal>> {
+
+        private final long lingerMs;
+
+        private ProcessorContext<String, EventEnvelope<CaseProposal>> context;
+        private KeyValueStore<String, CaseGroup> groups;
+        private WindowStore<String, String> proposed;
+        private Cancellable punctuator;
+        private Timer latency;
+
+        CaseGroupingProcessor(Duration linger) {
+            this.lingerMs = linger.toMillis();
+        }
+
+        @Override
+        public void init(ProcessorContext<String, EventEnvelope<CaseProposal>> context) {
+            this.context = context;
+            this.groups = context.getStateStore(GROUP_STORE);
+            this.proposed = context.getStateStore(PROPOSED_STORE);
+            this.latency = new TopologyMetrics(context.metrics(), TOPOLOGY).stageLatency("group");
+            this.punctuator = context.schedule(PUNCTUATE_INTERVAL, PunctuationType.WALL_CLOCK_TIME,
+                    this::closeIdleGroups);
+        }
+
+        @Override
+        public void process(Record<String, CaseAlert> record) {
+            long start = System.nanoTime();
+            try {
+                group(record);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void group(Record<String, CaseAlert> record) {
+            CaseAlert alert = record.value();
+            CaseGroup group = groups.get(record.key());
+            if ((group != null && group.contains(alert.alertId())) || wasProposed(alert)) {
+                return;
+            }
+            long now = context.currentSystemTimeMs();
+            if (group != null && !group.admits(alert, lingerMs)) {
+                groups.delete(record.key());
+                propose(record.key(), group, now);
+                group = null;
+            }
+            group = group == null ? CaseGroup.open(alert, now) : group.add(alert, now);
+            if (group.alerts().size() >= MAX_ALERTS) {
+                groups.delete(record.key());
+                propose(record.key(), group, now);
+            } else {
+                groups.put(record.key(), group);
+            }
+        }
+
+        private void closeIdleGroups(long now) {
+            // Collect first, as the store must not be modified while it is iterated
+            List<KeyValue<String, CaseGroup>> closed = new ArrayList<>();
+            try (KeyValueIterator<String, CaseGroup> open = groups.all()) {
+                while (open.hasNext()) {
+                    KeyValue<String, CaseGroup> entry = open.next();
+                    if (now - entry.value.lastAlertAt() >= lingerMs
+                            || now - entry.value.openedAt() >= MAX_GROUP_AGE.toMillis()) {
+                        closed.add(entry);
+                    }
+                }
+            }
+            for (KeyValue<String, CaseGroup> entry : closed) {
+                groups.delete(entry.key);
+                propose(entry.key, entry.value, now);
+            }
+            if (!closed.isEmpty()) {
+                log.debug("Proposed {} cases in task {}", closed.size(), context.taskId());
+            }
+        }
+
+        private boolean wasProposed(CaseAlert alert) {
+            // A replay keeps the record time of the original, unless it was produced again
+            long retention = PROPOSED_RETENTION.toMillis();
+            try (WindowStoreIterator<String> cases = proposed.fetch(alert.alertId(),
+                    Math.max(0L, alert.raisedAt() - retention), alert.raisedAt() + retention)) {
+                return cases.hasNext();
+            }
+        }
+
+        private void propose(String key, CaseGroup group, long now) {
+            EventEnvelope<CaseProposal> event = proposal(group, now);
+            for (CaseAlert alert : group.alerts()) {
+                proposed.put(alert.alertId(), event.getPayload().caseId(), alert.raisedAt());
+            }
+            context.forward(new Record<>(key, event, now, EventSerde.headers(event)));
+        }
+
+        @Override
+        public void close() {
+            if (punctuator != null) {
+                punctuator.cancel();
+            }
+        }
+    }
+
+    /**
+     * Builds the case proposal for a closed group.
+     *
+     * @param group The group
+     * @param now   Wall-clock time of the proposal
+     * @return The {@code CASE_CREATED} event
+     */
+    static EventEnvelope<CaseProposal> proposal(CaseGroup group, long now) {
+        CaseAlert first = group.alerts().get(0);
+        Set<String> alertIds = new LinkedHashSet<>();
+        Set<String> txnIds = new LinkedHashSet<>();
+        Set<String> ruleIds = new LinkedHashSet<>();
+        Set<String> counterpartyIds = new LinkedHashSet<>();
+        boolean highRiskCountry = false;
+        int severity = 0;
+        long firstAlertAt = Long.MAX_VALUE;
+        long lastAlertAt = Long.MIN_VALUE;
+        for (CaseAlert alert : group.alerts()) {
+            alertIds.add(alert.alertId());
+            addIfPresent(txnIds, alert.txnId());
+            addIfPresent(ruleIds, alert.ruleId());
+            addIfPresent(counterpartyIds, alert.counterpartyId());
+            highRiskCountry |= alert.counterpartyCountry() != null
+                    && ModelFeatures.HIGH_RISK_COUNTRIES.contains(alert.counterpartyCountry());
+            severity = Math.max(severity, severityRank(alert.severity()));
+            firstAlertAt = Math.min(firstAlertAt, alert.raisedAt());
+            lastAlertAt = Math.max(lastAlertAt, alert.raisedAt());
+        }
+
+        String createdAt = Instant.ofEpochMilli(now).toString();
+        // Derived from the group's first alert, so the case keeps its identifier if the group is proposed again
+        String caseId = UUID.nameUUIDFromBytes((first.tenantId() + ":" + first.customerId() + ":" + first.alertId())
+                .getBytes(StandardCharsets.UTF_8)).toString();
+        CaseProposal payload = new CaseProposal(
+                caseId,
+                highRiskCountry ? "SANCTIONS_HIT" : "ALERT_INVESTIGATION",
+                severityToPriority(severity),
+                first.customerId(),
+                List.copyOf(alertIds),
+                List.copyOf(txnIds),
+                List.copyOf(ruleIds),
+                List.copyOf(counterpartyIds),
+                Instant.ofEpochMilli(firstAlertAt).toString(),
+                Instant.ofEpochMilli(lastAlertAt).toString(),
+                ACTOR_ID,
+                createdAt,
+                true);
+
+        EventEnvelope<CaseProposal> event = new EventEnvelope<>();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType(EVENT_TYPE);
+        event.setTraceId(first.traceId());
+        event.setTenantId(first.tenantId());
+        event.setActorId(ACTOR_ID);
+        event.setOccurredAt(createdAt);
+        event.setSchemaVersion(SCHEMA_VERSION);
+        event.setPayload(payload);
+        return event;
+    }
+
+    private static void addIfPresent(Set<String> values, String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private static int severityRank(String severity) {
+        if (severity == null) {
+            return 1;
+        }
+        return switch (severity.toUpperCase()) {
+            case "CRITICAL" -> 4;
+            case "HIGH" -> 3;
+            case "MEDIUM" -> 2;
+            default -> 1;
+        };
+    }
+
+    private static String severityToPriority(int rank) {
+        return switch (rank) {
+            case 4 -> "critical";
+            case 3 -> "high";
+            case 2 -> "medium";
+            default -> "low";
+        };
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static <T> Serde<T> jsonSerde(Class<T> type) {
+        ObjectWriter writer = EventSerde.MAPPER.writerFor(type);
+        ObjectReader reader = EventSerde.MAPPER.readerFor(type);
+        return Serdes.serdeFrom(
+                (topic, value) -> {
+                    try {
+                        return value != null ? writer.writeValueAsBytes(value) : null;
+                    } catch (IOException e) {
+                        throw new SerializationException("Failed to serialize " + type.getSimpleName(), e);
+                    }
+                },
+                (topic, data) -> {
+                    try {
+                        return data != null ? reader.readValue(data) : null;
+                    } catch (IOException e) {
+                        throw new SerializationException("Failed to deserialize " + type.getSimpleName(), e);
+                    }
+                });
+    }
+
+    /**
+     * Counterparty of a scored transaction.
+     *
+     * @param counterpartyId      The counterparty
+     * @param counterpartyCountry The counterparty's country, or null
+     */
+    record Counterparty(
+            @JsonProperty("counterparty_id") String counterpartyId,
+            @JsonProperty("counterparty_country") String counterpartyCountry) {
+
+        static final Serde<Counterparty> SERDE = jsonSerde(Counterparty.class);
+    }
+
+    /**
+     * The fields of an alert that grouping and the case proposal use.
+     *
+     * @param alertId             The alert, or its event identifier if the
+     *                            payload has none
+     * @param ruleId              Rule that raised the alert, or null
+     * @param severity            Severity of the alert, or null
+     * @param txnId               Transaction the alert was raised on, or null
+     * @param tenantId            Tenant of the alert
+     * @param customerId          Customer of the alert, or null
+     * @param counterpartyId      Counterparty of the transaction, once joined
+     * @param counterpartyCountry Country of the counterparty, once joined
+     * @param raisedAt            Record time of the alert
+     * @param traceId             Trace of the alert event
+     */
+    record CaseAlert(
+            @JsonProperty("alert_id") String alertId,
+            @JsonProperty("rule_id") String ruleId,
+            @JsonProperty("severity") String severity,
+            @JsonProperty("txn_id") String txnId,
+            @JsonProperty("tenant_id") String tenantId,
+            @JsonProperty("customer_id") String customerId,
+            @JsonProperty("counterparty_id") String counterpartyId,
+            @JsonProperty("counterparty_country") String counterpartyCountry,
+            @JsonProperty("raised_at") long raisedAt,
+            @JsonProperty("trace_id") String traceId) {
+
+        static final Serde<CaseAlert> SERDE = jsonSerde(CaseAlert.class);
+
+        static CaseAlert of(EventEnvelope<AlertPayload> event, long raisedAt) {
+            AlertPayload alert = event.getPayload();
+            if (alert == null) {
+                throw new SerializationException("Alert event has no payload");
+            }
+            Map<String, Object> fields = alert.getOtherFields();
+            String alertId = fields.get("alert_id") != null ? text(fields.get("alert_id")) : event.getEventId();
+            if (alertId == null) {
+                throw new SerializationException("Alert event has neither alert_id nor event_id");
+            }
+            String customerId = text(fields.get("customer_id"));
+            return new CaseAlert(
+                    alertId,
+                    text(fields.get("rule_id")),
+                    alert.getSeverity(),
+                    text(fields.get("txn_id")),
+                    event.getTenantId(),
+                    customerId != null && !customerId.isEmpty() ? customerId : null,
+                    null,
+                    null,
+                    raisedAt,
+                    event.getTraceId());
+        }
+
+        CaseAlert withCounterparty(Counterparty counterparty) {
+            return new CaseAlert(alertId, ruleId, severity, txnId, tenantId, customerId,
+                    counterparty.counterpartyId(), counterparty.counterpartyCountry(), raisedAt, traceId);
+        }
+    }
+
+    /**
+     * A customer's open group of alerts.
+     *
+     * @param openedAt    Wall-clock time of the first alert
+     * @param lastAlertAt Wall-clock time of the latest alert
+     * @param alerts      Alerts in arrival order
+     */
+    record CaseGroup(
+            @JsonProperty("opened_at") long openedAt,
+            @JsonProperty("last_alert_at") long lastAlertAt,
+            @JsonProperty("alerts") List<CaseAlert> alerts) {
+
+        static final Serde<CaseGroup> SERDE = jsonSerde(CaseGroup.class);
+
+        static CaseGroup open(CaseAlert alert, long now) {
+            return new CaseGroup(now, now, List.of(alert));
+        }
+
+        CaseGroup add(CaseAlert alert, long now) {
+            List<CaseAlert> added = new ArrayList<>(alerts.size() + 1);
+            added.addAll(alerts);
+            added.add(alert);
+            return new CaseGroup(openedAt, now, added);
+        }
+
+        /**
+         * Checks whether an alert belongs to this group by record time: within
+         * the linger time after the latest alert, and within
+         * {@link #MAX_GROUP_AGE} of the first.
+         */
+        boolean admits(CaseAlert alert, long lingerMs) {
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (CaseAlert member : alerts) {
+                first = Math.min(first, member.raisedAt());
+                last = Math.max(last, member.raisedAt());
+            }
+            return alert.raisedAt() - last < lingerMs && alert.raisedAt() - first < MAX_GROUP_AGE.toMillis();
+        }
+
+        boolean contains(String alertId) {
+            for (CaseAlert alert : alerts) {
+                if (alert.alertId().equals(alertId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Payload of a {@code CASE_CREATED} event proposing a case for a group of
+ * related alerts.
+ *
+ * <p>
+ * The case identifier is derived from the customer and the first alert of
+ * the group, so a group emitted again after a restart proposes the same case.
+ *
+ * @param caseId          Identifier of the proposed case
+ * @param caseType        {@code SANCTIONS_HIT} if a counterparty is in a
+ *                        high-risk country, {@code ALERT_INVESTIGATION}
+ *                        otherwise
+ * @param priority        Priority from the highest alert severity, in
+ *                        lower case
+ * @param customerId      The customer
+ * @param alertIds        Alerts of the group, in arrival order
+ * @param txnIds          Transactions the alerts were raised on
+ * @param ruleIds         Rules that raised the alerts
+ * @param counterpartyIds Counterparties of the alerted transactions
+ * @param firstAlertAt    ISO-8601 time of the first alert
+ * @param lastAlertAt     ISO-8601 time of the last alert
+ * @param createdBy       {@code system}
+ * @param createdAt       ISO-8601 time the case was proposed
+ * @param proposed        Always true, as the case is not persisted until an
+ *                        analyst or the case service accepts it
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record CaseProposal(
+        @JsonProperty("case_id") String caseId,
+        @JsonProperty("case_type") String caseType,
+        @JsonProperty("priority") String priority,
+        @JsonProperty("customer_id") String customerId,
+        @JsonProperty("alert_ids") List<String> alertIds,
+        @JsonProperty("txn_ids") List<String> txnIds,
+        @JsonProperty("rule_ids") List<String> ruleIds,
+        @JsonProperty("counterparty_ids") List<String> counterpartyIds,
+        @JsonProperty("first_alert_at") String firstAlertAt,
+        @JsonProperty("last_alert_at") String lastAlertAt,
+        @JsonProperty("created_by") String createdBy,
+        @JsonProperty("created_at") String createdAt,
+        @JsonProperty("proposed") boolean proposed) {
+}
@@ -0,0 +1,202 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+
+/**
+ * A risk model exported by {@code ml/pipelines/export.py}, compiled into flat
+ * primitive arrays for scoring on the stream thread.
+ *
+ * <p>
+ * Tree ensembles are stored as parallel node arrays with all trees
+ * concatenated, so evaluating a transaction walks a few int and double arrays
+ * without allocating. Feature indices are remapped to {@link ModelFeatures}
+ * order when the model is loaded. Splits on features the stream processor
+ * does not compute are resolved at load time for the value 0, which is what
+ * the training pipeline fills missing features with.
+ *
+ * <p>
+ * Instances are immutable and safe to share between stream threads.
+ */
+final class CompiledModel {
+
+    static final String FORMAT = "hafnium-model/v1";
+
+    private static final int LEAF = -1;
+
+    private final String modelId;
+
+    // Tree ensemble: node arrays of all trees, and the index of each root
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+    private final int[] roots;
+
+    // Linear model: coefficients in ModelFeatures order
+    private final double[] coefficients;
+
+    private final double base;
+
+    private CompiledModel(String modelId, int[] feature, double[] threshold, int[] left, int[] right,
+            double[] value, int[] roots, double[] coefficients, double base) {
+        this.modelId = modelId;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+        this.roots = roots;
+        this.coefficients = coefficients;
+        this.base = base;
+    }
+
+    /**
+     * Compiles an exported model.
+     *
+     * @param root The exported model document
+     * @return The compiled model
+     * @throws IllegalArgumentException if the document is not a valid model
+     */
+    static CompiledModel compile(JsonNode root) {
+        String format = root.path("format").asText();
+        if (!FORMAT.equals(format)) {
+            throw new IllegalArgumentException("Unsupported model format '" + format + "'");
+        }
+        String link = root.path("link").asText("logistic");
+        if (!"logistic".equals(link)) {
+            throw new IllegalArgumentException("Unsupported model link '" + link + "'");
+        }
+        String modelId = root.path("model_id").asText("unversioned");
+
+        // Position of each model feature in ModelFeatures.NAMES, or -1 if not computed here
+        JsonNode names = root.path("features");
+        int[] featureMap = new int[names.size()];
+        for (int i = 0; i < featureMap.length; i++) {
+            featureMap[i] = ModelFeatures.NAMES.indexOf(names.get(i).asText());
+        }
+
+        String type = root.path("type").asText();
+        return switch (type) {
+            case "tree_ensemble" -> compileTrees(modelId, root, featureMap);
+            case "linear" -> compileLinear(modelId, root, featureMap);
+            default -> throw new IllegalArgumentException("Unsupported model type '" + type + "'");
+        };
+    }
+
+    private static CompiledModel compileTrees(String modelId, JsonNode root, int[] featureMap) {
+        JsonNode trees = root.path("trees");
+        if (trees.isEmpty()) {
+            throw new IllegalArgumentException("Tree ensemble has no trees");
+        }
+        int nodes = 0;
+        for (JsonNode tree : trees) {
+            nodes += tree.path("feature").size();
+        }
+
+        int[] feature = new int[nodes];
+        double[] threshold = new double[nodes];
+        int[] left = new int[nodes];
+        int[] right = new int[nodes];
+        double[] value = new double[nodes];
+        int[] roots = new int[trees.size()];
+
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            JsonNode tree = trees.get(t);
+            int size = tree.path("feature").size();
+            for (String field : List.of("threshold", "left", "right", "value")) {
+                if (tree.path(field).size() != size) {
+                    throw new IllegalArgumentException("Tree " + t + " has " + tree.path(field).size() + " "
+                            + field + " entries for " + size + " nodes");
+                }
+            }
+            roots[t] = offset;
+            for (int n = 0; n < size; n++) {
+                int i = offset + n;
+                int modelFeature = tree.path("feature").get(n).asInt();
+                value[i] = tree.path("value").get(n).asDouble();
+                if (modelFeature == LEAF) {
+                    feature[i] = LEAF;
+                    continue;
+                }
+                if (modelFeature < 0 || modelFeature >= featureMap.length) {
+                    throw new IllegalArgumentException("Tree " + t + " node " + n + " splits on unknown feature "
+                            + modelFeature);
+                }
+                int l = tree.path("left").get(n).asInt();
+                int r = tree.path("right").get(n).asInt();
+                // Children after their parent rule out cycles, so evaluation always reaches a leaf
+                if (l <= n || r <= n || l >= size || r >= size) {
+                    throw new IllegalArgumentException("Tree " + t + " node " + n + " has invalid children");
+                }
+                threshold[i] = tree.path("threshold").get(n).asDouble();
+                left[i] = offset + l;
+                right[i] = offset + r;
+                feature[i] = featureMap[modelFeature];
+                if (feature[i] < 0) {
+                    // Always 0 here, so both branches lead to the child 0 takes
+                    int taken = 0.0 <= threshold[i] ? left[i] : right[i];
+                    feature[i] = 0;
+                    left[i] = taken;
+                    right[i] = taken;
+                }
+            }
+            offset += size;
+        }
+
+        return new CompiledModel(modelId, feature, threshold, left, right, value, roots, null,
+                root.path("base_score").asDouble());
+    }
+
+    private static CompiledModel compileLinear(String modelId, JsonNode root, int[] featureMap) {
+        JsonNode weights = root.path("coefficients");
+        if (weights.size() != featureMap.length) {
+            throw new IllegalArgumentException("Linear model has " + weights.size() + " coefficients for "
+                    + featureMap.length + " features");
+        }
+        // Features not computed here are 0 and contribute nothing
+        double[] coefficients = new double[ModelFeatures.NAMES.size()];
+        for (int i = 0; i < featureMap.length; i++) {
+            if (featureMap[i] >= 0) {
+                coefficients[featureMap[i]] += weights.get(i).asDouble();
+            }
+        }
+        return new CompiledModel(modelId, null, null, null, null, null, null, coefficients,
+                root.path("intercept").asDouble());
+    }
+
+    /**
+     * Scores a transaction.
+     *
+     * @param features Features in {@link ModelFeatures#NAMES} order
+     * @return The probability that the transaction is suspicious, in [0, 1]
+     */
+    double score(double[] features) {
+        double raw = base;
+        if (coefficients != null) {
+            for (int i = 0; i < coefficients.length; i++) {
+                raw += coefficients[i] * features[i];
+            }
+        } else {
+            for (int root : roots) {
+                int node = root;
+                while (feature[node] != LEAF) {
+                    node = features[feature[node]] <= threshold[node] ? left[node] : right[node];
+                }
+                raw += value[node];
+            }
+        }
+        return 1.0 / (1.0 + Math.exp(-raw));
+    }
+
+    String modelId() {
+        return modelId;
+    }
+
+    /** Number of trees, or 0 for a linear model. */
+    int trees() {
+        return roots != null ? roots.length : 0;
+    }
+}
@@ -0,0 +1,134 @@
+package dev.hafnium.stream;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * A customer's transaction activity within one time bucket of the scoring
+ * window store.
+ *
+ * <p>
+ * Sliding-window features are folded from consecutive buckets, so each
+ * transaction only rewrites its own bucket. Counterparties are kept as a
+ * capped set of identifier hashes; distinct counts are therefore exact up to
+ * hash collisions and the per-bucket cap.
+ */
+final class CustomerActivityBucket {
+
+    /** Maximum counterparty hashes kept per bucket. */
+    static final int MAX_COUNTERPARTIES = 64;
+
+    static final Serde<CustomerActivityBucket> SERDE = Serdes.serdeFrom(serializer(), deserializer());
+
+    private long count;
+    private long amountSum;
+    private long nearThresholdCount;
+    private int[] counterparties;
+    private int counterpartyCount;
+
+    CustomerActivityBucket() {
+        this.counterparties = new int[4];
+    }
+
+    /**
+     * Adds a transaction to the bucket.
+     *
+     * @param amount           Amount in base currency minor units
+     * @param nearThreshold    Whether the amount is just below the reporting
+     *                         threshold
+     * @param counterpartyHash Hash of the counterparty identifier, or 0 if
+     *                         unknown
+     */
+    void add(long amount, boolean nearThreshold, int counterpartyHash) {
+        count++;
+        amountSum = saturatedAdd(amountSum, amount);
+        if (nearThreshold) {
+            nearThresholdCount++;
+        }
+        if (counterpartyHash != 0 && !containsCounterparty(counterpartyHash)
+                && counterpartyCount < MAX_COUNTERPARTIES) {
+            if (counterpartyCount == counterparties.length) {
+                counterparties = Arrays.copyOf(counterparties, Math.min(counterpartyCount * 2, MAX_COUNTERPARTIES));
+            }
+            counterparties[counterpartyCount++] = counterpartyHash;
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    long amountSum() {
+        return amountSum;
+    }
+
+    long nearThresholdCount() {
+        return nearThresholdCount;
+    }
+
+    int counterpartyCount() {
+        return counterpartyCount;
+    }
+
+    int counterpartyAt(int index) {
+        return counterparties[index];
+    }
+
+    private boolean containsCounterparty(int hash) {
+        for (int i = 0; i < counterpartyCount; i++) {
+            if (counterparties[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        // Overflow iff both operands have the sign opposite to the result
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return sum;
+    }
+
+    private static Serializer<CustomerActivityBucket> serializer() {
+        return (topic, bucket) -> {
+            if (bucket == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(3 * Long.BYTES + Integer.BYTES
+                    + bucket.counterpartyCount * Integer.BYTES);
+            buffer.putLong(bucket.count).putLong(bucket.amountSum).putLong(bucket.nearThresholdCount);
+            buffer.putInt(bucket.counterpartyCount);
+            for (int i = 0; i < bucket.counterpartyCount; i++) {
+                buffer.putInt(bucket.counterparties[i]);
+            }
+            return buffer.array();
+        };
+    }
+
+    private static Deserializer<CustomerActivityBucket> deserializer() {
+        return (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            CustomerActivityBucket bucket = new CustomerActivityBucket();
+            bucket.count = buffer.getLong();
+            bucket.amountSum = buffer.getLong();
+            bucket.nearThresholdCount = buffer.getLong();
+            int size = buffer.getInt();
+            bucket.counterparties = new int[Math.max(4, size)];
+            for (int i = 0; i < size; i++) {
+                bucket.counterparties[i] = buffer.getInt();
+            }
+            bucket.counterpartyCount = size;
+            return bucket;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+
+/**
+ * A customer's latest risk score and running score aggregates, as kept in
+ * the customer risk store of transaction scoring.
+ *
+ * @param riskScore     Score of the latest transaction
+ * @param riskLevel     Level of the latest transaction
+ * @param scoreSource   {@code model} or {@code rules}, or null if no model is
+ *                      configured
+ * @param txnId         Identifier of the latest transaction
+ * @param scoredAt      Wall-clock time the latest transaction was scored
+ * @param transactions  Transactions scored
+ * @param highRisk      Transactions scored {@code HIGH} or {@code CRITICAL}
+ * @param maxRiskScore  Highest score of any transaction
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record CustomerRiskState(
+        @JsonProperty("risk_score") double riskScore,
+        @JsonProperty("risk_level") String riskLevel,
+        @JsonProperty("score_source") String scoreSource,
+        @JsonProperty("txn_id") String txnId,
+        @JsonProperty("scored_at") long scoredAt,
+        @JsonProperty("transactions") long transactions,
+        @JsonProperty("high_risk_transactions") long highRisk,
+        @JsonProperty("max_risk_score") double maxRiskScore) {
+
+    private static final ObjectWriter WRITER = EventSerde.MAPPER.writerFor(CustomerRiskState.class);
+    private static final ObjectReader READER = EventSerde.MAPPER.readerFor(CustomerRiskState.class);
+
+    static final Serde<CustomerRiskState> SERDE = Serdes.serdeFrom(
+            (topic, value) -> {
+                try {
+                    return value != null ? WRITER.writeValueAsBytes(value) : null;
+                } catch (IOException e) {
+                    throw new SerializationException("Failed to serialize customer risk state", e);
+                }
+            },
+            (topic, data) -> {
+                try {
+                    return data != null ? READER.readValue(data) : null;
+                } catch (IOException e) {
+                    throw new SerializationException("Failed to deserialize customer risk state", e);
+                }
+            });
+
+    /**
+     * Folds a scored transaction into the state.
+     *
+     * @param previous The state before, or null for a new customer
+     * @param score    The transaction's score
+     * @param level    The transaction's level
+     * @param source   The transaction's score source, or null
+     * @param txnId    The transaction's identifier, or null
+     * @param scoredAt Wall-clock time of scoring
+     * @return The new state
+     */
+    static CustomerRiskState update(CustomerRiskState previous, double score, String level, String source,
+            String txnId, long scoredAt) {
+        boolean high = "HIGH".equals(level) || "CRITICAL".equals(level);
+        if (previous == null) {
+            return new CustomerRiskState(score, level, source, txnId, scoredAt, 1, high ? 1 : 0, score);
+        }
+        return new CustomerRiskState(score, level, source, txnId, scoredAt,
+                previous.transactions() + 1,
+                previous.highRisk() + (high ? 1 : 0),
+                Math.max(previous.maxRiskScore(), score));
+    }
+}
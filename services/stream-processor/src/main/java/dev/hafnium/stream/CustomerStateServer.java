@@ -0,0 +1,214 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the live state of customers from the transaction scoring stores.
+ *
+ * <pre>
+ * GET /customers/{tenantId}/{customerId}
+ * </pre>
+ *
+ * <p>
+ * Returns the customer's velocity features over the scoring windows ending
+ * now and the aggregates of their risk scores. Each customer's state lives on
+ * the instance whose task owns the customer's partition, so any instance
+ * accepts a lookup and forwards it to the owner advertised in the Streams
+ * metadata ({@code application.server}); the response names the instance
+ * that served it. A lookup that arrives at an instance which no longer owns
+ * the key, or while the state is being restored or migrated, is answered
+ * with 503 and can be retried.
+ */
+public final class CustomerStateServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerStateServer.class);
+
+    private static final String PATH = "/customers/";
+    private static final String FORWARDED_HEADER = "X-Hafnium-Forwarded-By";
+    private static final Duration FORWARD_TIMEOUT = Duration.ofSeconds(2);
+
+    private final KafkaStreams streams;
+    private final HostInfo self;
+    private final HttpServer server;
+    private final HttpClient http;
+
+    private CustomerStateServer(KafkaStreams streams, HostInfo self, HttpServer server) {
+        this.streams = streams;
+        this.self = self;
+        this.server = server;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(FORWARD_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Starts serving customer state.
+     *
+     * @param streams The Streams client running transaction scoring
+     * @param self    This instance's {@code application.server} endpoint; the
+     *                server listens on its port
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     */
+    static CustomerStateServer start(KafkaStreams streams, HostInfo self) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(self.port()), 0);
+        CustomerStateServer stateServer = new CustomerStateServer(streams, self, server);
+        server.createContext(PATH, stateServer::handle);
+        // Lookups block on store reads and forwarded requests, which virtual threads make cheap
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stateServer;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, error("Method not allowed"));
+            return;
+        }
+        String[] parts = exchange.getRequestURI().getRawPath().substring(PATH.length()).split("/");
+        if (parts.length != 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            respond(exchange, 404, error("Expected /customers/{tenantId}/{customerId}"));
+            return;
+        }
+        String tenantId = URLDecoder.decode(parts[0], StandardCharsets.UTF_8);
+        String customerId = URLDecoder.decode(parts[1], StandardCharsets.UTF_8);
+        String key = TransactionScoringTopology.customerKey(tenantId, customerId);
+
+        KeyQueryMetadata metadata;
+        try {
+            metadata = streams.queryMetadataForKey(TransactionScoringTopology.ACTIVITY_STORE, key,
+                    Serdes.String().serializer());
+        } catch (InvalidStateStoreException | IllegalStateException e) {
+            // Not started yet, or shutting down
+            respond(exchange, 503, error("Stream processor is " + streams.state()));
+            return;
+        }
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            respond(exchange, 503, error("Customer state is not available yet"));
+        } else if (self.equals(metadata.activeHost())) {
+            respondLocal(exchange, tenantId, customerId, key, metadata.partition());
+        } else if (exchange.getRequestHeaders().containsKey(FORWARDED_HEADER)) {
+            // Ownership moved while the lookup was forwarded; the caller retries rather than hopping again
+            respond(exchange, 503, error("Customer state is moving between instances"));
+        } else {
+            forward(exchange, metadata.activeHost());
+        }
+    }
+
+    private void respondLocal(HttpExchange exchange, String tenantId, String customerId, String key, int partition)
+            throws IOException {
+        VelocityFeatures velocity;
+        CustomerRiskState risk;
+        try {
+            ReadOnlyWindowStore<String, CustomerActivityBucket> activity = streams.store(
+                    StoreQueryParameters.fromNameAndType(TransactionScoringTopology.ACTIVITY_STORE,
+                            QueryableStoreTypes.<String, CustomerActivityBucket>windowStore())
+                            .withPartition(partition));
+            ReadOnlyKeyValueStore<String, CustomerRiskState> riskStore = streams.store(
+                    StoreQueryParameters.fromNameAndType(TransactionScoringTopology.RISK_STORE,
+                            QueryableStoreTypes.<String, CustomerRiskState>keyValueStore())
+                            .withPartition(partition));
+            velocity = TransactionScoringTopology.velocityAt(activity, key, System.currentTimeMillis());
+            risk = riskStore.get(key);
+        } catch (InvalidStateStoreException e) {
+            respond(exchange, 503, error("Customer state is being restored: " + e.getMessage()));
+            return;
+        }
+
+        if (risk == null && velocity.countLong() == 0) {
+            respond(exchange, 404, error("No state for customer"));
+            return;
+        }
+        respond(exchange, 200, EventSerde.MAPPER.writeValueAsBytes(new CustomerState(tenantId, customerId,
+                velocity.toFields(TransactionScoringTopology.AMOUNT_EXPONENT), risk, endpoint(self))));
+    }
+
+    private void forward(HttpExchange exchange, HostInfo owner) throws IOException {
+        URI uri = URI.create("http://" + endpoint(owner) + exchange.getRequestURI().getRawPath());
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(FORWARD_TIMEOUT)
+                .header(FORWARDED_HEADER, endpoint(self))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            log.warn("Failed to forward customer state lookup to {}: {}", endpoint(owner), e.getMessage());
+            respond(exchange, 502, error("Owner instance " + endpoint(owner) + " did not respond"));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, error("Interrupted"));
+            return;
+        }
+        respond(exchange, response.statusCode(), response.body());
+    }
+
+    private static String endpoint(HostInfo host) {
+        return host.host() + ":" + host.port();
+    }
+
+    private static byte[] error(String detail) throws IOException {
+        return EventSerde.MAPPER.writeValueAsBytes(Map.of("detail", detail));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Response of a customer state lookup.
+     *
+     * @param tenantId   Tenant of the customer
+     * @param customerId The customer
+     * @param velocity   Velocity features of the windows ending now
+     * @param risk       Risk score aggregates, or null if none of the
+     *                   customer's transactions was scored yet
+     * @param servedBy   Instance that served the lookup
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record CustomerState(
+            @JsonProperty("tenant_id") String tenantId,
+            @JsonProperty("customer_id") String customerId,
+            @JsonProperty("velocity") Map<String, Object> velocity,
+            @JsonProperty("risk") CustomerRiskState risk,
+            @JsonProperty("served_by") String servedBy) {
+    }
+}
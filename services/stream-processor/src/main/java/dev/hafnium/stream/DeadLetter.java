@@ -0,0 +1,46 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
+
+/**
+ * Payload of a {@code DEAD_LETTER} event for a record the processor could not
+ * handle.
+ *
+ * <p>
+ * The original value bytes and headers are kept unchanged, so the record
+ * can be replayed exactly as it was first produced, whatever its encoding.
+ * Byte arrays are written as base64.
+ *
+ * @param originalTopic   Topic to replay the record to
+ * @param originalKey     Record key as read by the failing stage
+ * @param originalValue   Record value as read, or null for an empty record
+ * @param originalHeaders Record headers as read
+ * @param sourceTopic     Topic the failing stage read the record from, which
+ *                        is a repartition topic for stages after a re-key
+ * @param sourcePartition Partition the failing stage read the record from
+ * @param sourceOffset    Offset the failing stage read the record from
+ * @param topology        Topology that failed
+ * @param stage           Stage of the topology that failed
+ * @param errorType       Class of the exception
+ * @param errorMessage    Messages of the exception and its causes
+ * @param retryCount      Times the record had been replayed before failing
+ * @param failedAt        ISO-8601 time of the failure
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeadLetter(
+        @JsonProperty("original_topic") String originalTopic,
+        @JsonProperty("original_key") String originalKey,
+        @JsonProperty("original_value") byte[] originalValue,
+        @JsonProperty("original_headers") Map<String, byte[]> originalHeaders,
+        @JsonProperty("source_topic") String sourceTopic,
+        @JsonProperty("source_partition") Integer sourcePartition,
+        @JsonProperty("source_offset") Long sourceOffset,
+        @JsonProperty("topology") String topology,
+        @JsonProperty("stage") String stage,
+        @JsonProperty("error_type") String errorType,
+        @JsonProperty("error_message") String errorMessage,
+        @JsonProperty("retry_count") int retryCount,
+        @JsonProperty("failed_at") String failedAt) {
+}
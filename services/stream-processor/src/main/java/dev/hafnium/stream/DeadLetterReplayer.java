@@ -0,0 +1,269 @@
+package dev.hafnium.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays dead letters back to their original topics in bulk.
+ *
+ * <p>
+ * Reads the dead letter topic from a point in time up to the end offsets at
+ * start-up, so records that fail again during the run are not picked up a
+ * second time. Matching dead letters are produced to their original topic
+ * with the original key, value and headers, and the
+ * {@value DeadLetters#REPLAY_COUNT_HEADER} header incremented. Sends are
+ * batched and pipelined; the run fails if any send fails.
+ *
+ * <p>
+ * Usage, with all options optional:
+ *
+ * <pre>
+ * java -cp hafnium-stream-processor.jar dev.hafnium.stream.DeadLetterReplayer \
+ *     --since=2024-01-01T00:00:00Z --topology=transaction-scoring --stage=decode \
+ *     --original-topic=hf.txn.ingested.v1 --error-type=SerializationException \
+ *     --max-retries=3 --limit=10000 --dry-run
+ * </pre>
+ *
+ * Dead letters written by other services without the original value are
+ * skipped.
+ */
+public final class DeadLetterReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EMPTY_POLLS = 30;
+
+    private final Options options;
+    private final Deserializer<EventEnvelope<DeadLetter>> deserializer = EventSerde.DEAD_LETTER_EVENT.deserializer();
+
+    private long read;
+    private long replayed;
+    private long filtered;
+    private long overRetryLimit;
+    private long notReplayable;
+    private final AtomicLong failedSends = new AtomicLong();
+
+    private DeadLetterReplayer(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        int exitCode = new DeadLetterReplayer(options).run() ? 0 : 1;
+        System.exit(exitCode);
+    }
+
+    private boolean run() {
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProperties());
+                KafkaProducer<String, byte[]> producer = new KafkaProducer<>(producerProperties())) {
+
+            List<TopicPartition> partitions = consumer.partitionsFor(DeadLetters.TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = new HashMap<>(consumer.endOffsets(partitions));
+            seekToStart(consumer, partitions, endOffsets);
+
+            int emptyPolls = 0;
+            while (!endOffsets.isEmpty() && !limitReached() && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long end = endOffsets.get(partition);
+                    if (end == null || record.offset() >= end || limitReached()) {
+                        continue;
+                    }
+                    read++;
+                    replay(record, producer);
+                }
+                endOffsets.entrySet().removeIf(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+            }
+            if (!endOffsets.isEmpty() && !limitReached()) {
+                log.warn("Stopped before the end of {} after {} empty polls", DeadLetters.TOPIC, emptyPolls);
+            }
+            producer.flush();
+        }
+
+        log.info("{} {} of {} dead letters ({} filtered out, {} over the retry limit, {} not replayable, "
+                + "{} failed sends)", options.dryRun ? "Would replay" : "Replayed", replayed, read, filtered,
+                overRetryLimit, notReplayable, failedSends.get());
+        return failedSends.get() == 0;
+    }
+
+    private void seekToStart(KafkaConsumer<String, byte[]> consumer, List<TopicPartition> partitions,
+            Map<TopicPartition, Long> endOffsets) {
+        if (options.since == null) {
+            consumer.seekToBeginning(partitions);
+            return;
+        }
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        partitions.forEach(partition -> timestamps.put(partition, options.since.toEpochMilli()));
+        Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset.offset());
+            } else {
+                // Nothing written since the start time
+                endOffsets.remove(partition);
+            }
+        }
+    }
+
+    private void replay(ConsumerRecord<String, byte[]> record, KafkaProducer<String, byte[]> producer) {
+        DeadLetter deadLetter;
+        try {
+            EventEnvelope<DeadLetter> event = deserializer.deserialize(record.topic(), record.value());
+            deadLetter = event != null && DeadLetters.EVENT_TYPE.equals(event.getEventType())
+                    ? event.getPayload()
+                    : null;
+        } catch (RuntimeException e) {
+            deadLetter = null;
+        }
+        if (deadLetter == null || deadLetter.originalTopic() == null || deadLetter.originalValue() == null) {
+            notReplayable++;
+            return;
+        }
+        if (!options.matches(deadLetter)) {
+            filtered++;
+            return;
+        }
+        if (deadLetter.retryCount() >= options.maxRetries) {
+            overRetryLimit++;
+            return;
+        }
+
+        replayed++;
+        if (options.dryRun) {
+            log.info("Would replay {} record from {}-{}@{} to {}: {}", deadLetter.stage(), record.topic(),
+                    record.partition(), record.offset(), deadLetter.originalTopic(), deadLetter.errorMessage());
+            return;
+        }
+
+        RecordHeaders headers = new RecordHeaders();
+        if (deadLetter.originalHeaders() != null) {
+            deadLetter.originalHeaders().forEach((key, value) -> {
+                if (!DeadLetters.REPLAY_COUNT_HEADER.equals(key)) {
+                    headers.add(key, value);
+                }
+            });
+        }
+        headers.add(DeadLetters.REPLAY_COUNT_HEADER,
+                Integer.toString(deadLetter.retryCount() + 1).getBytes(StandardCharsets.UTF_8));
+
+        String source = record.topic() + "-" + record.partition() + "@" + record.offset();
+        producer.send(new ProducerRecord<>(deadLetter.originalTopic(), null, deadLetter.originalKey(),
+                deadLetter.originalValue(), headers), (metadata, failure) -> {
+                    if (failure != null) {
+                        failedSends.incrementAndGet();
+                        log.error("Failed to replay dead letter {}", source, failure);
+                    }
+                });
+    }
+
+    private boolean limitReached() {
+        return options.limit > 0 && replayed >= options.limit;
+    }
+
+    private Properties consumerProperties() {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, options.bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        // Partitions are assigned directly and nothing is committed; each run names its own range
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1 << 16);
+        return props;
+    }
+
+    private Properties producerProperties() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, options.bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return props;
+    }
+
+    /** Command line options. */
+    private static final class Options {
+
+        String bootstrapServers = System.getenv().getOrDefault("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092");
+        Instant since;
+        String topology;
+        String stage;
+        String originalTopic;
+        String errorType;
+        int maxRetries = 3;
+        long limit;
+        boolean dryRun;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (arg.equals("--dry-run")) {
+                    options.dryRun = true;
+                    continue;
+                }
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Expected --name=value or --dry-run, got " + arg);
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(2, separator)) {
+                    case "bootstrap-servers" -> options.bootstrapServers = value;
+                    case "since" -> options.since = Instant.parse(value);
+                    case "topology" -> options.topology = value;
+                    case "stage" -> options.stage = value;
+                    case "original-topic" -> options.originalTopic = value;
+                    case "error-type" -> options.errorType = value;
+                    case "max-retries" -> options.maxRetries = Integer.parseInt(value);
+                    case "limit" -> options.limit = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return options;
+        }
+
+        /** Error types match on the fully qualified or simple class name. */
+        boolean matches(DeadLetter deadLetter) {
+            return (topology == null || topology.equals(deadLetter.topology()))
+                    && (stage == null || stage.equals(deadLetter.stage()))
+                    && (originalTopic == null || originalTopic.equals(deadLetter.originalTopic()))
+                    && (errorType == null || deadLetter.errorType() != null
+                            && (deadLetter.errorType().equals(errorType)
+                                    || deadLetter.errorType().endsWith("." + errorType)));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package dev.hafnium.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.Branched;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Routing of failed records to the dead letter topic.
+ *
+ * <p>
+ * Stages read their input as raw bytes and decode it themselves, so a record
+ * that fails to decode or process is still available exactly as produced.
+ * Each stage emits a {@link ProcessingOutcome}; {@link #route} splits off the
+ * failures and writes them to {@link #TOPIC} as {@code DEAD_LETTER} events,
+ * keyed by the original key. {@link DeadLetterReplayer} feeds them back.
+ */
+final class DeadLetters {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetters.class);
+
+    /** Shared dead letter topic of all services. */
+    static final String TOPIC = "hf.dlq.v1";
+
+    /** Header counting how often a record has been replayed from the dead letter topic. */
+    static final String REPLAY_COUNT_HEADER = "hf_replay_count";
+
+    static final String EVENT_TYPE = "DEAD_LETTER";
+
+    private static final String SCHEMA_VERSION = "1.0.0";
+    private static final String ACTOR_ID = "system";
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2048;
+
+    private DeadLetters() {
+    }
+
+    /**
+     * Writes failed outcomes of a stage to the dead letter topic.
+     *
+     * @param outcomes Outcomes of the stage
+     * @param topology Topology name
+     * @param stage    Stage name, unique within the topology
+     * @param <V>      The value type
+     * @return The values of the successful outcomes
+     */
+    static <V> KStream<String, V> route(KStream<String, ProcessingOutcome<V>> outcomes, String topology,
+            String stage) {
+        String prefix = topology + "-" + stage + "-";
+        Map<String, KStream<String, ProcessingOutcome<V>>> branches = outcomes
+                .split(Named.as(prefix))
+                .branch((key, outcome) -> outcome.failed(), Branched.as("dead-letter"))
+                .defaultBranch(Branched.as("processed"));
+
+        branches.get(prefix + "dead-letter")
+                .mapValues(ProcessingOutcome::deadLetter, Named.as(prefix + "dead-letter-value"))
+                .to(TOPIC, Produced.with(Serdes.String(), EventSerde.DEAD_LETTER_EVENT)
+                        .withName(prefix + "dead-letter-sink"));
+
+        return branches.get(prefix + "processed")
+                .mapValues(ProcessingOutcome::value, Named.as(prefix + "processed-value"));
+    }
+
+    /**
+     * Builds the dead letter event for a record that failed a stage.
+     *
+     * @param originalTopic Topic to replay the record to
+     * @param key           Record key
+     * @param value         Record value as read
+     * @param headers       Record headers as read
+     * @param source        Position the stage read the record from, if known
+     * @param topology      Topology name
+     * @param stage         Stage name
+     * @param error         The failure
+     * @return The dead letter event
+     */
+    static EventEnvelope<DeadLetter> deadLetter(String originalTopic, String key, byte[] value, Headers headers,
+            Optional<RecordMetadata> source, String topology, String stage, Throwable error) {
+        log.warn("Routing {} record to {} after {} failed at {}: {}", originalTopic, TOPIC, stage,
+                source.map(DeadLetters::position).orElse("unknown position"), error.toString());
+
+        Map<String, byte[]> originalHeaders = new LinkedHashMap<>();
+        for (Header header : headers) {
+            originalHeaders.put(header.key(), header.value());
+        }
+
+        DeadLetter payload = new DeadLetter(
+                originalTopic,
+                key,
+                value,
+                originalHeaders,
+                source.map(RecordMetadata::topic).orElse(null),
+                source.map(RecordMetadata::partition).orElse(null),
+                source.map(RecordMetadata::offset).orElse(null),
+                topology,
+                stage,
+                error.getClass().getName(),
+                describe(error),
+                replayCount(headers),
+                Instant.now().toString());
+
+        EventEnvelope<DeadLetter> event = new EventEnvelope<>();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType(EVENT_TYPE);
+        event.setTraceId(header(headers, EventSerde.HEADER_TRACE_ID));
+        event.setTenantId(header(headers, EventSerde.HEADER_TENANT_ID));
+        event.setActorId(ACTOR_ID);
+        event.setOccurredAt(payload.failedAt());
+        event.setSchemaVersion(SCHEMA_VERSION);
+        event.setPayload(payload);
+        return event;
+    }
+
+    /**
+     * Builds the headers of a dead letter record. The original headers travel
+     * in the payload, since they describe a value in another encoding.
+     *
+     * @param event The dead letter event
+     * @return The record headers
+     */
+    static Headers headers(EventEnvelope<DeadLetter> event) {
+        return EventSerde.headers(event);
+    }
+
+    /**
+     * Reads the replay count of a record.
+     *
+     * @param headers Record headers
+     * @return Times the record has been replayed, 0 if never
+     */
+    static int replayCount(Headers headers) {
+        String count = header(headers, REPLAY_COUNT_HEADER);
+        if (count == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null
+                ? new String(header.value(), StandardCharsets.UTF_8)
+                : null;
+    }
+
+    private static String position(RecordMetadata metadata) {
+        return metadata.topic() + "-" + metadata.partition() + "@" + metadata.offset();
+    }
+
+    /** Joins the messages of an exception and its causes, which often name the offending field. */
+    private static String describe(Throwable error) {
+        StringBuilder message = new StringBuilder();
+        for (Throwable cause = error; cause != null && message.length() < MAX_ERROR_MESSAGE_LENGTH;
+                cause = cause.getCause()) {
+            if (message.length() > 0) {
+                message.append("; caused by ").append(cause.getClass().getSimpleName()).append(": ");
+            }
+            message.append(cause.getMessage());
+        }
+        return message.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, MAX_ERROR_MESSAGE_LENGTH)
+                : message.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Risk model scored inside the stream processor, loaded from a file exported
+ * by the ML training pipeline.
+ *
+ * <p>
+ * The compiled model is published through a volatile field, so scoring
+ * threads read it without locking while a daemon thread polls the file and
+ * swaps in new versions. The file is usually the {@code latest.model.json}
+ * symlink written by training, so switching the link to a new export is
+ * picked up like a change to the file itself. A version that fails to load
+ * is logged and the previous one kept.
+ */
+public final class EmbeddedModel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedModel.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path modelFile;
+    private ScheduledExecutorService reloader;
+    private Path loadedPath;
+    private long lastModified = -1L;
+
+    private volatile CompiledModel model;
+
+    /**
+     * Loads a model.
+     *
+     * @param modelFile Exported model file
+     */
+    public EmbeddedModel(Path modelFile) {
+        this.modelFile = modelFile;
+        reload();
+    }
+
+    /**
+     * Polls the model file for changes.
+     *
+     * @param intervalSeconds Poll interval
+     */
+    public void startReloading(long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadIfModified, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the current model.
+     *
+     * @return The model, or null if none has loaded yet
+     */
+    CompiledModel current() {
+        return model;
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    synchronized void reload() {
+        try {
+            Path path = modelFile.toRealPath();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            CompiledModel compiled = CompiledModel.compile(objectMapper.readTree(path.toFile()));
+
+            loadedPath = path;
+            lastModified = modified;
+            model = compiled;
+            log.info("Loaded model {} from {} ({} trees)", compiled.modelId(), path, compiled.trees());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load model from {}, keeping {}: {}", modelFile,
+                    model != null ? "model " + model.modelId() : "rule scoring", e.getMessage());
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            Path path = modelFile.toRealPath();
+            if (!path.equals(loadedPath) || Files.getLastModifiedTime(path).toMillis() != lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to check model file {}: {}", modelFile, e.getMessage());
+        }
+    }
+}
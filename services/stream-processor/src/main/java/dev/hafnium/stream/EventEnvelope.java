@@ -0,0 +1,165 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event envelope as published by the backend services.
+ *
+ * <p>
+ * Identifiers and timestamps are kept as their wire strings, since the stream
+ * processor only passes them through. Fields added by enrichment, and any
+ * envelope fields this class does not know, are held in an extension map that
+ * is written at the top level, so enriching an event never copies it.
+ *
+ * @param <P> The payload type
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventEnvelope<P> {
+
+    @JsonProperty("event_id")
+    private String eventId;
+
+    @JsonProperty("event_type")
+    private String eventType;
+
+    @JsonProperty("trace_id")
+    private String traceId;
+
+    @JsonProperty("tenant_id")
+    private String tenantId;
+
+    @JsonProperty("actor_id")
+    private String actorId;
+
+    @JsonProperty("occurred_at")
+    private String occurredAt;
+
+    @JsonProperty("schema_version")
+    private String schemaVersion;
+
+    @JsonProperty("causation_id")
+    private String causationId;
+
+    @JsonProperty("payload")
+    private P payload;
+
+    private final Map<String, Object> extensions = new LinkedHashMap<>();
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public String getActorId() {
+        return actorId;
+    }
+
+    public void setActorId(String actorId) {
+        this.actorId = actorId;
+    }
+
+    public String getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(String occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public String getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public void setSchemaVersion(String schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+
+    public String getCausationId() {
+        return causationId;
+    }
+
+    public void setCausationId(String causationId) {
+        this.causationId = causationId;
+    }
+
+    public P getPayload() {
+        return payload;
+    }
+
+    public void setPayload(P payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Returns fields outside the envelope schema, including enrichment.
+     *
+     * @return The extension fields, in insertion order
+     */
+    @JsonAnyGetter
+    public Map<String, Object> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * Adds a top-level field, e.g. an enrichment result.
+     *
+     * @param name  The field name
+     * @param value The field value
+     */
+    @JsonAnySetter
+    public void put(String name, Object value) {
+        extensions.put(name, value);
+    }
+
+    /**
+     * Sets a decoded envelope field by its wire name.
+     *
+     * @param name  The field name
+     * @param value The decoded value
+     */
+    void setField(String name, Object value) {
+        switch (name) {
+            case "event_id" -> eventId = (String) value;
+            case "event_type" -> eventType = (String) value;
+            case "trace_id" -> traceId = (String) value;
+            case "tenant_id" -> tenantId = (String) value;
+            case "actor_id" -> actorId = (String) value;
+            case "occurred_at" -> occurredAt = (String) value;
+            case "schema_version" -> schemaVersion = (String) value;
+            case "causation_id" -> causationId = (String) value;
+            default -> put(name, value);
+        }
+    }
+}
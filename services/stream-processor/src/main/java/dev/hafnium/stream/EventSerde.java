@@ -0,0 +1,145 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import dev.hafnium.common.avro.LocalSchemaRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serde binding event record values directly to typed event classes.
+ *
+ * <p>
+ * JSON values are read from and written to bytes in a single pass, without an
+ * intermediate {@code String} or tree. The shared mapper uses the Blackbird
+ * module, which replaces reflective accessors with generated lambdas.
+ *
+ * <p>
+ * Avro values, recognized by their magic byte, are decoded against the local
+ * schema registry and bound directly to the same classes, so input topics can
+ * switch encoding record by record. Values are always written as JSON.
+ * Event types without an Avro binding only read JSON.
+ *
+ * @param <T> The value type
+ */
+public final class EventSerde<T> implements Serde<T> {
+
+    /** Directory of the local schema registry, defaulting to the bundled copy. */
+    static final String SCHEMA_DIR_ENV = "AVRO_SCHEMA_DIR";
+
+    static final String HEADER_EVENT_TYPE = "event_type";
+    static final String HEADER_TENANT_ID = "tenant_id";
+    static final String HEADER_TRACE_ID = "trace_id";
+    static final String HEADER_SCHEMA_VERSION = "schema_version";
+    static final String HEADER_CONTENT_TYPE = "content_type";
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new BlackbirdModule())
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /** Serde for transaction events. */
+    public static final EventSerde<EventEnvelope<TransactionPayload>> TRANSACTION_EVENT =
+            new EventSerde<>(new TypeReference<>() {
+            }, (topic, data) -> AvroDecoderHolder.DECODER.decode(
+                    topic, data, TransactionPayload::new, TransactionPayload::setField));
+
+    /** Serde for alert events. */
+    public static final EventSerde<EventEnvelope<AlertPayload>> ALERT_EVENT =
+            new EventSerde<>(new TypeReference<>() {
+            }, (topic, data) -> AvroDecoderHolder.DECODER.decode(
+                    topic, data, AlertPayload::new, AlertPayload::setField));
+
+    /** Serde for dead letter events, which are only written as JSON. */
+    public static final EventSerde<EventEnvelope<DeadLetter>> DEAD_LETTER_EVENT =
+            new EventSerde<>(new TypeReference<>() {
+            }, null);
+
+    /** Serde for case events, which are only written as JSON. */
+    public static final EventSerde<EventEnvelope<CaseProposal>> CASE_EVENT =
+            new EventSerde<>(new TypeReference<>() {
+            }, null);
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final Deserializer<T> avroDeserializer;
+
+    private EventSerde(TypeReference<T> type, Deserializer<T> avroDeserializer) {
+        JavaType javaType = MAPPER.getTypeFactory().constructType(type);
+        this.reader = MAPPER.readerFor(javaType);
+        this.writer = MAPPER.writerFor(javaType);
+        this.avroDeserializer = avroDeserializer;
+    }
+
+    /**
+     * Builds the headers of a JSON event record written by the processor.
+     *
+     * @param event The event
+     * @return Headers carrying the event type, tenant, trace and schema version,
+     *         where present
+     */
+    static Headers headers(EventEnvelope<?> event) {
+        Headers headers = new RecordHeaders();
+        addIfPresent(headers, HEADER_EVENT_TYPE, event.getEventType());
+        addIfPresent(headers, HEADER_TENANT_ID, event.getTenantId());
+        addIfPresent(headers, HEADER_TRACE_ID, event.getTraceId());
+        addIfPresent(headers, HEADER_SCHEMA_VERSION, event.getSchemaVersion());
+        headers.add(HEADER_CONTENT_TYPE, "application/json".getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private static void addIfPresent(Headers headers, String key, String value) {
+        if (value != null) {
+            headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return (topic, value) -> {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return writer.writeValueAsBytes(value);
+            } catch (IOException e) {
+                throw new SerializationException("Failed to serialize value for topic " + topic, e);
+            }
+        };
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            try {
+                if (avroDeserializer != null && AvroEnvelopeDecoder.isAvro(data)) {
+                    return avroDeserializer.deserialize(topic, data);
+                }
+                return reader.readValue(data);
+            } catch (IOException e) {
+                throw new SerializationException("Failed to deserialize value from topic " + topic, e);
+            }
+        };
+    }
+
+    /** Loads the schema registry on the first Avro value. */
+    private static final class AvroDecoderHolder {
+
+        static final AvroEnvelopeDecoder DECODER = new AvroEnvelopeDecoder(LocalSchemaRegistry.load(
+                System.getenv().getOrDefault(SCHEMA_DIR_ENV, "classpath:avro")));
+    }
+}
@@ -0,0 +1,149 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.hafnium.common.model.money.FxConversion;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Versioned FX rate table for normalizing amounts to a base currency.
+ *
+ * <p>
+ * Uses the same JSON rate file and the same {@link FxConversion} as the
+ * monitoring service, so both agree on base amounts. The table is an
+ * immutable snapshot published through a volatile field, so scoring threads
+ * read it without locking while a daemon thread polls the file and swaps in
+ * new versions.
+ */
+public final class FxRates implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRates.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseCurrency;
+    private final Path ratesFile;
+    private ScheduledExecutorService reloader;
+    private volatile long lastModified = -1L;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a rate table.
+     *
+     * @param baseCurrency ISO 4217 code of the base currency
+     * @param ratesFile    Rate file, or null to only know the base currency
+     */
+    public FxRates(String baseCurrency, Path ratesFile) {
+        this.baseCurrency = baseCurrency;
+        this.ratesFile = ratesFile;
+        this.snapshot = new Snapshot("identity", Map.of(baseCurrency, FxConversion.RATE_SCALE));
+        if (ratesFile != null) {
+            reload();
+        }
+    }
+
+    /**
+     * Polls the rate file for changes.
+     *
+     * @param intervalSeconds Poll interval
+     */
+    public void startReloading(long intervalSeconds) {
+        if (ratesFile == null || intervalSeconds <= 0) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-rate-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadIfModified, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Converts an amount in minor units into the base currency.
+     *
+     * @param units    The amount in minor units
+     * @param currency ISO 4217 code of the amount's currency
+     * @return The base currency amount at the same exponent, or empty if
+     *         the currency has no rate
+     * @throws ArithmeticException if the converted amount overflows
+     */
+    public OptionalLong toBase(long units, String currency) {
+        if (baseCurrency.equals(currency)) {
+            return OptionalLong.of(units);
+        }
+        Long rate = currency != null ? snapshot.rates().get(currency) : null;
+        if (rate == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(FxConversion.convert(units, rate));
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public String version() {
+        return snapshot.version();
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    synchronized void reload() {
+        try {
+            JsonNode root = objectMapper.readTree(ratesFile.toFile());
+            String fileBase = root.path("base_currency").asText(baseCurrency);
+            if (!fileBase.equals(baseCurrency)) {
+                throw new IllegalArgumentException(
+                        "Rate file base currency " + fileBase + " does not match configured " + baseCurrency);
+            }
+
+            Map<String, Long> rates = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = root.path("rates").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                rates.put(field.getKey().toUpperCase(),
+                        FxConversion.toFixedPoint(field.getKey(), new BigDecimal(field.getValue().asText())));
+            }
+            rates.put(baseCurrency, FxConversion.RATE_SCALE);
+
+            lastModified = Files.getLastModifiedTime(ratesFile).toMillis();
+            snapshot = new Snapshot(root.path("version").asText("unversioned"), Map.copyOf(rates));
+            log.info("Loaded FX rate table version {} ({} currencies, base {})",
+                    snapshot.version(), rates.size(), baseCurrency);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load FX rates from {}, keeping version {}: {}",
+                    ratesFile, snapshot.version(), e.getMessage());
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(ratesFile).toMillis() != lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to check FX rate file {}: {}", ratesFile, e.getMessage());
+        }
+    }
+
+    private record Snapshot(String version, Map<String, Long> rates) {
+    }
+}
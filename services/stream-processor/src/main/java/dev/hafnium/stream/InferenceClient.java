@@ -0,0 +1,123 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous client of the batch prediction endpoint of the inference
+ * service.
+ *
+ * <p>
+ * Requests never block the calling thread; responses are parsed on the HTTP
+ * client's executor and returned in request order.
+ */
+final class InferenceClient {
+
+    private static final String BATCH_PATH = "/predict/batch";
+
+    private static final ObjectWriter REQUEST_WRITER = EventSerde.MAPPER.writerFor(BatchRequest.class);
+    private static final ObjectReader RESPONSE_READER = EventSerde.MAPPER.readerFor(BatchResponse.class);
+
+    private final HttpClient http;
+    private final URI batchUri;
+    private final Duration timeout;
+
+    InferenceClient(URI serviceUri, Duration timeout) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.batchUri = URI.create(serviceUri.toString().replaceAll("/+$", "") + BATCH_PATH);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Requests scores for a batch of entities.
+     *
+     * @param entityIds Entity identifiers
+     * @param features  Features of each entity, in {@link ModelFeatures#NAMES}
+     *                  order
+     * @return The scores in request order; completes exceptionally if the
+     *         request fails, times out or returns a malformed response
+     */
+    CompletableFuture<Predictions> predict(List<String> entityIds, List<double[]> features) {
+        List<PredictionRequest> requests = new ArrayList<>(entityIds.size());
+        for (int i = 0; i < entityIds.size(); i++) {
+            requests.add(new PredictionRequest(entityIds.get(i), ModelFeatures.toMap(features.get(i))));
+        }
+        byte[] body;
+        try {
+            body = REQUEST_WRITER.writeValueAsBytes(new BatchRequest(requests));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(batchUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> parse(response, entityIds.size()));
+    }
+
+    private Predictions parse(HttpResponse<byte[]> response, int expected) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Inference service returned HTTP " + response.statusCode());
+        }
+        BatchResponse batch;
+        try {
+            batch = RESPONSE_READER.readValue(response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed inference response", e);
+        }
+        if (batch.predictions() == null || batch.predictions().size() != expected) {
+            throw new IllegalStateException("Inference service returned "
+                    + (batch.predictions() == null ? 0 : batch.predictions().size()) + " scores for " + expected
+                    + " requests");
+        }
+        double[] scores = new double[expected];
+        for (int i = 0; i < expected; i++) {
+            scores[i] = batch.predictions().get(i).riskScore();
+        }
+        return new Predictions(scores, batch.predictions().isEmpty() ? null : batch.predictions().get(0).modelId());
+    }
+
+    /**
+     * Scores of one batch.
+     *
+     * @param scores  Scores in request order, in [0, 1]
+     * @param modelId Identifier of the model that produced them
+     */
+    record Predictions(double[] scores, String modelId) {
+    }
+
+    private record PredictionRequest(
+            @JsonProperty("entity_id") String entityId,
+            @JsonProperty("features") Map<String, Double> features) {
+    }
+
+    private record BatchRequest(@JsonProperty("requests") List<PredictionRequest> requests) {
+    }
+
+    private record PredictionResponse(
+            @JsonProperty("risk_score") double riskScore,
+            @JsonProperty("model_id") String modelId) {
+    }
+
+    private record BatchResponse(@JsonProperty("predictions") List<PredictionResponse> predictions) {
+    }
+}
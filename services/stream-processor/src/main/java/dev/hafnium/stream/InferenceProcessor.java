@@ -0,0 +1,311 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scores transactions with the inference service without blocking the stream
+ * thread on each request.
+ *
+ * <p>
+ * Transactions are collected into batches of
+ * {@link InferenceSettings#batchSize()} or whatever arrived within
+ * {@link InferenceSettings#linger()}, and each batch is sent asynchronously,
+ * with at most {@link InferenceSettings#maxInFlight()} requests outstanding.
+ * Completed batches are emitted from {@link #process} and a wall-clock
+ * punctuator strictly in arrival order. A batch that fails or exceeds
+ * {@link InferenceSettings#timeout()} keeps the rule score already on the
+ * event. The stream thread only blocks when a full batch is waiting and every
+ * request slot is taken, which bounds both memory and latency.
+ *
+ * <p>
+ * Transactions wait in a changelogged store until emitted, so one whose
+ * input offset was committed while its batch was still in flight is scored
+ * after a restart or rebalance rather than lost. Headers of such recovered
+ * transactions are not kept.
+ */
+final class InferenceProcessor
+        implements Processor<String, ScoredTransaction, String, EventEnvelope<TransactionPayload>> {
+
+    private static final Logger log = LoggerFactory.getLogger(InferenceProcessor.class);
+
+    static final String BUFFER_STORE = "inference-buffer-store";
+
+    private static final long FAILURE_LOG_INTERVAL_MS = 10_000L;
+
+    private final InferenceClient client;
+    private final InferenceSettings settings;
+
+    private final ArrayDeque<Pending> queued = new ArrayDeque<>();
+    private final ArrayDeque<Batch> inFlight = new ArrayDeque<>();
+
+    private ProcessorContext<String, EventEnvelope<TransactionPayload>> context;
+    private KeyValueStore<Long, PendingInference> buffer;
+    private Cancellable punctuator;
+    private Sensor fallbacks;
+    private Timer latency;
+    private long nextSequence;
+    private long lastFailureLogMs;
+    private long suppressedFailures;
+
+    InferenceProcessor(InferenceClient client, InferenceSettings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Builds the store of transactions waiting for a score.
+     *
+     * @return The store builder
+     */
+    static StoreBuilder<KeyValueStore<Long, PendingInference>> bufferStore() {
+        // Only in-flight transactions are held, so the store stays small enough for memory
+        return Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(BUFFER_STORE), Serdes.Long(), PendingInference.SERDE);
+    }
+
+    @Override
+    public void init(ProcessorContext<String, EventEnvelope<TransactionPayload>> context) {
+        this.context = context;
+        this.buffer = context.getStateStore(BUFFER_STORE);
+        this.fallbacks = context.metrics().addRateTotalSensor(TopologyMetrics.SCOPE,
+                TransactionScoringTopology.TOPOLOGY, "inference-fallbacks", Sensor.RecordingLevel.INFO);
+        this.latency = new TopologyMetrics(context.metrics(), TransactionScoringTopology.TOPOLOGY)
+                .stageLatency("inference");
+
+        // Sequence numbers are big-endian, so the store iterates in arrival order
+        try (KeyValueIterator<Long, PendingInference> pending = buffer.all()) {
+            while (pending.hasNext()) {
+                KeyValue<Long, PendingInference> entry = pending.next();
+                queued.add(new Pending(entry.key, entry.value, null, 0L));
+                nextSequence = entry.key + 1;
+            }
+        }
+        if (!queued.isEmpty()) {
+            log.info("Recovered {} transactions awaiting inference in task {}", queued.size(), context.taskId());
+        }
+
+        long interval = Math.max(1L, settings.linger().toMillis());
+        this.punctuator = context.schedule(Duration.ofMillis(interval), PunctuationType.WALL_CLOCK_TIME,
+                this::pump);
+    }
+
+    @Override
+    public void process(Record<String, ScoredTransaction> record) {
+        long sequence = nextSequence++;
+        PendingInference pending = new PendingInference(record.key(), record.timestamp(), record.value());
+        buffer.put(sequence, pending);
+
+        long now = context.currentSystemTimeMs();
+        queued.add(new Pending(sequence, pending, record.headers(), now));
+        pump(now);
+
+        // Backpressure: wait for the oldest request rather than queue without bound
+        while (queued.size() >= settings.batchSize() && inFlight.size() >= settings.maxInFlight()) {
+            Batch oldest = inFlight.poll();
+            await(oldest, now);
+            emit(oldest);
+            pump(now);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (punctuator != null) {
+            punctuator.cancel();
+        }
+        // Unemitted transactions stay in the buffer store and are scored by the next owner of the task
+        inFlight.forEach(batch -> batch.result().cancel(true));
+        inFlight.clear();
+        queued.clear();
+    }
+
+    /** Emits finished batches in order, then sends batches that are full or have waited long enough. */
+    private void pump(long now) {
+        while (!inFlight.isEmpty()) {
+            Batch oldest = inFlight.peek();
+            if (!oldest.result().isDone() && now < oldest.deadlineMs()) {
+                break;
+            }
+            inFlight.poll();
+            emit(oldest);
+        }
+
+        while (!queued.isEmpty() && inFlight.size() < settings.maxInFlight()
+                && (queued.size() >= settings.batchSize()
+                        || now - queued.peek().queuedAtMs() >= settings.linger().toMillis())) {
+            send(now);
+        }
+    }
+
+    private void send(long now) {
+        int size = Math.min(queued.size(), settings.batchSize());
+        List<Pending> items = new ArrayList<>(size);
+        List<String> entityIds = new ArrayList<>(size);
+        List<double[]> features = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Pending item = queued.poll();
+            items.add(item);
+            entityIds.add(entityId(item.inference()));
+            features.add(item.inference().scored().features());
+        }
+        inFlight.add(new Batch(items, client.predict(entityIds, features), now + settings.timeout().toMillis()));
+    }
+
+    /**
+     * Blocks until a batch completes or reaches its deadline. The stream
+     * thread's clock does not advance while it blocks, so the wait is timed
+     * from the given time.
+     */
+    private static void await(Batch batch, long now) {
+        long remainingMs = batch.deadlineMs() - now;
+        if (remainingMs <= 0) {
+            return;
+        }
+        try {
+            batch.result().get(remainingMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Scored by the rules when emitted
+        }
+    }
+
+    private void emit(Batch batch) {
+        long now = context.currentSystemTimeMs();
+        InferenceClient.Predictions predictions = null;
+        if (batch.result().isDone() && !batch.result().isCompletedExceptionally()) {
+            predictions = batch.result().join();
+        } else {
+            logFailure(batch);
+            batch.result().cancel(true);
+        }
+
+        for (int i = 0; i < batch.items().size(); i++) {
+            Pending item = batch.items().get(i);
+            ScoredTransaction scored = item.inference().scored();
+            EventEnvelope<TransactionPayload> event = scored.event();
+            double modelScore = predictions != null ? predictions.scores()[i] : Double.NaN;
+            if (modelScore >= 0.0 && modelScore <= 1.0) {
+                TransactionScoringTopology.applyModelScore(event, scored.ruleScore(), modelScore,
+                        predictions.modelId());
+            } else {
+                fallbacks.record();
+                event.put("score_source", "rules");
+            }
+
+            Headers headers = item.headers() != null ? item.headers() : new RecordHeaders();
+            context.forward(new Record<>(item.inference().key(), event, item.inference().timestamp(), headers));
+            buffer.delete(item.sequence());
+            if (item.headers() != null) {
+                // Time from queueing to emitting; recovered transactions have no queue time
+                latency.record(now - item.queuedAtMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void logFailure(Batch batch) {
+        long now = context.currentSystemTimeMs();
+        if (now - lastFailureLogMs < FAILURE_LOG_INTERVAL_MS) {
+            suppressedFailures++;
+            return;
+        }
+        String reason = batch.result().isDone()
+                ? batch.result().handle((result, failure) -> String.valueOf(failure)).join()
+                : "timed out after " + settings.timeout().toMillis() + " ms";
+        log.warn("Inference for a batch of {} transactions failed ({}), scoring with rules; {} more failed batches "
+                + "since the last warning", batch.items().size(), reason, suppressedFailures);
+        lastFailureLogMs = now;
+        suppressedFailures = 0;
+    }
+
+    private static String entityId(PendingInference inference) {
+        TransactionPayload transaction = inference.scored().event().getPayload();
+        Object txnId = transaction != null ? transaction.getOtherFields().get("txn_id") : null;
+        return txnId != null ? txnId.toString() : String.valueOf(inference.key());
+    }
+
+    /**
+     * A transaction queued or in flight.
+     *
+     * @param sequence   Key in the buffer store
+     * @param inference  The stored transaction
+     * @param headers    Record headers, or null if recovered from the store
+     * @param queuedAtMs Wall-clock time the transaction was queued
+     */
+    private record Pending(long sequence, PendingInference inference, Headers headers, long queuedAtMs) {
+    }
+
+    /**
+     * A batch sent to the inference service.
+     *
+     * @param items      Transactions in send order
+     * @param result     The pending scores
+     * @param deadlineMs Wall-clock time after which the batch is scored by
+     *                   the rules
+     */
+    private record Batch(List<Pending> items, CompletableFuture<InferenceClient.Predictions> result,
+            long deadlineMs) {
+    }
+
+    /**
+     * A transaction awaiting its model score, as kept in the buffer store.
+     *
+     * @param key       Record key
+     * @param timestamp Record timestamp
+     * @param scored    The rule-scored transaction
+     */
+    record PendingInference(
+            @JsonProperty("key") String key,
+            @JsonProperty("timestamp") long timestamp,
+            @JsonProperty("scored") ScoredTransaction scored) {
+
+        private static final ObjectWriter WRITER = EventSerde.MAPPER.writerFor(PendingInference.class);
+        private static final ObjectReader READER = EventSerde.MAPPER.readerFor(PendingInference.class);
+
+        static final Serde<PendingInference> SERDE = Serdes.serdeFrom(
+                (topic, value) -> {
+                    try {
+                        return value != null ? WRITER.writeValueAsBytes(value) : null;
+                    } catch (IOException e) {
+                        throw new SerializationException("Failed to serialize pending inference", e);
+                    }
+                },
+                (topic, data) -> {
+                    try {
+                        return data != null ? READER.readValue(data) : null;
+                    } catch (IOException e) {
+                        throw new SerializationException("Failed to deserialize pending inference", e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,27 @@
+package dev.hafnium.stream;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Settings of the model inference stage of transaction scoring.
+ *
+ * @param serviceUri  Base URI of the inference service
+ * @param batchSize   Transactions per inference request
+ * @param linger      Longest a transaction waits for its batch to fill
+ * @param maxInFlight Inference requests in flight per task; further batches
+ *                    wait, and the stream thread blocks once a full batch is
+ *                    waiting
+ * @param timeout     Time after which a batch is scored by the rules instead
+ */
+record InferenceSettings(URI serviceUri, int batchSize, Duration linger, int maxInFlight, Duration timeout) {
+
+    InferenceSettings {
+        if (batchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Inference batch size and in-flight limit must be positive");
+        }
+        if (linger.isNegative() || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Inference linger must not be negative and timeout must be positive");
+        }
+    }
+}
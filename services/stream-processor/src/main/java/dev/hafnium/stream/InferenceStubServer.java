@@ -0,0 +1,129 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stand-in for the inference service's batch prediction endpoint, for running
+ * the stream processor locally without the Python service or a model.
+ *
+ * <p>
+ * Scores are a fixed function of the features, so results are reproducible.
+ * The {@code --latency-ms} and {@code --failure-rate} options simulate a slow
+ * or flaky service to exercise batching and the rule-score fallback:
+ *
+ * <pre>
+ * java -cp hafnium-stream-processor.jar dev.hafnium.stream.InferenceStubServer --port=8000 --latency-ms=20
+ * </pre>
+ */
+public final class InferenceStubServer {
+
+    private static final Logger log = LoggerFactory.getLogger(InferenceStubServer.class);
+
+    private static final String MODEL_ID = "stub";
+
+    private final long latencyMs;
+    private final double failureRate;
+
+    private InferenceStubServer(long latencyMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8000;
+        long latencyMs = 0;
+        double failureRate = 0.0;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--latency-ms=")) {
+                latencyMs = Long.parseLong(value);
+            } else if (arg.startsWith("--failure-rate=")) {
+                failureRate = Double.parseDouble(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        start(port, latencyMs, failureRate);
+        log.info("Inference stub listening on port {} (latency {} ms, failure rate {})", port, latencyMs,
+                failureRate);
+    }
+
+    /**
+     * Starts a stub server.
+     *
+     * @param port        Port to listen on, or 0 for any free port
+     * @param latencyMs   Delay added to every response
+     * @param failureRate Share of requests answered with HTTP 503
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     */
+    static HttpServer start(int port, long latencyMs, double failureRate) throws IOException {
+        InferenceStubServer stub = new InferenceStubServer(latencyMs, failureRate);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/predict/batch", stub::predictBatch);
+        server.createContext("/health", exchange -> respond(exchange, 200, "{\"status\":\"healthy\"}".getBytes()));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+
+    private void predictBatch(HttpExchange exchange) throws IOException {
+        JsonNode request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = EventSerde.MAPPER.readTree(in);
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (Math.random() < failureRate) {
+            respond(exchange, 503, "{\"detail\":\"stub failure\"}".getBytes());
+            return;
+        }
+
+        ObjectNode response = EventSerde.MAPPER.createObjectNode();
+        ArrayNode predictions = response.putArray("predictions");
+        for (JsonNode item : request.path("requests")) {
+            double score = score(item.path("features"));
+            predictions.addObject()
+                    .put("entity_id", item.path("entity_id").asText())
+                    .put("risk_score", score)
+                    .put("model_id", MODEL_ID);
+        }
+        respond(exchange, 200, EventSerde.MAPPER.writeValueAsBytes(response));
+    }
+
+    /** Logistic function of a few features, so riskier transactions score higher. */
+    private static double score(JsonNode features) {
+        double z = -3.0
+                + 2.5 * features.path("country_risk_score").asDouble()
+                + 0.3 * features.path("transaction_count_1h").asDouble()
+                + 0.8 * features.path("near_threshold_count_24h").asDouble()
+                + 0.1 * features.path("unique_counterparties").asDouble();
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package dev.hafnium.stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.kafka.KafkaStreamsMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import org.apache.kafka.streams.KafkaStreams;
+
+/**
+ * Serves Prometheus metrics and the health of the stream processor over HTTP.
+ *
+ * <ul>
+ * <li>{@code GET /metrics}: the Prometheus registry, with the Kafka Streams
+ * client metrics (consumer lag, thread, task and processor node rates, and
+ * the {@code hafnium-topology} sensors), stage latency timers, restore meters
+ * and JVM metrics</li>
+ * <li>{@code GET /health}: 200 while the Streams client is running or
+ * rebalancing, 503 otherwise, with the client state in the body</li>
+ * </ul>
+ *
+ * <p>
+ * Meters registered with the global Micrometer registry, such as those of
+ * {@link TopologyMetrics} and {@link StateRestoreMonitor}, are exported too,
+ * since the Prometheus registry is added to it.
+ */
+public final class MetricsServer implements AutoCloseable {
+
+    private final PrometheusMeterRegistry registry;
+    private final KafkaStreamsMetrics streamsMetrics;
+    private final JvmGcMetrics gcMetrics;
+    private final KafkaStreams streams;
+    private final HttpServer server;
+
+    private MetricsServer(PrometheusMeterRegistry registry, KafkaStreamsMetrics streamsMetrics,
+            JvmGcMetrics gcMetrics, KafkaStreams streams, HttpServer server) {
+        this.registry = registry;
+        this.streamsMetrics = streamsMetrics;
+        this.gcMetrics = gcMetrics;
+        this.streams = streams;
+        this.server = server;
+    }
+
+    /**
+     * Binds the metrics of a Streams client and starts serving them.
+     *
+     * @param streams The Streams client
+     * @param port    Port to listen on
+     * @return The running server
+     * @throws IOException if the port cannot be bound
+     */
+    static MetricsServer start(KafkaStreams streams, int port) throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(registry);
+
+        KafkaStreamsMetrics streamsMetrics = new KafkaStreamsMetrics(streams);
+        streamsMetrics.bindTo(registry);
+        JvmGcMetrics gcMetrics = new JvmGcMetrics();
+        gcMetrics.bindTo(registry);
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        MetricsServer metricsServer = new MetricsServer(registry, streamsMetrics, gcMetrics, streams, server);
+        server.createContext("/metrics", metricsServer::scrape);
+        server.createContext("/health", metricsServer::health);
+        // Scrapes and probes are rare, one thread is enough
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return metricsServer;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        streamsMetrics.close();
+        gcMetrics.close();
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, registry.scrape(), "text/plain; version=0.0.4; charset=utf-8");
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        KafkaStreams.State state = streams.state();
+        boolean healthy = state == KafkaStreams.State.RUNNING || state == KafkaStreams.State.REBALANCING;
+        respond(exchange, healthy ? 200 : 503,
+                "{\"status\":\"" + (healthy ? "healthy" : "unhealthy") + "\",\"state\":\"" + state + "\"}",
+                "application/json");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, String contentType)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dev.hafnium.stream;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Model input features of a transaction, as a flat array in {@link #NAMES}
+ * order.
+ *
+ * <p>
+ * Names follow the feature schema of the risk models trained in {@code ml/},
+ * so the inference service binds them unchanged. The stream processor only
+ * keeps {@link TransactionScoringTopology#LONG_WINDOW} of activity, so the
+ * 30-day features are computed over that window; features it cannot compute
+ * at all, such as account age, are left to the model's default of 0.
+ */
+final class ModelFeatures {
+
+    /** Feature names, in array order. */
+    static final List<String> NAMES = List.of(
+            "transaction_count_30d",
+            "avg_amount_30d",
+            "unique_counterparties",
+            "country_risk_score",
+            "transaction_amount",
+            "transaction_count_1h",
+            "near_threshold_count_24h");
+
+    /** Counterparty countries under sanctions, which score as maximum country risk. */
+    static final Set<String> HIGH_RISK_COUNTRIES = Set.of("IR", "KP", "SY");
+
+    private ModelFeatures() {
+    }
+
+    /**
+     * Extracts the features of a transaction.
+     *
+     * @param amount         Base currency amount in minor units
+     * @param amountExponent Decimal places of the minor units
+     * @param country        Counterparty country, or null
+     * @param velocity       The customer's activity including the transaction
+     * @return The features in {@link #NAMES} order
+     */
+    static double[] extract(long amount, int amountExponent, String country, VelocityFeatures velocity) {
+        double unit = Math.pow(10, amountExponent);
+        return new double[] {
+                velocity.countLong(),
+                velocity.countLong() > 0 ? velocity.sumLong() / unit / velocity.countLong() : 0.0,
+                velocity.distinctCounterpartiesLong(),
+                country != null && HIGH_RISK_COUNTRIES.contains(country) ? 1.0 : 0.0,
+                amount / unit,
+                velocity.countShort(),
+                velocity.nearThresholdLong(),
+        };
+    }
+
+    /**
+     * Names the values of a feature array.
+     *
+     * @param features Features in {@link #NAMES} order
+     * @return The features by name
+     */
+    static Map<String, Double> toMap(double[] features) {
+        Map<String, Double> named = new LinkedHashMap<>();
+        for (int i = 0; i < NAMES.size(); i++) {
+            named.put(NAMES.get(i), features[i]);
+        }
+        return named;
+    }
+}
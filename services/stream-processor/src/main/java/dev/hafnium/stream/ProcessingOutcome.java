@@ -0,0 +1,28 @@
+package dev.hafnium.stream;
+
+/**
+ * Result of a topology stage for one record: either the processed value or
+ * the dead letter describing why processing failed.
+ *
+ * <p>
+ * Outcomes only flow between processors of one sub-topology and are never
+ * serialized.
+ *
+ * @param value      The processed value, or null if the stage failed
+ * @param deadLetter The dead letter event, or null if the stage succeeded
+ * @param <V>        The value type
+ */
+record ProcessingOutcome<V>(V value, EventEnvelope<DeadLetter> deadLetter) {
+
+    static <V> ProcessingOutcome<V> success(V value) {
+        return new ProcessingOutcome<>(value, null);
+    }
+
+    static <V> ProcessingOutcome<V> failure(EventEnvelope<DeadLetter> deadLetter) {
+        return new ProcessingOutcome<>(null, deadLetter);
+    }
+
+    boolean failed() {
+        return deadLetter != null;
+    }
+}
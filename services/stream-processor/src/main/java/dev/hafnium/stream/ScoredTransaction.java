@@ -0,0 +1,16 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A transaction scored by the rules, with the features for model scoring.
+ *
+ * @param event     The transaction event, with the rule score already set
+ * @param features  Model features in {@link ModelFeatures#NAMES} order
+ * @param ruleScore Score from the rules, in [0, 1]
+ */
+record ScoredTransaction(
+        @JsonProperty("event") EventEnvelope<TransactionPayload> event,
+        @JsonProperty("features") double[] features,
+        @JsonProperty("rule_score") double ruleScore) {
+}
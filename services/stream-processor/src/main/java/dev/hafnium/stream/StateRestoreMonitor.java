@@ -0,0 +1,132 @@
+package dev.hafnium.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs and measures the restoration of state stores from their changelogs.
+ *
+ * <p>
+ * Restoration is what keeps a task offline after a rebalance when no standby
+ * replica is caught up, so its progress is exported as meters:
+ * <ul>
+ * <li>{@code hafnium.stream.restore.records}: records restored per store,
+ * whose rate is the restore rate</li>
+ * <li>{@code hafnium.stream.restore.remaining}: records still to restore
+ * across all partitions being restored</li>
+ * <li>{@code hafnium.stream.restore.duration}: time to restore one changelog
+ * partition, per store</li>
+ * </ul>
+ *
+ * <p>
+ * Callbacks come from every stream thread, so the state of each partition is
+ * kept in a concurrent map.
+ */
+final class StateRestoreMonitor implements StateRestoreListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StateRestoreMonitor.class);
+
+    private final MeterRegistry registry;
+    private final Map<TopicPartition, Restoration> restorations = new ConcurrentHashMap<>();
+
+    StateRestoreMonitor(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("hafnium.stream.restore.remaining", restorations,
+                active -> active.values().stream().mapToLong(Restoration::remaining).sum())
+                .description("Changelog records still to restore")
+                .register(registry);
+    }
+
+    @Override
+    public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+        long total = Math.max(0L, endingOffset - startingOffset);
+        restorations.put(partition, new Restoration(total, System.nanoTime(),
+                Counter.builder("hafnium.stream.restore.records")
+                        .description("Changelog records restored")
+                        .tag("store", storeName)
+                        .register(registry)));
+        log.info("Restoring store {} from {}: {} records (offsets {} to {})",
+                storeName, partition, total, startingOffset, endingOffset);
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset,
+            long numRestored) {
+        Restoration restoration = restorations.get(partition);
+        if (restoration != null) {
+            restoration.restored(numRestored);
+        }
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+        Restoration restoration = restorations.remove(partition);
+        if (restoration == null) {
+            return;
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - restoration.startNanos());
+        Timer.builder("hafnium.stream.restore.duration")
+                .description("Time to restore a changelog partition")
+                .tag("store", storeName)
+                .register(registry)
+                .record(elapsed);
+        log.info("Restored store {} from {}: {} records in {} ms ({} records/s)", storeName, partition,
+                totalRestored, elapsed.toMillis(), recordsPerSecond(totalRestored, elapsed));
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition partition, String storeName, long totalRestored) {
+        Restoration restoration = restorations.remove(partition);
+        if (restoration != null) {
+            log.info("Suspended restoring store {} from {} after {} of {} records, as the task moved",
+                    storeName, partition, totalRestored, restoration.total());
+        }
+    }
+
+    private static long recordsPerSecond(long records, Duration elapsed) {
+        long millis = Math.max(1L, elapsed.toMillis());
+        return records * 1000L / millis;
+    }
+
+    /** Progress of one changelog partition. */
+    private static final class Restoration {
+
+        private final long total;
+        private final long startNanos;
+        private final Counter counter;
+        private volatile long restored;
+
+        Restoration(long total, long startNanos, Counter counter) {
+            this.total = total;
+            this.startNanos = startNanos;
+            this.counter = counter;
+        }
+
+        // Only the thread restoring the partition writes
+        void restored(long records) {
+            restored += records;
+            counter.increment(records);
+        }
+
+        long remaining() {
+            return Math.max(0L, total - restored);
+        }
+
+        long total() {
+            return total;
+        }
+
+        long startNanos() {
+            return startNanos;
+        }
+    }
+}
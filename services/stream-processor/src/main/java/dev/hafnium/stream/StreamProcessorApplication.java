@@ -1,12 +1,23 @@
 package dev.hafnium.stream;
 
+import io.micrometer.core.instrument.Metrics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.state.HostInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 
@@ -19,19 +30,31 @@ public class StreamProcessorApplication {
     private static final Logger log = LoggerFactory.getLogger(StreamProcessorApplication.class);
 
     public static void main(String[] args) {
-        Properties props = createStreamProperties();
-        Topology topology = buildTopology();
+        HostInfo queryHost = queryHost();
+        Properties props = createStreamProperties(queryHost);
+        FxRates fxRates = createFxRates();
+        EmbeddedModel model = createEmbeddedModel();
+        Topology topology = buildTopology(fxRates, model, createInferenceSettings(model));
 
         log.info("Starting Hafnium Stream Processor");
         log.info("Topology: {}", topology.describe());
 
         KafkaStreams streams = new KafkaStreams(topology, props);
+        streams.setGlobalStateRestoreListener(new StateRestoreMonitor(Metrics.globalRegistry));
+        MetricsServer metricsServer = startMetricsServer(streams);
+        CustomerStateServer stateServer = startStateServer(streams, queryHost);
 
         CountDownLatch latch = new CountDownLatch(1);
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.info("Shutting down stream processor");
             streams.close();
+            metricsServer.close();
+            stateServer.close();
+            fxRates.close();
+            if (model != null) {
+                model.close();
+            }
             latch.countDown();
         }));
 
@@ -44,7 +67,7 @@ public class StreamProcessorApplication {
         }
     }
 
-    private static Properties createStreamProperties() {
+    private static Properties createStreamProperties(HostInfo queryHost) {
         Properties props = new Properties();
         props.put(StreamsConfig.APPLICATION_ID_CONFIG,
                 getEnv("APPLICATION_ID", "hafnium-stream-processor"));
@@ -54,22 +77,135 @@ public class StreamProcessorApplication {
                 "org.apache.kafka.common.serialization.Serdes$StringSerde");
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG,
                 "org.apache.kafka.common.serialization.Serdes$StringSerde");
+        // Values are decoded inside the topologies and dead-lettered there; this only covers keys
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+                LogAndContinueExceptionHandler.class);
         props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG,
-                StreamsConfig.EXACTLY_ONCE_V2);
+                getEnv("PROCESSING_GUARANTEE", StreamsConfig.EXACTLY_ONCE_V2));
         props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG,
                 Integer.parseInt(getEnv("NUM_THREADS", "2")));
+        putIfSet(props, StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, "COMMIT_INTERVAL_MS");
+        putIfSet(props, StreamsConfig.REPLICATION_FACTOR_CONFIG, "REPLICATION_FACTOR");
+        putIfSet(props, StreamsConfig.STATE_DIR_CONFIG, "STATE_DIR");
+        // Advertised to the other instances, which forward customer state lookups here
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, queryHost.host() + ":" + queryHost.port());
+
+        // Failover: a caught-up standby takes over a task without restoring its stores
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG,
+                Integer.parseInt(getEnv("NUM_STANDBY_REPLICAS", "1")));
+        props.put(StreamsConfig.MAX_WARMUP_REPLICAS_CONFIG,
+                Integer.parseInt(getEnv("MAX_WARMUP_REPLICAS", "2")));
+        props.put(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG,
+                Long.parseLong(getEnv("ACCEPTABLE_RECOVERY_LAG", "10000")));
+        props.put(StreamsConfig.PROBING_REBALANCE_INTERVAL_MS_CONFIG,
+                Long.parseLong(getEnv("PROBING_REBALANCE_INTERVAL_MS", "600000")));
+        // Restoration reads changelogs in bulk, so it polls more records than processing
+        props.put(StreamsConfig.restoreConsumerPrefix(ConsumerConfig.MAX_POLL_RECORDS_CONFIG),
+                Integer.parseInt(getEnv("RESTORE_MAX_POLL_RECORDS", "10000")));
+
+        // State stores
+        props.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG,
+                Long.parseLong(getEnv("CACHE_MAX_BYTES", "10485760")));
+        props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedRocksDBConfig.class);
+        props.put(BoundedRocksDBConfig.TOTAL_MEMORY_CONFIG,
+                Long.parseLong(getEnv("ROCKSDB_MEMORY_MB", "256")) * 1024 * 1024);
+        props.put(BoundedRocksDBConfig.WRITE_BUFFER_MEMORY_CONFIG,
+                Long.parseLong(getEnv("ROCKSDB_WRITE_BUFFER_MB", "64")) * 1024 * 1024);
         return props;
     }
 
-    private static Topology buildTopology() {
+    private static void putIfSet(Properties props, String key, String envKey) {
+        String value = System.getenv(envKey);
+        if (value != null && !value.isBlank()) {
+            props.put(key, value);
+        }
+    }
+
+    private static MetricsServer startMetricsServer(KafkaStreams streams) {
+        int port = Integer.parseInt(getEnv("METRICS_PORT", "8080"));
+        try {
+            MetricsServer server = MetricsServer.start(streams, port);
+            log.info("Serving /metrics and /health on port {}", port);
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start metrics server on port " + port, e);
+        }
+    }
+
+    private static HostInfo queryHost() {
+        String server = System.getenv("APPLICATION_SERVER");
+        if (server != null && !server.isBlank()) {
+            return HostInfo.buildFromEndpoint(server);
+        }
+        int port = Integer.parseInt(getEnv("QUERY_PORT", "8081"));
+        try {
+            return new HostInfo(InetAddress.getLocalHost().getHostName(), port);
+        } catch (UnknownHostException e) {
+            throw new UncheckedIOException("Failed to resolve the host name; set APPLICATION_SERVER", e);
+        }
+    }
+
+    private static CustomerStateServer startStateServer(KafkaStreams streams, HostInfo queryHost) {
+        try {
+            CustomerStateServer server = CustomerStateServer.start(streams, queryHost);
+            log.info("Serving customer state on port {}, advertised as {}:{}", queryHost.port(), queryHost.host(),
+                    queryHost.port());
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start customer state server on port " + queryHost.port(), e);
+        }
+    }
+
+    private static FxRates createFxRates() {
+        String ratesFile = System.getenv("FX_RATES_FILE");
+        FxRates fxRates = new FxRates(
+                getEnv("FX_BASE_CURRENCY", "USD"),
+                ratesFile != null ? Path.of(ratesFile) : null);
+        fxRates.startReloading(Long.parseLong(getEnv("FX_RELOAD_SECONDS", "300")));
+        return fxRates;
+    }
+
+    private static EmbeddedModel createEmbeddedModel() {
+        String modelFile = System.getenv("MODEL_FILE");
+        if (modelFile == null || modelFile.isBlank()) {
+            return null;
+        }
+        EmbeddedModel model = new EmbeddedModel(Path.of(modelFile));
+        model.startReloading(Long.parseLong(getEnv("MODEL_RELOAD_SECONDS", "60")));
+        return model;
+    }
+
+    private static InferenceSettings createInferenceSettings(EmbeddedModel model) {
+        if (model != null) {
+            log.info("MODEL_FILE set, scoring transactions in-process rather than with the inference service");
+            return null;
+        }
+        String serviceUrl = System.getenv("INFERENCE_SERVICE_URL");
+        if (serviceUrl == null || serviceUrl.isBlank()) {
+            log.info("INFERENCE_SERVICE_URL not set, scoring transactions with rules only");
+            return null;
+        }
+        return new InferenceSettings(
+                URI.create(serviceUrl),
+                Integer.parseInt(getEnv("INFERENCE_BATCH_SIZE", "64")),
+                Duration.ofMillis(Long.parseLong(getEnv("INFERENCE_LINGER_MS", "10"))),
+                Integer.parseInt(getEnv("INFERENCE_MAX_IN_FLIGHT", "4")),
+                Duration.ofMillis(Long.parseLong(getEnv("INFERENCE_TIMEOUT_MS", "250"))));
+    }
+
+    private static Topology buildTopology(FxRates fxRates, EmbeddedModel model, InferenceSettings inference) {
         StreamsBuilder builder = new StreamsBuilder();
 
         // Transaction scoring topology
-        TransactionScoringTopology.build(builder);
+        TransactionScoringTopology.build(builder, fxRates, model, inference);
 
         // Alert enrichment topology
         AlertEnrichmentTopology.build(builder);
 
+        // Alert-to-case grouping topology
+        CaseGroupingTopology.build(builder,
+                Duration.ofMinutes(Long.parseLong(getEnv("CASE_LINGER_MINUTES", "15"))));
+
         return builder.build();
     }
 
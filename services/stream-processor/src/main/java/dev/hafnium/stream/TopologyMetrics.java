@@ -0,0 +1,72 @@
+package dev.hafnium.stream;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.streams.StreamsMetrics;
+
+/**
+ * Record and dead letter rates of a topology.
+ *
+ * <p>
+ * The sensors are registered with the Kafka Streams metrics of the calling
+ * stream thread, in group {@code stream-hafnium-topology-metrics} with tags
+ * {@code thread-id} and {@code hafnium-topology-id}, as
+ * {@code records-rate}/{@code records-total} and
+ * {@code dead-letters-rate}/{@code dead-letters-total}. They are shared by all
+ * tasks and stages of the topology on the thread, so the failure rate of a
+ * topology is the dead letter rate over the record rate, summed across
+ * threads.
+ *
+ * <p>
+ * Stage latencies are Micrometer timers in the global registry, named
+ * {@code hafnium.stream.stage.latency} with tags {@code topology} and
+ * {@code stage}, and published as histograms so percentiles can be
+ * aggregated across instances.
+ */
+final class TopologyMetrics {
+
+    static final String SCOPE = "hafnium-topology";
+
+    private static final Duration MIN_LATENCY = Duration.ofNanos(10_000);
+    private static final Duration MAX_LATENCY = Duration.ofSeconds(10);
+
+    private final String topology;
+    private final Sensor records;
+    private final Sensor deadLetters;
+
+    TopologyMetrics(StreamsMetrics metrics, String topology) {
+        this.topology = topology;
+        this.records = metrics.addRateTotalSensor(SCOPE, topology, "records", Sensor.RecordingLevel.INFO);
+        this.deadLetters = metrics.addRateTotalSensor(SCOPE, topology, "dead-letters", Sensor.RecordingLevel.INFO);
+    }
+
+    /** Records an input record; only the first stage of a topology calls this. */
+    void recordInput() {
+        records.record();
+    }
+
+    /** Records a record routed to the dead letter topic by any stage. */
+    void recordDeadLetter() {
+        deadLetters.record();
+    }
+
+    /**
+     * Returns the latency timer of a stage. A stage's time includes the
+     * processors it forwards to, up to the next repartition or output topic.
+     *
+     * @param stage The stage
+     * @return The timer
+     */
+    Timer stageLatency(String stage) {
+        return Timer.builder("hafnium.stream.stage.latency")
+                .description("Time a record spends in a stage of a topology")
+                .tag("topology", topology)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_LATENCY)
+                .register(Metrics.globalRegistry);
+    }
+}
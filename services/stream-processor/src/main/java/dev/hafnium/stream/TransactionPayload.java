@@ -0,0 +1,104 @@
+package dev.hafnium.stream;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payload of a transaction event.
+ *
+ * <p>
+ * Only the fields used for scoring are bound; all others are passed through
+ * unchanged.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionPayload {
+
+    @JsonProperty("customer_id")
+    private String customerId;
+
+    @JsonProperty("amount")
+    private BigDecimal amount;
+
+    @JsonProperty("currency")
+    private String currency;
+
+    @JsonProperty("counterparty_id")
+    private String counterpartyId;
+
+    @JsonProperty("counterparty_country")
+    private String counterpartyCountry;
+
+    private final Map<String, Object> otherFields = new LinkedHashMap<>();
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    public void setCounterpartyId(String counterpartyId) {
+        this.counterpartyId = counterpartyId;
+    }
+
+    public String getCounterpartyCountry() {
+        return counterpartyCountry;
+    }
+
+    public void setCounterpartyCountry(String counterpartyCountry) {
+        this.counterpartyCountry = counterpartyCountry;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getOtherFields() {
+        return otherFields;
+    }
+
+    @JsonAnySetter
+    public void setOtherField(String name, Object value) {
+        otherFields.put(name, value);
+    }
+
+    /**
+     * Sets a decoded field by its wire name.
+     *
+     * @param name  The field name
+     * @param value The decoded value
+     */
+    void setField(String name, Object value) {
+        switch (name) {
+            case "customer_id" -> customerId = (String) value;
+            case "amount" -> amount = (BigDecimal) value;
+            case "currency" -> currency = (String) value;
+            case "counterparty_id" -> counterpartyId = (String) value;
+            case "counterparty_country" -> counterpartyCountry = (String) value;
+            default -> setOtherField(name, value);
+        }
+    }
+}
@@ -1,75 +1,510 @@
 package dev.hafnium.stream;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Kafka Streams topology for transaction scoring.
+ *
+ * <p>
+ * Amounts are parsed as exact decimals and converted once to minor units at
+ * {@link #AMOUNT_EXPONENT} (the scale of the monitoring amount column),
+ * rounding half-even, so
+ * scoring compares longs rather than doubles. Amount thresholds are in the
+ * base currency of the {@link FxRates} table; transactions in a currency
+ * without a rate are scored on their own amount.
+ *
+ * <p>
+ * Transactions are re-keyed by tenant and customer and repartitioned, so each
+ * customer's activity lives in one task's local RocksDB window store. Every
+ * transaction updates its customer's time bucket and folds the buckets of the
+ * last {@link #SHORT_WINDOW} and {@link #LONG_WINDOW} into velocity and
+ * structuring features, without remote lookups.
+ *
+ * <p>
+ * Records are bound to {@link EventEnvelope} by {@link EventSerde}; scoring
+ * results are added to the envelope in place and written out in one pass.
+ * Transactions that fail to decode or score are routed to the dead letter
+ * topic by {@link DeadLetters} with their original bytes.
+ *
+ * <p>
+ * Every transaction is scored by the rules. With an {@link EmbeddedModel},
+ * the scoring stage then refines the score with the model in-process; when
+ * an inference service is configured instead, {@link InferenceProcessor}
+ * refines it remotely in asynchronous batches, keeping the rule score if the
+ * model does not answer in time.
+ *
+ * <p>
+ * The activity store and the {@link #RISK_STORE} of each customer's latest
+ * score are queryable through {@link CustomerStateServer}.
  */
 public class TransactionScoringTopology {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionScoringTopology.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Decimal places of one amount minor unit. */
+    static final int AMOUNT_EXPONENT = 4;
+    private static final long MINOR_UNITS_PER_MAJOR = 10_000L;
+
+    private static final long HIGH_VALUE_MINOR = 10_000L * MINOR_UNITS_PER_MAJOR;
+    private static final long VERY_HIGH_VALUE_MINOR = 50_000L * MINOR_UNITS_PER_MAJOR;
+    private static final long REPORTING_THRESHOLD_MINOR = 10_000L * MINOR_UNITS_PER_MAJOR;
+    private static final long STRUCTURING_RANGE_MINOR = 500L * MINOR_UNITS_PER_MAJOR;
+
+    static final Duration BUCKET_SIZE = Duration.ofMinutes(5);
+    static final Duration SHORT_WINDOW = Duration.ofHours(1);
+    static final Duration LONG_WINDOW = Duration.ofHours(24);
+
+    private static final int VELOCITY_COUNT_SHORT = 5;
+    private static final int STRUCTURING_COUNT_LONG = 2;
+    private static final int FAN_OUT_COUNTERPARTIES_LONG = 10;
+
+    static final String ACTIVITY_STORE = "customer-activity-store";
+    static final String RISK_STORE = "customer-risk-store";
 
     private static final String INPUT_TOPIC = "hf.txn.ingested.v1";
     private static final String OUTPUT_TOPIC = "hf.txn.scored.v1";
 
-    public static void build(StreamsBuilder builder) {
-        KStream<String, String> transactions = builder.stream(INPUT_TOPIC);
+    static final String TOPOLOGY = "transaction-scoring";
+
+    private static final Deserializer<EventEnvelope<TransactionPayload>> DECODER =
+            EventSerde.TRANSACTION_EVENT.deserializer();
+
+    /**
+     * Adds the topology to a builder.
+     *
+     * @param builder   The builder
+     * @param fxRates   Rates to the base currency of the amount thresholds
+     * @param model     Model scored in-process, or null
+     * @param inference Settings of the model inference stage, or null; ignored
+     *                  when a model is scored in-process
+     */
+    public static void build(StreamsBuilder builder, FxRates fxRates, EmbeddedModel model,
+            InferenceSettings inference) {
+        builder.addStateStore(Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(ACTIVITY_STORE, LONG_WINDOW.plus(BUCKET_SIZE), BUCKET_SIZE, false),
+                Serdes.String(),
+                CustomerActivityBucket.SERDE));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(RISK_STORE),
+                Serdes.String(),
+                CustomerRiskState.SERDE));
+
+        KStream<String, byte[]> transactions =
+                builder.stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()));
+
+        // The original bytes are repartitioned, so the scoring stage decodes them once and can still
+        // dead-letter them as produced
+        KStream<String, byte[]> byCustomer = DeadLetters.route(
+                transactions.process(KeyingProcessor::new), TOPOLOGY, "decode");
+
+        KStream<String, ScoredTransaction> scored = DeadLetters.route(
+                byCustomer
+                        .repartition(Repartitioned.<String, byte[]>as("txn-by-customer")
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(Serdes.ByteArray()))
+                        .processValues(() -> new ScoringProcessor(fxRates, model), ACTIVITY_STORE),
+                TOPOLOGY, "score");
 
-        transactions
-                .mapValues(TransactionScoringTopology::enrichWithScore)
-                .filter((key, value) -> value != null)
+        KStream<String, EventEnvelope<TransactionPayload>> output;
+        if (inference != null && model == null) {
+            builder.addStateStore(InferenceProcessor.bufferStore());
+            InferenceClient client = new InferenceClient(inference.serviceUri(), inference.timeout());
+            output = scored.process(() -> new InferenceProcessor(client, inference), InferenceProcessor.BUFFER_STORE);
+        } else {
+            output = scored.mapValues(ScoredTransaction::event);
+        }
+
+        output
+                .processValues(RiskStateProcessor::new, RISK_STORE)
                 .peek((key, value) -> log.debug("Scored transaction: key={}", key))
-                .to(OUTPUT_TOPIC);
+                .to(OUTPUT_TOPIC, Produced.with(Serdes.String(), EventSerde.TRANSACTION_EVENT));
+    }
+
+    /**
+     * Keys a raw transaction by tenant and customer, keeping the original key
+     * for transactions without a customer.
+     *
+     * <p>
+     * JSON values are only scanned for the tenant and customer identifiers;
+     * other fields are skipped unbound and checked when the scoring stage
+     * decodes the transaction. Avro values are decoded in full.
+     *
+     * @throws IOException if the value is not a JSON object
+     */
+    static String customerKey(String key, byte[] value) throws IOException {
+        if (value == null) {
+            throw new SerializationException("Transaction record has no value");
+        }
+        if (AvroEnvelopeDecoder.isAvro(value)) {
+            EventEnvelope<TransactionPayload> event = decode(value);
+            TransactionPayload transaction = event.getPayload();
+            return transaction != null
+                    ? customerKey(key, event.getTenantId(), transaction.getCustomerId())
+                    : key;
+        }
+
+        String tenantId = null;
+        String customerId = null;
+        boolean payloadRead = false;
+        try (JsonParser parser = EventSerde.MAPPER.getFactory().createParser(value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new SerializationException("Transaction record is not a JSON object");
+            }
+            while ((tenantId == null || !payloadRead) && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("tenant_id".equals(field) && token == JsonToken.VALUE_STRING) {
+                    tenantId = parser.getText();
+                } else if ("payload".equals(field) && token == JsonToken.START_OBJECT) {
+                    customerId = readCustomerId(parser);
+                    payloadRead = true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return customerKey(key, tenantId, customerId);
     }
 
-    private static String enrichWithScore(String value) {
-        try {
-            JsonNode transaction = objectMapper.readTree(value);
-            ObjectNode enriched = (ObjectNode) transaction.deepCopy();
+    private static String customerKey(String key, String tenantId, String customerId) {
+        return customerId == null || customerId.isEmpty() ? key : customerKey(tenantId, customerId);
+    }
+
+    /** Reads the customer of a payload object, leaving the parser at its end. */
+    private static String readCustomerId(JsonParser parser) throws IOException {
+        String customerId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("customer_id".equals(field) && token == JsonToken.VALUE_STRING) {
+                customerId = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return customerId;
+    }
+
+    /** Key of a customer in the state stores. */
+    static String customerKey(String tenantId, String customerId) {
+        return tenantId + ":" + customerId;
+    }
+
+    private static EventEnvelope<TransactionPayload> decode(byte[] value) {
+        if (value == null) {
+            throw new SerializationException("Transaction record has no value");
+        }
+        return DECODER.deserialize(INPUT_TOPIC, value);
+    }
+
+    /** Re-keys raw transactions by customer, dead-lettering those without a readable key. */
+    private static final class KeyingProcessor
+            implements Processor<String, byte[], String, ProcessingOutcome<byte[]>> {
+
+        private ProcessorContext<String, ProcessingOutcome<byte[]>> context;
+        private TopologyMetrics metrics;
+        private Timer latency;
+
+        @Override
+        public void init(ProcessorContext<String, ProcessingOutcome<byte[]>> context) {
+            this.context = context;
+            this.metrics = new TopologyMetrics(context.metrics(), TOPOLOGY);
+            this.latency = metrics.stageLatency("decode");
+        }
+
+        @Override
+        public void process(Record<String, byte[]> record) {
+            long start = System.nanoTime();
+            try {
+                rekey(record);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void rekey(Record<String, byte[]> record) {
+            metrics.recordInput();
+            String key;
+            try {
+                key = customerKey(record.key(), record.value());
+            } catch (IOException | RuntimeException e) {
+                metrics.recordDeadLetter();
+                EventEnvelope<DeadLetter> deadLetter = DeadLetters.deadLetter(INPUT_TOPIC, record.key(),
+                        record.value(), record.headers(), context.recordMetadata(), TOPOLOGY, "decode", e);
+                context.forward(record
+                        .withValue(ProcessingOutcome.<byte[]>failure(deadLetter))
+                        .withHeaders(DeadLetters.headers(deadLetter)));
+                return;
+            }
+            context.forward(record.withKey(key).withValue(ProcessingOutcome.success(record.value())));
+        }
+    }
+
+    /** Scores transactions with features from the customer activity store. */
+    private static final class ScoringProcessor
+            implements FixedKeyProcessor<String, byte[], ProcessingOutcome<ScoredTransaction>> {
+
+        private final FxRates fxRates;
+        private final EmbeddedModel model;
+        private FixedKeyProcessorContext<String, ProcessingOutcome<ScoredTransaction>> context;
+        private WindowStore<String, CustomerActivityBucket> activity;
+        private TopologyMetrics metrics;
+        private Timer latency;
+
+        ScoringProcessor(FxRates fxRates, EmbeddedModel model) {
+            this.fxRates = fxRates;
+            this.model = model;
+        }
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, ProcessingOutcome<ScoredTransaction>> context) {
+            this.context = context;
+            this.activity = context.getStateStore(ACTIVITY_STORE);
+            this.metrics = new TopologyMetrics(context.metrics(), TOPOLOGY);
+            this.latency = metrics.stageLatency("score");
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, byte[]> record) {
+            long start = System.nanoTime();
+            try {
+                score(record);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void score(FixedKeyRecord<String, byte[]> record) {
+            ScoredTransaction scored;
+            try {
+                scored = enrichWithScore(record.key(), decode(record.value()), record.timestamp());
+            } catch (RuntimeException e) {
+                metrics.recordDeadLetter();
+                EventEnvelope<DeadLetter> deadLetter = DeadLetters.deadLetter(INPUT_TOPIC, record.key(),
+                        record.value(), record.headers(), context.recordMetadata(), TOPOLOGY, "score", e);
+                context.forward(record
+                        .withValue(ProcessingOutcome.<ScoredTransaction>failure(deadLetter))
+                        .withHeaders(DeadLetters.headers(deadLetter)));
+                return;
+            }
+            context.forward(record.withValue(ProcessingOutcome.success(scored)));
+        }
+
+        private ScoredTransaction enrichWithScore(String key, EventEnvelope<TransactionPayload> event,
+                long timestamp) {
+            TransactionPayload transaction = event.getPayload() != null ? event.getPayload() : new TransactionPayload();
 
             // Extract features for scoring
-            double amount = transaction.path("amount").asDouble(0);
-            String counterpartyCountry = transaction.path("counterparty_country").asText("");
+            long amount = toMinorUnits(transaction.getAmount());
+            OptionalLong baseAmount = fxRates.toBase(amount, transaction.getCurrency());
+            if (baseAmount.isPresent()) {
+                amount = baseAmount.getAsLong();
+                event.put("base_amount", BigDecimal.valueOf(amount, AMOUNT_EXPONENT));
+                event.put("base_currency", fxRates.baseCurrency());
+                event.put("fx_version", fxRates.version());
+            }
+            String counterpartyCountry = transaction.getCounterpartyCountry();
+
+            VelocityFeatures velocity = transaction.getCustomerId() == null || transaction.getCustomerId().isEmpty()
+                    ? VelocityFeatures.NONE
+                    : recordActivity(key, timestamp, amount, transaction.getCounterpartyId());
+
+            // Rule-based score, refined by the embedded model or the inference stage when enabled
+            double score = computeRuleScore(amount, counterpartyCountry, velocity);
+            double[] features = ModelFeatures.extract(amount, AMOUNT_EXPONENT, counterpartyCountry, velocity);
+
+            event.put("risk_score", score);
+            event.put("risk_level", scoreToLevel(score));
+            event.put("scored_at", System.currentTimeMillis());
+            event.put("velocity", velocity.toFields(AMOUNT_EXPONENT));
+
+            CompiledModel compiled = model != null ? model.current() : null;
+            if (compiled != null) {
+                applyModelScore(event, score, compiled.score(features), compiled.modelId());
+            } else if (model != null) {
+                event.put("score_source", "rules");
+            }
+            return new ScoredTransaction(event, features, score);
+        }
+
+        private VelocityFeatures recordActivity(String key, long timestamp, long amount, String counterpartyId) {
+            long bucketStart = timestamp - Math.floorMod(timestamp, BUCKET_SIZE.toMillis());
+
+            CustomerActivityBucket bucket = activity.fetch(key, bucketStart);
+            if (bucket == null) {
+                bucket = new CustomerActivityBucket();
+            }
+            boolean nearThreshold = amount >= REPORTING_THRESHOLD_MINOR - STRUCTURING_RANGE_MINOR
+                    && amount < REPORTING_THRESHOLD_MINOR;
+            bucket.add(amount, nearThreshold, counterpartyHash(counterpartyId));
+            activity.put(key, bucket, bucketStart);
+
+            long longWindowStart = bucketStart - LONG_WINDOW.toMillis() + BUCKET_SIZE.toMillis();
+            long shortWindowStart = bucketStart - SHORT_WINDOW.toMillis() + BUCKET_SIZE.toMillis();
+            try (WindowStoreIterator<CustomerActivityBucket> buckets =
+                    activity.fetch(key, longWindowStart, bucketStart)) {
+                return VelocityFeatures.fold(buckets, shortWindowStart);
+            }
+        }
+
+        /** Non-zero hash of a counterparty identifier; 0 means no counterparty. */
+        private static int counterpartyHash(String counterpartyId) {
+            if (counterpartyId == null || counterpartyId.isEmpty()) {
+                return 0;
+            }
+            int hash = counterpartyId.hashCode();
+            return hash != 0 ? hash : 1;
+        }
+    }
+
+    /** Keeps each customer's latest risk score and score aggregates for interactive queries. */
+    private static final class RiskStateProcessor implements FixedKeyProcessor<String,
+            EventEnvelope<TransactionPayload>, EventEnvelope<TransactionPayload>> {
+
+        private FixedKeyProcessorContext<String, EventEnvelope<TransactionPayload>> context;
+        private KeyValueStore<String, CustomerRiskState> risk;
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, EventEnvelope<TransactionPayload>> context) {
+            this.context = context;
+            this.risk = context.getStateStore(RISK_STORE);
+        }
 
-            // Simple rule-based scoring (production uses AI service)
-            double score = computeRuleScore(amount, counterpartyCountry);
+        @Override
+        public void process(FixedKeyRecord<String, EventEnvelope<TransactionPayload>> record) {
+            EventEnvelope<TransactionPayload> event = record.value();
+            TransactionPayload transaction = event.getPayload();
+            // Transactions without a customer keep their original key and are not customer state
+            if (transaction != null && transaction.getCustomerId() != null && !transaction.getCustomerId().isEmpty()
+                    && event.getExtensions().get("risk_score") instanceof Number score) {
+                Object txnId = transaction.getOtherFields().get("txn_id");
+                risk.put(record.key(), CustomerRiskState.update(risk.get(record.key()), score.doubleValue(),
+                        (String) event.getExtensions().get("risk_level"),
+                        (String) event.getExtensions().get("score_source"),
+                        txnId != null ? txnId.toString() : null,
+                        context.currentSystemTimeMs()));
+            }
+            context.forward(record);
+        }
+    }
 
-            enriched.put("risk_score", score);
-            enriched.put("risk_level", scoreToLevel(score));
-            enriched.put("scored_at", System.currentTimeMillis());
+    /**
+     * Folds a customer's activity in the windows ending at a time, as the
+     * scoring stage does for a transaction at that time.
+     *
+     * @param activity The activity store
+     * @param key      The customer key
+     * @param time     End of the windows
+     * @return The features
+     */
+    static VelocityFeatures velocityAt(ReadOnlyWindowStore<String, CustomerActivityBucket> activity, String key,
+            long time) {
+        long bucketStart = time - Math.floorMod(time, BUCKET_SIZE.toMillis());
+        long longWindowStart = bucketStart - LONG_WINDOW.toMillis() + BUCKET_SIZE.toMillis();
+        long shortWindowStart = bucketStart - SHORT_WINDOW.toMillis() + BUCKET_SIZE.toMillis();
+        try (WindowStoreIterator<CustomerActivityBucket> buckets = activity.fetch(key,
+                Instant.ofEpochMilli(longWindowStart), Instant.ofEpochMilli(bucketStart))) {
+            return VelocityFeatures.fold(buckets, shortWindowStart);
+        }
+    }
 
-            return objectMapper.writeValueAsString(enriched);
-        } catch (Exception e) {
-            log.error("Failed to process transaction", e);
-            return null;
+    /**
+     * Converts an amount to minor units, rounding half-even to
+     * {@link #AMOUNT_EXPONENT} decimal places.
+     *
+     * @param amount The amount; a missing amount counts as 0
+     * @return The amount in minor units
+     * @throws ArithmeticException if the amount overflows a long
+     */
+    static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
         }
+        return amount.setScale(AMOUNT_EXPONENT, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
     }
 
-    private static double computeRuleScore(double amount, String country) {
+    private static double computeRuleScore(long amount, String country, VelocityFeatures velocity) {
         double score = 0.0;
 
-        if (amount > 10000) {
+        if (amount > HIGH_VALUE_MINOR) {
             score += 0.2;
         }
-        if (amount > 50000) {
+        if (amount > VERY_HIGH_VALUE_MINOR) {
             score += 0.3;
         }
 
-        if ("IR".equals(country) || "KP".equals(country) || "SY".equals(country)) {
+        if (country != null && ModelFeatures.HIGH_RISK_COUNTRIES.contains(country)) {
             score += 0.5;
         }
 
+        // Velocity and structuring features from the customer's recent activity
+        if (velocity.countShort() >= VELOCITY_COUNT_SHORT) {
+            score += 0.2;
+        }
+        if (velocity.sumLong() > VERY_HIGH_VALUE_MINOR) {
+            score += 0.2;
+        }
+        if (velocity.nearThresholdLong() >= STRUCTURING_COUNT_LONG) {
+            score += 0.3;
+        }
+        if (velocity.distinctCounterpartiesLong() >= FAN_OUT_COUNTERPARTIES_LONG) {
+            score += 0.1;
+        }
+
         return Math.min(score, 1.0);
     }
 
-    private static String scoreToLevel(double score) {
+    /**
+     * Sets the risk score of a transaction from its model score.
+     *
+     * @param event      The transaction
+     * @param ruleScore  The rule score
+     * @param modelScore The model score, in [0, 1]
+     * @param modelId    Identifier of the model
+     */
+    static void applyModelScore(EventEnvelope<TransactionPayload> event, double ruleScore, double modelScore,
+            String modelId) {
+        // Rule hits such as sanctioned countries are never scored down by the model
+        double score = Math.max(ruleScore, modelScore);
+        event.put("risk_score", score);
+        event.put("risk_level", scoreToLevel(score));
+        event.put("rule_score", ruleScore);
+        event.put("model_score", modelScore);
+        event.put("model_id", modelId);
+        event.put("score_source", "model");
+    }
+
+    static String scoreToLevel(double score) {
         if (score >= 0.8)
             return "CRITICAL";
         if (score >= 0.6)
@@ -0,0 +1,84 @@
+package dev.hafnium.stream;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+
+/**
+ * Sliding-window activity features of a customer at the time of a
+ * transaction, including that transaction.
+ *
+ * @param countShort                 Transactions in the short window
+ * @param sumShort                   Base currency amount in the short window,
+ *                                   in minor units
+ * @param countLong                  Transactions in the long window
+ * @param sumLong                    Base currency amount in the long window,
+ *                                   in minor units
+ * @param nearThresholdLong          Transactions just below the reporting
+ *                                   threshold in the long window
+ * @param distinctCounterpartiesLong Distinct counterparties in the long window
+ */
+record VelocityFeatures(
+        long countShort,
+        long sumShort,
+        long countLong,
+        long sumLong,
+        long nearThresholdLong,
+        int distinctCounterpartiesLong) {
+
+    static final VelocityFeatures NONE = new VelocityFeatures(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Folds the buckets of the long window into features.
+     *
+     * @param buckets          Buckets of the long window, by start time
+     * @param shortWindowStart Start of the short window; buckets starting at or
+     *                         after it count towards the short window
+     * @return The features
+     */
+    static VelocityFeatures fold(WindowStoreIterator<CustomerActivityBucket> buckets, long shortWindowStart) {
+        long countShort = 0;
+        long sumShort = 0;
+        long countLong = 0;
+        long sumLong = 0;
+        long nearThreshold = 0;
+        Set<Integer> counterparties = new HashSet<>();
+
+        while (buckets.hasNext()) {
+            KeyValue<Long, CustomerActivityBucket> entry = buckets.next();
+            CustomerActivityBucket bucket = entry.value;
+            countLong += bucket.count();
+            sumLong = CustomerActivityBucket.saturatedAdd(sumLong, bucket.amountSum());
+            nearThreshold += bucket.nearThresholdCount();
+            for (int i = 0; i < bucket.counterpartyCount(); i++) {
+                counterparties.add(bucket.counterpartyAt(i));
+            }
+            if (entry.key >= shortWindowStart) {
+                countShort += bucket.count();
+                sumShort = CustomerActivityBucket.saturatedAdd(sumShort, bucket.amountSum());
+            }
+        }
+        return new VelocityFeatures(countShort, sumShort, countLong, sumLong, nearThreshold, counterparties.size());
+    }
+
+    /**
+     * Returns the features as event fields.
+     *
+     * @param amountExponent Decimal places of the amount minor units
+     * @return The fields, in a stable order
+     */
+    Map<String, Object> toFields(int amountExponent) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("count_1h", countShort);
+        fields.put("sum_1h", BigDecimal.valueOf(sumShort, amountExponent));
+        fields.put("count_24h", countLong);
+        fields.put("sum_24h", BigDecimal.valueOf(sumLong, amountExponent));
+        fields.put("near_threshold_24h", nearThresholdLong);
+        fields.put("distinct_counterparties_24h", distinctCounterpartiesLong);
+        return fields;
+    }
+}
@@ -0,0 +1,82 @@
+package dev.hafnium.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AlertEnrichmentTopologyTest {
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyHarness harness;
+    private TestInputTopic<String, byte[]> alerts;
+    private TestOutputTopic<String, byte[]> enriched;
+    private TestOutputTopic<String, byte[]> deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        harness = new TopologyHarness(AlertEnrichmentTopology::build, stateDir);
+        alerts = harness.input("hf.alert.raised.v1");
+        enriched = harness.output("hf.alert.enriched.v1");
+        deadLetters = harness.output(DeadLetters.TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void addsPriorityAndSlaFromSeverity() {
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "CRITICAL", "txn-1", "customer-1"));
+        alerts.pipeInput("alert-2", EventGenerator.alert("alert-2", "rule-1", "medium", "txn-2", "customer-1"));
+
+        List<JsonNode> events = TopologyHarness.readJson(enriched);
+        assertThat(events).extracting(event -> event.path("priority").asInt()).containsExactly(1, 3);
+        JsonNode critical = events.get(0);
+        assertThat(critical.path("sla_deadline_ms").asLong() - critical.path("enriched_at").asLong())
+                .isBetween(Duration.ofDays(1).toMillis(), Duration.ofDays(1).toMillis() + 1_000);
+        assertThat(critical.path("enrichment_version").asText()).isEqualTo("1.0.0");
+        assertThat(critical.path("payload").path("alert_id").asText()).isEqualTo("alert-1");
+    }
+
+    @Test
+    void routesUndecodableAlertToDeadLetters() {
+        alerts.pipeInput("alert-1", "{\"payload\":".getBytes());
+
+        assertThat(enriched.isEmpty()).isTrue();
+        JsonNode letter = TopologyHarness.parse(deadLetters.readValue());
+        assertThat(letter.path("event_type").asText()).isEqualTo(DeadLetters.EVENT_TYPE);
+        assertThat(letter.path("payload").path("stage").asText()).isEqualTo("enrich");
+    }
+
+    @Test
+    void replaysGeneratedStream() {
+        EventGenerator generator = new EventGenerator(7L, 1_000);
+        int warmup = TopologyHarness.PERF_RECORDS / 4;
+        List<TestRecord<String, byte[]>> records = generator.alerts(
+                warmup + TopologyHarness.PERF_RECORDS, TopologyHarness.START, Duration.ofHours(48));
+
+        harness.replay("alert-enrichment warmup", alerts, records.subList(0, warmup));
+        enriched.readValuesToList();
+        TopologyHarness.Throughput throughput = harness.replay("alert-enrichment", alerts,
+                records.subList(warmup, records.size()));
+
+        List<JsonNode> events = TopologyHarness.readJson(enriched);
+        assertThat(events).hasSize(TopologyHarness.PERF_RECORDS);
+        assertThat(events).allSatisfy(event -> assertThat(event.path("priority").asInt()).isBetween(1, 4));
+        assertThat(deadLetters.isEmpty()).isTrue();
+        throughput.assertWithinLimits();
+    }
+}
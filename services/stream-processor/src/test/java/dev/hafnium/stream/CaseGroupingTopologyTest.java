@@ -0,0 +1,124 @@
+package dev.hafnium.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CaseGroupingTopologyTest {
+
+    private static final Duration LINGER = Duration.ofMinutes(15);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyHarness harness;
+    private TestInputTopic<String, byte[]> transactions;
+    private TestInputTopic<String, byte[]> alerts;
+    private TestOutputTopic<String, byte[]> cases;
+
+    @BeforeEach
+    void setUp() {
+        harness = new TopologyHarness(builder -> CaseGroupingTopology.build(builder, LINGER), stateDir);
+        transactions = harness.input("hf.txn.scored.v1");
+        alerts = harness.input("hf.alert.enriched.v1");
+        cases = harness.output("hf.case.created.v1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void proposesCaseForCustomerAlertsOnceIdle() {
+        Instant start = TopologyHarness.START;
+        transactions.pipeInput("txn-1",
+                EventGenerator.transaction("txn-1", "customer-1", "100.00", "USD", "cp-1", "IR"), start);
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "MEDIUM", "txn-1", "customer-1"),
+                start.plusSeconds(30));
+        alerts.pipeInput("alert-2", EventGenerator.alert("alert-2", "rule-2", "HIGH", null, "customer-1"),
+                start.plusSeconds(60));
+        // A replayed alert does not grow the group
+        alerts.pipeInput("alert-2", EventGenerator.alert("alert-2", "rule-2", "HIGH", null, "customer-1"),
+                start.plusSeconds(61));
+
+        assertThat(cases.isEmpty()).isTrue();
+        harness.driver().advanceWallClockTime(LINGER.plusMinutes(1));
+
+        var output = cases.readRecord();
+        JsonNode event = TopologyHarness.parse(output.value());
+        JsonNode proposal = event.path("payload");
+        assertThat(output.key()).isEqualTo(EventGenerator.TENANT_ID + ":customer-1");
+        assertThat(event.path("event_type").asText()).isEqualTo("CASE_CREATED");
+        assertThat(proposal.path("alert_ids")).extracting(JsonNode::asText).containsExactly("alert-1", "alert-2");
+        assertThat(proposal.path("counterparty_ids")).extracting(JsonNode::asText).containsExactly("cp-1");
+        assertThat(proposal.path("case_type").asText()).isEqualTo("SANCTIONS_HIT");
+        assertThat(proposal.path("priority").asText()).isEqualTo("high");
+        assertThat(proposal.path("proposed").asBoolean()).isTrue();
+        assertThat(cases.isEmpty()).isTrue();
+    }
+
+    @Test
+    void proposesFullGroupAtOnce() {
+        for (int i = 0; i < CaseGroupingTopology.MAX_ALERTS; i++) {
+            alerts.pipeInput("alert-" + i, EventGenerator.alert("alert-" + i, "rule-1", "LOW", null, "customer-1"),
+                    TopologyHarness.START.plusSeconds(i));
+        }
+
+        List<JsonNode> events = TopologyHarness.readJson(cases);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).path("payload").path("alert_ids")).hasSize(CaseGroupingTopology.MAX_ALERTS);
+        assertThat(events.get(0).path("payload").path("case_type").asText()).isEqualTo("ALERT_INVESTIGATION");
+    }
+
+    @Test
+    void dropsAlertsReplayedAfterTheirCaseWasProposed() {
+        Instant start = TopologyHarness.START;
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "LOW", null, "customer-1"), start);
+        harness.driver().advanceWallClockTime(LINGER.plusMinutes(1));
+        assertThat(TopologyHarness.readJson(cases)).hasSize(1);
+
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "LOW", null, "customer-1"), start);
+        harness.driver().advanceWallClockTime(LINGER.plusMinutes(1));
+        assertThat(cases.isEmpty()).isTrue();
+    }
+
+    @Test
+    void startsNewGroupForAlertsApartInRecordTime() {
+        Instant start = TopologyHarness.START;
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "LOW", null, "customer-1"), start);
+        // Arrives at once, but was raised well after the first alert's group went idle
+        alerts.pipeInput("alert-2", EventGenerator.alert("alert-2", "rule-1", "LOW", null, "customer-1"),
+                start.plus(LINGER.plusMinutes(1)));
+
+        List<JsonNode> first = TopologyHarness.readJson(cases);
+        assertThat(first).hasSize(1);
+        assertThat(first.get(0).path("payload").path("alert_ids")).extracting(JsonNode::asText)
+                .containsExactly("alert-1");
+
+        harness.driver().advanceWallClockTime(LINGER.plusMinutes(1));
+        assertThat(TopologyHarness.readJson(cases).get(0).path("payload").path("alert_ids"))
+                .extracting(JsonNode::asText).containsExactly("alert-2");
+    }
+
+    @Test
+    void keepsCustomersApart() {
+        alerts.pipeInput("alert-1", EventGenerator.alert("alert-1", "rule-1", "LOW", null, "customer-1"));
+        alerts.pipeInput("alert-2", EventGenerator.alert("alert-2", "rule-1", "LOW", null, "customer-2"));
+        harness.driver().advanceWallClockTime(LINGER.plusMinutes(1));
+
+        assertThat(TopologyHarness.readJson(cases))
+                .extracting(event -> event.path("payload").path("customer_id").asText())
+                .containsExactlyInAnyOrder("customer-1", "customer-2");
+    }
+}
@@ -0,0 +1,112 @@
+package dev.hafnium.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.apache.kafka.streams.test.TestRecord;
+
+/**
+ * Generates event streams for the topology tests.
+ *
+ * <p>
+ * Events are built as JSON bytes, the way the backend publishes them, with a
+ * fixed seed so every run replays the same stream. Customers, counterparties
+ * and countries are drawn from small pools, so windows and groups fill up as
+ * they would in production.
+ */
+final class EventGenerator {
+
+    static final String TENANT_ID = "tenant-1";
+
+    private static final String[] COUNTRIES = {"DE", "FR", "GB", "US", "NL", "IR"};
+    private static final String[] SEVERITIES = {"LOW", "MEDIUM", "HIGH", "CRITICAL"};
+
+    private final SplittableRandom random;
+    private final int customers;
+
+    /**
+     * @param seed      Seed of the stream
+     * @param customers Size of the customer pool
+     */
+    EventGenerator(long seed, int customers) {
+        this.random = new SplittableRandom(seed);
+        this.customers = customers;
+    }
+
+    /**
+     * Generates transactions spread evenly over a period.
+     *
+     * @param count  Number of transactions
+     * @param start  Time of the first transaction
+     * @param period Time the transactions span
+     * @return The records, keyed by transaction identifier
+     */
+    List<TestRecord<String, byte[]>> transactions(int count, Instant start, Duration period) {
+        List<TestRecord<String, byte[]>> records = new ArrayList<>(count);
+        long step = Math.max(1L, period.toMillis() / Math.max(1, count));
+        for (int i = 0; i < count; i++) {
+            String txnId = "txn-" + i;
+            // Mostly everyday amounts, with some near and above the reporting threshold
+            String amount = switch (random.nextInt(20)) {
+                case 0 -> (9_500 + random.nextInt(500)) + ".00";
+                case 1 -> (20_000 + random.nextInt(60_000)) + ".00";
+                default -> random.nextInt(2_000) + "." + String.format("%02d", random.nextInt(100));
+            };
+            records.add(new TestRecord<>(txnId, transaction(txnId, customer(), amount, "USD",
+                    "cp-" + random.nextInt(200), COUNTRIES[random.nextInt(COUNTRIES.length)]),
+                    start.plusMillis(i * step)));
+        }
+        return records;
+    }
+
+    /**
+     * Generates alerts spread evenly over a period.
+     *
+     * @param count  Number of alerts
+     * @param start  Time of the first alert
+     * @param period Time the alerts span
+     * @return The records, keyed by alert identifier
+     */
+    List<TestRecord<String, byte[]>> alerts(int count, Instant start, Duration period) {
+        List<TestRecord<String, byte[]>> records = new ArrayList<>(count);
+        long step = Math.max(1L, period.toMillis() / Math.max(1, count));
+        for (int i = 0; i < count; i++) {
+            String alertId = "alert-" + i;
+            records.add(new TestRecord<>(alertId, alert(alertId, "rule-" + random.nextInt(10),
+                    SEVERITIES[random.nextInt(SEVERITIES.length)], "txn-" + random.nextInt(count), customer()),
+                    start.plusMillis(i * step)));
+        }
+        return records;
+    }
+
+    private String customer() {
+        return "customer-" + random.nextInt(customers);
+    }
+
+    /** Builds a {@code TRANSACTION_INGESTED} event. */
+    static byte[] transaction(String txnId, String customerId, String amount, String currency,
+            String counterpartyId, String counterpartyCountry) {
+        return ("""
+                {"event_id":"evt-%s","event_type":"TRANSACTION_INGESTED","tenant_id":"%s","trace_id":"trace-%s",\
+                "occurred_at":"2026-01-01T00:00:00Z","schema_version":"1.0.0","payload":{"txn_id":"%s",\
+                "customer_id":"%s","amount":%s,"currency":"%s","counterparty_id":"%s",\
+                "counterparty_country":"%s","txn_type":"transfer"}}"""
+                .formatted(txnId, TENANT_ID, txnId, txnId, customerId, amount, currency, counterpartyId,
+                        counterpartyCountry))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Builds an {@code ALERT_RAISED} event; a null transaction is left out. */
+    static byte[] alert(String alertId, String ruleId, String severity, String txnId, String customerId) {
+        return ("""
+                {"event_id":"evt-%s","event_type":"ALERT_RAISED","tenant_id":"%s","trace_id":"trace-%s",\
+                "occurred_at":"2026-01-01T00:00:00Z","schema_version":"1.0.0","payload":{"alert_id":"%s",\
+                "rule_id":"%s","severity":"%s",%s"customer_id":"%s","score":0.7}}"""
+                .formatted(alertId, TENANT_ID, alertId, alertId, ruleId, severity,
+                        txnId != null ? "\"txn_id\":\"" + txnId + "\"," : "", customerId))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
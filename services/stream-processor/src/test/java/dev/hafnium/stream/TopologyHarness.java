@@ -0,0 +1,174 @@
+package dev.hafnium.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.test.TestRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs topologies in a {@link TopologyTestDriver} and measures replays.
+ *
+ * <p>
+ * The driver processes every record synchronously on the calling thread, so
+ * the time and heap allocation of that thread while piping a stream are
+ * those of the topology, including its RocksDB stores, serdes and the
+ * driver's capture of the output records. Allocation is read from
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ *
+ * <p>
+ * Measurements are logged, and checked against limits when they are set as
+ * system properties:
+ * <ul>
+ * <li>{@code hafnium.perf.min-records-per-second}</li>
+ * <li>{@code hafnium.perf.max-bytes-per-record}</li>
+ * </ul>
+ * Limits are off by default, as throughput depends on the machine.
+ *
+ * <p>
+ * The driver commits after every record, which flushes the RocksDB stores
+ * each time, so topologies with persistent stores run far slower here than
+ * on a broker. The figures are for comparing runs, not for sizing.
+ */
+final class TopologyHarness implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TopologyHarness.class);
+
+    /** Wall-clock and event time at which every run starts. */
+    static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    /** Records replayed by throughput tests, overridable with {@code hafnium.perf.records}. */
+    static final int PERF_RECORDS = Integer.getInteger("hafnium.perf.records", 5_000);
+
+    private final TopologyTestDriver driver;
+
+    /**
+     * @param topology Adds the topologies under test to a builder
+     * @param stateDir Directory of the state stores
+     */
+    TopologyHarness(Consumer<StreamsBuilder> topology, Path stateDir) {
+        StreamsBuilder builder = new StreamsBuilder();
+        topology.accept(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "hafnium-stream-processor-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "unused:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        this.driver = new TopologyTestDriver(builder.build(), props, START);
+    }
+
+    TopologyTestDriver driver() {
+        return driver;
+    }
+
+    TestInputTopic<String, byte[]> input(String topic) {
+        return driver.createInputTopic(topic, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    TestOutputTopic<String, byte[]> output(String topic) {
+        return driver.createOutputTopic(topic, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    /**
+     * Reads and parses every record waiting on an output topic.
+     *
+     * @param output The topic
+     * @return The record values as JSON trees
+     */
+    static List<JsonNode> readJson(TestOutputTopic<String, byte[]> output) {
+        return output.readValuesToList().stream()
+                .map(TopologyHarness::parse)
+                .toList();
+    }
+
+    static JsonNode parse(byte[] value) {
+        try {
+            return EventSerde.MAPPER.readTree(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Pipes records into a topic and measures the processing.
+     *
+     * @param name    Name of the measurement in the report
+     * @param input   The topic
+     * @param records The records, generated beforehand so that generation is
+     *                not measured
+     * @return The measurement
+     */
+    Throughput replay(String name, TestInputTopic<String, byte[]> input, List<TestRecord<String, byte[]>> records) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        input.pipeRecordList(records);
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Throughput throughput = new Throughput(name, records.size(), elapsedNanos, allocated);
+        log.info("{}: {} records in {} ms, {} records/s, {} bytes allocated per record", name,
+                throughput.records(), elapsedNanos / 1_000_000, Math.round(throughput.recordsPerSecond()),
+                Math.round(throughput.bytesPerRecord()));
+        return throughput;
+    }
+
+    @Override
+    public void close() {
+        driver.close();
+    }
+
+    /**
+     * Result of a replay.
+     *
+     * @param name           Name of the measurement
+     * @param records        Records piped
+     * @param elapsedNanos   Time to process them
+     * @param allocatedBytes Heap allocated by the processing thread
+     */
+    record Throughput(String name, int records, long elapsedNanos, long allocatedBytes) {
+
+        double recordsPerSecond() {
+            return records * 1_000_000_000.0 / Math.max(1L, elapsedNanos);
+        }
+
+        double bytesPerRecord() {
+            return (double) allocatedBytes / Math.max(1, records);
+        }
+
+        /** Fails if the measurement misses a limit set as a system property. */
+        void assertWithinLimits() {
+            String minRate = System.getProperty("hafnium.perf.min-records-per-second");
+            if (minRate != null) {
+                assertThat(recordsPerSecond()).as("%s records per second", name)
+                        .isGreaterThanOrEqualTo(Double.parseDouble(minRate));
+            }
+            String maxAllocation = System.getProperty("hafnium.perf.max-bytes-per-record");
+            if (maxAllocation != null) {
+                assertThat(bytesPerRecord()).as("%s bytes allocated per record", name)
+                        .isLessThanOrEqualTo(Double.parseDouble(maxAllocation));
+            }
+        }
+    }
+}
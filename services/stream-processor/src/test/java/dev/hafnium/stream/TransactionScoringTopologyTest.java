@@ -0,0 +1,154 @@
+package dev.hafnium.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TransactionScoringTopologyTest {
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyHarness harness;
+    private TestInputTopic<String, byte[]> transactions;
+    private TestOutputTopic<String, byte[]> scored;
+    private TestOutputTopic<String, byte[]> deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        harness = new TopologyHarness(
+                builder -> TransactionScoringTopology.build(builder, new FxRates("USD", null), null, null),
+                stateDir);
+        transactions = harness.input("hf.txn.ingested.v1");
+        scored = harness.output("hf.txn.scored.v1");
+        deadLetters = harness.output(DeadLetters.TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void scoresTransactionAndKeysItByCustomer() {
+        transactions.pipeInput("txn-1",
+                EventGenerator.transaction("txn-1", "customer-1", "250.00", "USD", "cp-1", "DE"),
+                TopologyHarness.START);
+
+        var output = scored.readRecord();
+        JsonNode event = TopologyHarness.parse(output.value());
+        assertThat(output.key()).isEqualTo(EventGenerator.TENANT_ID + ":customer-1");
+        assertThat(event.path("payload").path("txn_id").asText()).isEqualTo("txn-1");
+        assertThat(event.path("risk_score").asDouble()).isZero();
+        assertThat(event.path("risk_level").asText()).isEqualTo("LOW");
+        assertThat(event.path("velocity").path("count_1h").asInt()).isEqualTo(1);
+        assertThat(deadLetters.isEmpty()).isTrue();
+    }
+
+    @Test
+    void scoresHighRiskCountryAndLargeAmount() {
+        transactions.pipeInput("txn-1",
+                EventGenerator.transaction("txn-1", "customer-1", "60000.00", "USD", "cp-1", "IR"),
+                TopologyHarness.START);
+
+        JsonNode event = TopologyHarness.parse(scored.readValue());
+        assertThat(event.path("risk_score").asDouble()).isEqualTo(1.0);
+        assertThat(event.path("risk_level").asText()).isEqualTo("CRITICAL");
+    }
+
+    @Test
+    void accumulatesVelocityPerCustomer() {
+        for (int i = 0; i < 5; i++) {
+            transactions.pipeInput("txn-" + i,
+                    EventGenerator.transaction("txn-" + i, "customer-1", "100.00", "USD", "cp-" + i, "DE"),
+                    TopologyHarness.START.plus(Duration.ofMinutes(10L * i)));
+        }
+        transactions.pipeInput("other",
+                EventGenerator.transaction("other", "customer-2", "100.00", "USD", "cp-1", "DE"),
+                TopologyHarness.START.plus(Duration.ofMinutes(45)));
+
+        List<JsonNode> events = TopologyHarness.readJson(scored);
+        assertThat(events).hasSize(6);
+        JsonNode fifth = events.get(4);
+        assertThat(fifth.path("velocity").path("count_1h").asInt()).isEqualTo(5);
+        assertThat(fifth.path("velocity").path("distinct_counterparties_24h").asInt()).isEqualTo(5);
+        // Five transactions within the hour trip the velocity rule
+        assertThat(fifth.path("risk_score").asDouble()).isEqualTo(0.2);
+        assertThat(events.get(5).path("velocity").path("count_1h").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void routesUndecodableTransactionToDeadLetters() {
+        transactions.pipeInput("txn-1", "not json".getBytes(), TopologyHarness.START);
+
+        assertThat(scored.isEmpty()).isTrue();
+        List<JsonNode> letters = TopologyHarness.readJson(deadLetters);
+        assertThat(letters).extracting(letter -> letter.path("payload").path("stage").asText())
+                .containsExactly("decode");
+        assertThat(letters).allSatisfy(letter -> assertThat(letter.path("payload").path("original_topic").asText())
+                .isEqualTo("hf.txn.ingested.v1"));
+    }
+
+    @Test
+    void keysTransactionWithFieldsInAnyOrder() {
+        transactions.pipeInput("txn-1", """
+                {"payload":{"metadata":{"customer_id":"nested"},"customer_id":"customer-1","amount":10},\
+                "extra":[1,{"tenant_id":"nested"}],"tenant_id":"%s"}""".formatted(EventGenerator.TENANT_ID)
+                .getBytes(StandardCharsets.UTF_8), TopologyHarness.START);
+
+        var output = scored.readRecord();
+        assertThat(output.key()).isEqualTo(EventGenerator.TENANT_ID + ":customer-1");
+        assertThat(deadLetters.isEmpty()).isTrue();
+    }
+
+    @Test
+    void roundsAmountsHalfEvenToMinorUnits() {
+        transactions.pipeInput("txn-1",
+                EventGenerator.transaction("txn-1", "customer-1", "1.00001", "USD", "cp-1", "DE"),
+                TopologyHarness.START);
+        transactions.pipeInput("txn-2",
+                EventGenerator.transaction("txn-2", "customer-2", "1.00015", "USD", "cp-1", "DE"),
+                TopologyHarness.START);
+        transactions.pipeInput("txn-3",
+                EventGenerator.transaction("txn-3", "customer-3", "1.00025", "USD", "cp-1", "DE"),
+                TopologyHarness.START);
+
+        List<JsonNode> events = TopologyHarness.readJson(scored);
+        assertThat(events).extracting(event -> event.path("velocity").path("sum_1h").decimalValue())
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("1.0000"), new BigDecimal("1.0002"), new BigDecimal("1.0002"));
+        assertThat(deadLetters.isEmpty()).isTrue();
+    }
+
+    @Test
+    void replaysGeneratedStream() {
+        EventGenerator generator = new EventGenerator(42L, 1_000);
+        int warmup = TopologyHarness.PERF_RECORDS / 4;
+        List<TestRecord<String, byte[]>> records = generator.transactions(
+                warmup + TopologyHarness.PERF_RECORDS, TopologyHarness.START, Duration.ofHours(48));
+
+        harness.replay("transaction-scoring warmup", transactions, records.subList(0, warmup));
+        scored.readValuesToList();
+        TopologyHarness.Throughput throughput = harness.replay("transaction-scoring", transactions,
+                records.subList(warmup, records.size()));
+
+        List<JsonNode> events = TopologyHarness.readJson(scored);
+        assertThat(events).hasSize(TopologyHarness.PERF_RECORDS);
+        assertThat(events).allSatisfy(event -> assertThat(event.path("risk_score").asDouble()).isBetween(0.0, 1.0));
+        assertThat(events).anySatisfy(event -> assertThat(event.path("risk_level").asText()).isEqualTo("CRITICAL"));
+        assertThat(deadLetters.isEmpty()).isTrue();
+        throughput.assertWithinLimits();
+    }
+}